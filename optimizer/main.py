@@ -1,6 +1,13 @@
-from fastapi import FastAPI, HTTPException
-from models import OptimizationRequest, OptimizationResponse, Location
-from solver import solve_tsp
+from fastapi import FastAPI, HTTPException, Request
+from fastapi.concurrency import run_in_threadpool
+from fastapi.exceptions import RequestValidationError
+from fastapi.middleware.gzip import GZipMiddleware
+from models import OptimizationRequest, OptimizationResponse, SolveOptions, SearchStats
+from pydantic import ValidationError
+from solver import solve_tsp_with_stats
+from transport import (BINARY_MEDIA_TYPE, MAX_LOCATIONS, SUPPORTED_FORMATS, decode_content_encoding,
+                       decode_matrix_request)
+from typing import List
 import logging
 
 logging.basicConfig(level=logging.INFO)
@@ -12,14 +19,47 @@ app = FastAPI(
     version="1.0.0"
 )
 
+# Large routes come back as sizeable JSON; the Java client sends Accept-Encoding: gzip
+app.add_middleware(GZipMiddleware, minimum_size=1000)
+
 
 @app.get("/health")
 def health_check():
-    return {"status": "healthy", "service": "optimizer"}
-
-
-@app.post("/optimize", response_model=OptimizationResponse)
-def optimize_route(request: OptimizationRequest):
+    return {"status": "healthy", "service": "optimizer", "formats": SUPPORTED_FORMATS}
+
+
+@app.post("/optimize", response_model=OptimizationResponse,
+          openapi_extra={"requestBody": {"content": {
+              "application/json": {"schema": OptimizationRequest.model_json_schema()},
+              BINARY_MEDIA_TYPE: {"schema": {"type": "string", "format": "binary"}},
+          }}})
+async def optimize_route(http_request: Request):
+    # JSON for compatibility, or the binary format from transport.py for large matrices
+    content_type = http_request.headers.get("content-type", "application/json").split(";")[0].strip().lower()
+    try:
+        body = decode_content_encoding(await http_request.body(), http_request.headers.get("content-encoding"))
+    except ValueError as e:
+        raise HTTPException(status_code=400, detail=str(e))
+
+    if content_type == BINARY_MEDIA_TYPE:
+        try:
+            request, distance_matrix = decode_matrix_request(body)
+        except ValueError as e:
+            raise HTTPException(status_code=400, detail=str(e))
+    elif content_type == "application/json":
+        try:
+            request = OptimizationRequest.model_validate_json(body)
+        except ValidationError as e:
+            raise RequestValidationError(e.errors())
+        distance_matrix = request.distance_matrix
+    else:
+        raise HTTPException(status_code=415, detail=f"Unsupported content type: {content_type}")
+
+    # The solve is CPU-bound, keep it off the event loop
+    return await run_in_threadpool(solve_route, request, distance_matrix)
+
+
+def solve_route(request: SolveOptions, distance_matrix: List[List[int]]) -> OptimizationResponse:
     logger.info(f"Received optimization request for {len(request.locations)} locations")
 
     # Validate input
@@ -27,10 +67,10 @@ def optimize_route(request: OptimizationRequest):
     if num_locations < 2:
         raise HTTPException(status_code=400, detail="At least 2 locations required")
 
-    if num_locations > 10:
-        raise HTTPException(status_code=400, detail="Maximum 10 locations allowed")
+    if num_locations > MAX_LOCATIONS:
+        raise HTTPException(status_code=400, detail=f"Maximum {MAX_LOCATIONS} locations allowed")
 
-    matrix_size = len(request.distance_matrix)
+    matrix_size = len(distance_matrix)
     if matrix_size != num_locations:
         raise HTTPException(
             status_code=400,
@@ -38,9 +78,12 @@ def optimize_route(request: OptimizationRequest):
         )
 
     # Solve TSP
-    optimized_order, total_distance = solve_tsp(
-        request.distance_matrix,
-        request.is_round_trip
+    optimized_order, total_distance, stats = solve_tsp_with_stats(
+        distance_matrix,
+        request.is_round_trip,
+        time_budget_ms=request.time_budget_ms,
+        solution_limit=request.solution_limit,
+        stagnation_ms=request.stagnation_ms
     )
 
     # Build optimized locations list
@@ -54,28 +97,32 @@ def optimize_route(request: OptimizationRequest):
             route_description.append(f"Start at {loc.name}")
         else:
             prev_idx = optimized_order[i - 1]
-            distance_km = request.distance_matrix[prev_idx][idx] / 1000.0
+            distance_km = distance_matrix[prev_idx][idx] / 1000.0
             route_description.append(f"Go to {loc.name} ({distance_km:.2f} km)")
 
     if request.is_round_trip and len(optimized_order) > 0:
         first_idx = optimized_order[0]
         last_idx = optimized_order[-1]
-        return_distance_km = request.distance_matrix[last_idx][first_idx] / 1000.0
+        return_distance_km = distance_matrix[last_idx][first_idx] / 1000.0
         route_description.append(f"Return to {request.locations[first_idx].name} ({return_distance_km:.2f} km)")
 
     total_distance_km = total_distance / 1000.0
 
-    logger.info(f"Optimization complete: {total_distance_km:.2f} km total")
+    logger.info(f"Optimization complete: {total_distance_km:.2f} km total in {stats['elapsed_ms']} ms "
+                f"(converged={stats['converged']})")
 
     return OptimizationResponse(
         optimized_order=optimized_order,
         optimized_locations=optimized_locations,
         total_distance_meters=total_distance,
         total_distance_km=round(total_distance_km, 2),
-        route_description=route_description
+        route_description=route_description,
+        search_stats=SearchStats(**stats)
     )
 
 
 if __name__ == "__main__":
     import uvicorn
-    uvicorn.run(app, host="0.0.0.0", port=8001)
+    # Longer than the Java client's pool idle-timeout, so idle keep-alive connections
+    # are closed from the client side rather than under an in-flight request
+    uvicorn.run(app, host="0.0.0.0", port=8001, timeout_keep_alive=int(os.getenv("KEEP_ALIVE_TIMEOUT", "65")))
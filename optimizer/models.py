@@ -1,5 +1,5 @@
-from pydantic import BaseModel
-from typing import List, Optional
+from pydantic import BaseModel, Field
+from typing import List, Literal, Optional
 
 
 class Location(BaseModel):
@@ -10,10 +10,37 @@ class Location(BaseModel):
     input_type: Optional[str] = None
 
 
-class OptimizationRequest(BaseModel):
+class SolveOptions(BaseModel):
     locations: List[Location]
-    distance_matrix: List[List[int]]  # distances in meters
     is_round_trip: bool = True
+    time_budget_ms: Optional[int] = Field(default=None, gt=0)  # defaults by number of locations
+    solution_limit: Optional[int] = Field(default=None, gt=0)  # stop after this many solutions
+    stagnation_ms: Optional[int] = Field(default=None, gt=0)  # stop after this long without improvement
+
+
+class OptimizationRequest(SolveOptions):
+    distance_matrix: List[List[int]]  # distances in meters
+
+
+class BinaryMatrixHeader(SolveOptions):
+    """JSON header of an application/x-routesmart-matrix request, see transport.py"""
+    size: int = Field(ge=0)  # the matrix is size x size
+    compression: Literal["none", "zlib"] = "none"
+
+
+class Progress(BaseModel):
+    elapsed_ms: int
+    distance_meters: int
+
+
+class SearchStats(BaseModel):
+    elapsed_ms: int
+    iterations: int  # solutions reported by the search
+    improving_moves: int
+    initial_distance_meters: int
+    final_distance_meters: int
+    converged: bool  # False if the time budget ran out while still improving
+    trajectory: List[Progress] = []
 
 
 class OptimizationResponse(BaseModel):
@@ -22,3 +49,4 @@ class OptimizationResponse(BaseModel):
     total_distance_meters: int
     total_distance_km: float
     route_description: List[str]  # human-readable route steps
+    search_stats: Optional[SearchStats] = None
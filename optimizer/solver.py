@@ -1,33 +1,131 @@
 from ortools.constraint_solver import routing_enums_pb2
 from ortools.constraint_solver import pywrapcp
-from typing import List, Tuple
+from typing import Dict, List, Optional, Tuple
 import logging
+import time
 
 logging.basicConfig(level=logging.INFO)
 logger = logging.getLogger(__name__)
 
+# Default search time scales with the number of locations, within these bounds
+TIME_BUDGET_PER_LOCATION_MS = 50
+MIN_TIME_BUDGET_MS = 200
+MAX_TIME_BUDGET_MS = 5000
 
-def solve_tsp(distance_matrix: List[List[int]], is_round_trip: bool = True) -> Tuple[List[int], int]:
+
+def default_time_budget_ms(num_locations: int) -> int:
+    """Search time used when the request doesn't set time_budget_ms."""
+    return max(MIN_TIME_BUDGET_MS, min(MAX_TIME_BUDGET_MS, TIME_BUDGET_PER_LOCATION_MS * num_locations))
+
+
+def default_stagnation_ms(time_budget_ms: int) -> int:
+    """Stop once a fifth of the budget has passed without a better solution."""
+    return max(50, time_budget_ms // 5)
+
+
+class ImprovementMonitor:
+    """
+    Called by OR-Tools for every solution the search reports. Tracks the best cost and stops
+    the search once it stops improving or the solution limit is reached.
+
+    Note: stagnation is only checked when a solution is reported, so the time limit remains
+    the hard upper bound. Costs are as OR-Tools sees them, i.e. including the return to the
+    depot even for one-way routes.
+    """
+
+    def __init__(self, routing, stagnation_ms: int, solution_limit: Optional[int]):
+        self._routing = routing
+        self._stagnation_ms = stagnation_ms
+        self._solution_limit = solution_limit
+        self._start = time.monotonic()
+        self._last_improvement = self._start
+        self.best_cost = None
+        self.initial_cost = None
+        self.solutions = 0
+        self.improvements = 0
+        self.stopped_early = False
+        self.trajectory = []
+
+    def elapsed_ms(self) -> int:
+        return int((time.monotonic() - self._start) * 1000)
+
+    def __call__(self):
+        now = time.monotonic()
+        cost = self._routing.CostVar().Value()
+        self.solutions += 1
+
+        if self.best_cost is None or cost < self.best_cost:
+            if self.initial_cost is None:
+                self.initial_cost = cost
+            else:
+                self.improvements += 1
+            self.best_cost = cost
+            self._last_improvement = now
+            self.trajectory.append({"elapsed_ms": self.elapsed_ms(), "distance_meters": cost})
+        elif (now - self._last_improvement) * 1000 >= self._stagnation_ms:
+            logger.info(f"No improvement for {self._stagnation_ms} ms, stopping search")
+            self.stopped_early = True
+            self._routing.solver().FinishCurrentSearch()
+            return
+
+        if self._solution_limit is not None and self.solutions >= self._solution_limit:
+            logger.info(f"Solution limit {self._solution_limit} reached, stopping search")
+            self.stopped_early = True
+            self._routing.solver().FinishCurrentSearch()
+
+
+def solve_tsp(distance_matrix: List[List[int]], is_round_trip: bool = True,
+              time_budget_ms: Optional[int] = None) -> Tuple[List[int], int]:
     """
     Solve the Traveling Salesman Problem using Google OR-Tools.
 
     Args:
         distance_matrix: 2D list of distances in meters between locations
         is_round_trip: If True, return to starting point
+        time_budget_ms: Search time limit, defaults by number of locations
 
     Returns:
         Tuple of (optimized_order, total_distance)
     """
-    num_locations = len(distance_matrix)
+    route, total_distance, _ = solve_tsp_with_stats(distance_matrix, is_round_trip, time_budget_ms)
+    return route, total_distance
+
 
-    if num_locations <= 1:
-        return [0] if num_locations == 1 else [], 0
+def solve_tsp_with_stats(distance_matrix: List[List[int]], is_round_trip: bool = True,
+                         time_budget_ms: Optional[int] = None,
+                         solution_limit: Optional[int] = None,
+                         stagnation_ms: Optional[int] = None) -> Tuple[List[int], int, Dict]:
+    """
+    Same as solve_tsp, but stops early once the search stops improving and also returns
+    search statistics (time spent, solutions seen, whether it converged).
 
-    if num_locations == 2:
-        distance = distance_matrix[0][1]
-        if is_round_trip:
-            distance += distance_matrix[1][0]
-        return [0, 1], distance
+    Args:
+        distance_matrix: 2D list of distances in meters between locations
+        is_round_trip: If True, return to starting point
+        time_budget_ms: Hard search time limit, defaults by number of locations
+        solution_limit: Stop after this many reported solutions
+        stagnation_ms: Stop after this long without a better solution,
+            defaults to a fifth of the time budget
+
+    Returns:
+        Tuple of (optimized_order, total_distance, search_stats)
+    """
+    num_locations = len(distance_matrix)
+
+    if num_locations <= 2:
+        if num_locations <= 1:
+            route, distance = ([0] if num_locations == 1 else []), 0
+        else:
+            route = [0, 1]
+            distance = distance_matrix[0][1]
+            if is_round_trip:
+                distance += distance_matrix[1][0]
+        return route, distance, _trivial_stats(distance)
+
+    if time_budget_ms is None:
+        time_budget_ms = default_time_budget_ms(num_locations)
+    if stagnation_ms is None:
+        stagnation_ms = default_stagnation_ms(time_budget_ms)
 
     # Create the routing index manager
     manager = pywrapcp.RoutingIndexManager(
@@ -58,11 +156,19 @@ def solve_tsp(distance_matrix: List[List[int]], is_round_trip: bool = True) -> T
     search_parameters.local_search_metaheuristic = (
         routing_enums_pb2.LocalSearchMetaheuristic.GUIDED_LOCAL_SEARCH
     )
-    search_parameters.time_limit.seconds = 5  # 5 second time limit
+    search_parameters.time_limit.FromMilliseconds(time_budget_ms)
+
+    monitor = ImprovementMonitor(routing, stagnation_ms, solution_limit)
+    routing.AddAtSolutionCallback(monitor)
 
     # Solve the problem
-    logger.info(f"Solving TSP for {num_locations} locations, round_trip={is_round_trip}")
+    logger.info(f"Solving TSP for {num_locations} locations, round_trip={is_round_trip}, "
+                f"budget={time_budget_ms}ms, stagnation={stagnation_ms}ms")
     solution = routing.SolveWithParameters(search_parameters)
+    elapsed_ms = monitor.elapsed_ms()
+
+    # Either we stopped it, or the search ended on its own well inside the limit
+    converged = monitor.stopped_early or elapsed_ms < time_budget_ms * 0.95
 
     if solution:
         # Extract the route
@@ -84,9 +190,40 @@ def solve_tsp(distance_matrix: List[List[int]], is_round_trip: bool = True) -> T
             for i in range(len(route) - 1):
                 total_distance += distance_matrix[route[i]][route[i + 1]]
 
-        logger.info(f"Solution found: {route}, total_distance={total_distance}m")
-        return route, total_distance
+        logger.info(f"Solution found: {route}, total_distance={total_distance}m, "
+                    f"elapsed={elapsed_ms}ms, solutions={monitor.solutions}, converged={converged}")
+        stats = {
+            "elapsed_ms": elapsed_ms,
+            "iterations": monitor.solutions,
+            "improving_moves": monitor.improvements,
+            "initial_distance_meters": monitor.initial_cost if monitor.initial_cost is not None else total_distance,
+            "final_distance_meters": total_distance,
+            "converged": converged,
+            "trajectory": monitor.trajectory,
+        }
+        return route, total_distance, stats
     else:
         logger.error("No solution found!")
         # Return original order if no solution found
-        return list(range(num_locations)), 0
+        stats = {
+            "elapsed_ms": elapsed_ms,
+            "iterations": monitor.solutions,
+            "improving_moves": 0,
+            "initial_distance_meters": 0,
+            "final_distance_meters": 0,
+            "converged": False,
+            "trajectory": [],
+        }
+        return list(range(num_locations)), 0, stats
+
+
+def _trivial_stats(distance: int) -> Dict:
+    return {
+        "elapsed_ms": 0,
+        "iterations": 1,
+        "improving_moves": 0,
+        "initial_distance_meters": distance,
+        "final_distance_meters": distance,
+        "converged": True,
+        "trajectory": [],
+    }
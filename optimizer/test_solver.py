@@ -1,5 +1,5 @@
 import pytest
-from solver import solve_tsp
+from solver import solve_tsp, solve_tsp_with_stats, default_time_budget_ms, MIN_TIME_BUDGET_MS, MAX_TIME_BUDGET_MS
 
 
 class TestSolveTsp:
@@ -189,3 +189,61 @@ class TestSolveTsp:
 
         # THEN - round trip should be longer by the return distance
         assert dist_round > dist_one_way
+
+    # ==================== TIME BUDGET ====================
+
+    def test_default_budget_scales_with_size(self):
+        """Default budget grows with the number of locations, within bounds"""
+        assert default_time_budget_ms(3) == MIN_TIME_BUDGET_MS
+        assert default_time_budget_ms(20) > default_time_budget_ms(10)
+        assert default_time_budget_ms(10_000) == MAX_TIME_BUDGET_MS
+
+    def test_stops_early_when_not_improving(self):
+        """Small problem should stop well before a generous budget"""
+        # GIVEN
+        distance_matrix = [
+            [0, 10, 20, 30, 40],
+            [10, 0, 15, 25, 35],
+            [20, 15, 0, 12, 22],
+            [30, 25, 12, 0, 18],
+            [40, 35, 22, 18, 0]
+        ]
+
+        # WHEN
+        route, distance, stats = solve_tsp_with_stats(
+            distance_matrix, time_budget_ms=5000, stagnation_ms=100)
+
+        # THEN
+        assert set(route) == {0, 1, 2, 3, 4}
+        assert stats["converged"] is True
+        assert stats["elapsed_ms"] < 5000
+        assert stats["final_distance_meters"] == distance
+
+    def test_solution_limit_stops_search(self):
+        """Search stops once the solution limit is reached"""
+        # GIVEN
+        distance_matrix = [
+            [0, 10, 20, 30],
+            [10, 0, 15, 25],
+            [20, 15, 0, 12],
+            [30, 25, 12, 0]
+        ]
+
+        # WHEN
+        route, _, stats = solve_tsp_with_stats(distance_matrix, time_budget_ms=5000, solution_limit=1)
+
+        # THEN
+        assert len(route) == 4
+        assert stats["iterations"] == 1
+        assert stats["converged"] is True
+
+    def test_trivial_routes_report_stats(self):
+        """Two locations are solved without a search"""
+        # WHEN
+        route, distance, stats = solve_tsp_with_stats([[0, 100], [150, 0]], is_round_trip=True)
+
+        # THEN
+        assert route == [0, 1]
+        assert stats["elapsed_ms"] == 0
+        assert stats["converged"] is True
+        assert stats["final_distance_meters"] == distance == 250
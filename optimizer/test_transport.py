@@ -0,0 +1,115 @@
+import pytest
+from models import BinaryMatrixHeader, Location
+from transport import decode_content_encoding, decode_matrix_request, encode_matrix_request, MAGIC, MAX_LOCATIONS
+import gzip
+import zlib
+
+
+def _header(size: int, compression: str = "none") -> BinaryMatrixHeader:
+    locations = [Location(name=f"Stop {i}", latitude=-17.8, longitude=31.0) for i in range(size)]
+    return BinaryMatrixHeader(locations=locations, is_round_trip=False, time_budget_ms=500,
+                              size=size, compression=compression)
+
+
+class TestMatrixTransport:
+    """Tests for the binary /optimize request format"""
+
+    # ==================== ROUND TRIP ====================
+
+    @pytest.mark.parametrize("compression", ["none", "zlib"])
+    def test_round_trip(self, compression):
+        """Encoded matrix and header decode back unchanged"""
+        # GIVEN
+        distance_matrix = [[0, 100, 10_000_000], [150, 0, 7], [2_000_000_000, 9, 0]]
+        body = encode_matrix_request(_header(3, compression), distance_matrix)
+
+        # WHEN
+        header, decoded = decode_matrix_request(body)
+
+        # THEN
+        assert decoded == distance_matrix
+        assert header.size == 3
+        assert header.is_round_trip is False
+        assert header.time_budget_ms == 500
+        assert len(header.locations) == 3
+
+    def test_little_endian_layout(self):
+        """Distances are int32 little-endian, row-major, after the header"""
+        # GIVEN
+        body = encode_matrix_request(_header(2), [[0, 1], [256, 0]])
+
+        # THEN
+        assert body[:4] == MAGIC
+        assert body[-16:] == bytes([0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0])
+
+    # ==================== MALFORMED INPUT ====================
+
+    def test_rejects_wrong_magic(self):
+        with pytest.raises(ValueError):
+            decode_matrix_request(b"JSON{}\x00\x00\x00\x00")
+
+    def test_rejects_truncated_matrix(self):
+        # GIVEN
+        body = encode_matrix_request(_header(2), [[0, 1], [1, 0]])
+
+        # WHEN / THEN
+        with pytest.raises(ValueError):
+            decode_matrix_request(body[:-4])
+
+    def test_rejects_size_mismatch(self):
+        # GIVEN - header says 3x3 but only 2x2 is sent
+        header = _header(3)
+        body = encode_matrix_request(header, [[0, 1], [1, 0]])
+
+        # WHEN / THEN
+        with pytest.raises(ValueError):
+            decode_matrix_request(body)
+
+    def test_rejects_size_above_limit(self):
+        # GIVEN - a header claiming more stops than the service solves
+        body = encode_matrix_request(_header(MAX_LOCATIONS + 1), [[0]])
+
+        # WHEN / THEN
+        with pytest.raises(ValueError, match="outside"):
+            decode_matrix_request(body)
+
+    def test_rejects_compressed_matrix_larger_than_header_size(self):
+        # GIVEN - a 2x2 header, with ~64 MB of zeros squeezed into a few KB of zlib
+        body = encode_matrix_request(_header(2, "zlib"), [[0, 1], [1, 0]])
+        bomb = zlib.compress(bytes(64 * 1024 * 1024), 9)
+        header_end = 8 + int.from_bytes(body[4:8], "little")
+        body = body[:header_end] + len(bomb).to_bytes(4, "little") + bomb
+
+        # WHEN / THEN - refused after inflating at most the 16 bytes a 2x2 matrix needs
+        with pytest.raises(ValueError, match="inflates past"):
+            decode_matrix_request(body)
+
+    def test_rejects_truncated_compressed_matrix(self):
+        # GIVEN
+        body = encode_matrix_request(_header(2, "zlib"), [[0, 1], [1, 0]])
+        header_end = 8 + int.from_bytes(body[4:8], "little")
+        payload = body[header_end + 4:-2]
+        body = body[:header_end] + len(payload).to_bytes(4, "little") + payload
+
+        # WHEN / THEN
+        with pytest.raises(ValueError):
+            decode_matrix_request(body)
+
+    # ==================== CONTENT ENCODING ====================
+
+    def test_gzip_body_decoded(self):
+        """gzipped request bodies are inflated back to the original bytes"""
+        # GIVEN
+        body = b'{"distance_matrix": [' + b"[0, 123456], " * 1000 + b"[0]]}"
+
+        # WHEN / THEN
+        assert decode_content_encoding(gzip.compress(body), "gzip") == body
+        assert decode_content_encoding(body, None) == body
+
+    def test_rejects_unknown_encoding(self):
+        with pytest.raises(ValueError):
+            decode_content_encoding(b"data", "br")
+
+    def test_rejects_corrupt_gzip(self):
+        with pytest.raises(ValueError):
+            decode_content_encoding(b"not gzip at all", "gzip")
@@ -0,0 +1,97 @@
+"""
+Binary request format for /optimize, used instead of JSON for large matrices.
+
+    4 bytes   magic "RSM1"
+    uint32    header length (little-endian)
+    ...       header, UTF-8 JSON (BinaryMatrixHeader)
+    uint32    matrix payload length (little-endian)
+    ...       size * size int32 little-endian distances, row-major, zlib-compressed
+              when header.compression == "zlib"
+"""
+from models import BinaryMatrixHeader
+from typing import List, Optional, Tuple
+import numpy as np
+import os
+import zlib
+
+BINARY_MEDIA_TYPE = "application/x-routesmart-matrix"
+MAGIC = b"RSM1"
+
+# Advertised on /health so the client knows what it may send
+SUPPORTED_FORMATS = ["application/json", BINARY_MEDIA_TYPE]
+
+# Matches the Java API's limit; larger routes are solved in-process by the heuristic
+MAX_LOCATIONS = int(os.getenv("MAX_LOCATIONS", "500"))
+
+# A gzipped body may not inflate past this (a 500x500 JSON matrix is ~4 MB)
+MAX_DECODED_BODY = 64 * 1024 * 1024
+
+
+def decode_content_encoding(body: bytes, encoding: Optional[str]) -> bytes:
+    """Undoes the request's Content-Encoding (the client gzips large JSON). Raises ValueError if unsupported or malformed."""
+    encoding = (encoding or "identity").strip().lower()
+    if encoding == "identity":
+        return body
+    if encoding != "gzip":
+        raise ValueError(f"Unsupported content encoding: {encoding}")
+    decompressor = zlib.decompressobj(16 + zlib.MAX_WBITS)
+    try:
+        decoded = decompressor.decompress(body, MAX_DECODED_BODY)
+    except zlib.error as e:
+        raise ValueError(f"Bad gzip body: {e}")
+    if decompressor.unconsumed_tail:
+        raise ValueError(f"Decoded body larger than {MAX_DECODED_BODY} bytes")
+    if not decompressor.eof:
+        raise ValueError("Truncated gzip body")
+    return decoded
+
+
+def decode_matrix_request(body: bytes) -> Tuple[BinaryMatrixHeader, List[List[int]]]:
+    """Parses a binary request into its header and distance matrix. Raises ValueError if malformed."""
+    if len(body) < 8 or body[:4] != MAGIC:
+        raise ValueError("Not a RouteSmart matrix payload")
+
+    header_end = 8 + int.from_bytes(body[4:8], "little")
+    if header_end + 4 > len(body):
+        raise ValueError("Truncated header")
+    header = BinaryMatrixHeader.model_validate_json(body[8:header_end])
+    n = header.size
+    # before anything is inflated or allocated for it
+    if n < 0 or n > MAX_LOCATIONS:
+        raise ValueError(f"Matrix size {n} outside 0..{MAX_LOCATIONS}")
+
+    matrix_start = header_end + 4
+    matrix_end = matrix_start + int.from_bytes(body[header_end:matrix_start], "little")
+    if matrix_end > len(body):
+        raise ValueError("Truncated matrix")
+    payload = body[matrix_start:matrix_end]
+    if header.compression == "zlib":
+        # inflate no further than the header's size allows, so a tiny payload can't expand to
+        # gigabytes (max_length 0 would mean unlimited, hence at least 1)
+        decompressor = zlib.decompressobj()
+        try:
+            payload = decompressor.decompress(payload, max(1, n * n * 4))
+        except zlib.error as e:
+            raise ValueError(f"Bad compressed matrix: {e}")
+        if decompressor.unconsumed_tail:
+            raise ValueError(f"Compressed matrix inflates past {n * n * 4} bytes for size {n}")
+        if not decompressor.eof:
+            raise ValueError("Truncated compressed matrix")
+
+    if len(payload) != n * n * 4:
+        raise ValueError(f"Matrix payload is {len(payload)} bytes, expected {n * n * 4} for size {n}")
+
+    # One C-level pass to Python ints; the solver's callback indexes nested lists fastest
+    matrix = np.frombuffer(payload, dtype="<i4").reshape(n, n)
+    return header, matrix.tolist()
+
+
+def encode_matrix_request(header: BinaryMatrixHeader, distance_matrix: List[List[int]]) -> bytes:
+    """Inverse of decode_matrix_request, for tests and tooling."""
+    payload = np.asarray(distance_matrix, dtype="<i4").tobytes()
+    if header.compression == "zlib":
+        payload = zlib.compress(payload)
+    header_bytes = header.model_dump_json(exclude_none=True).encode("utf-8")
+    return (MAGIC
+            + len(header_bytes).to_bytes(4, "little") + header_bytes
+            + len(payload).to_bytes(4, "little") + payload)
@@ -0,0 +1,76 @@
+package com.routesmart;
+
+import com.routesmart.enums.InputType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample data around Harare for the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private static final String[] NAMES = {
+            "Harare, Zimbabwe", "Mbare Musika", "Sam Levy Village, Borrowdale", "Chitungwiza",
+            "12 Samora Machel Ave, Harare", "Avondale Shops", "Eastgate Centre", "Highfield"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Raw stop inputs: a mix of coordinates, Maps URLs, Eircodes and place names.
+     */
+    public static List<String> mixedInputs(int n, long seed) {
+        Random random = new Random(seed);
+        List<String> inputs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double lat = -17.8 - random.nextDouble() * 0.2;
+            double lng = 31.0 + random.nextDouble() * 0.2;
+            inputs.add(switch (i % 6) {
+                case 0 -> String.format("%.6f,%.6f", lat, lng);
+                case 1 -> String.format("%.5f, %.5f", lat, lng);
+                case 2 -> String.format("https://www.google.com/maps/@%.7f,%.7f,15z", lat, lng);
+                case 3 -> String.format("https://www.google.com/maps/place/Somewhere/@%.6f,%.6f,17z?q=%.6f,%.6f",
+                        lat, lng, lat, lng);
+                case 4 -> "D0" + (i % 10) + " F5P" + (i % 10);
+                default -> NAMES[random.nextInt(NAMES.length)];
+            });
+        }
+        return inputs;
+    }
+
+    public static List<Location> locations(int n, long seed) {
+        Random random = new Random(seed);
+        List<Location> locations = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double lat = -17.8 - random.nextDouble() * 0.2;
+            double lng = 31.0 + random.nextDouble() * 0.2;
+            locations.add(Location.builder()
+                    .name("Stop " + i + ", Harare, Zimbabwe")
+                    .originalInput(lat + "," + lng)
+                    .latitude(lat)
+                    .longitude(lng)
+                    .inputType(InputType.CURRENT_LOCATION)
+                    .distanceFromPrevious(i == 0 ? null : random.nextDouble() * 10)
+                    .build());
+        }
+        return locations;
+    }
+
+    public static DistanceMatrix matrix(int n, long seed) {
+        Random random = new Random(seed);
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    matrix.set(i, j, 500 + random.nextInt(30_000), 60 + random.nextInt(2_400));
+                }
+            }
+        }
+        return matrix;
+    }
+}
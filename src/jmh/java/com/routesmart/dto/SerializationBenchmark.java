@@ -0,0 +1,79 @@
+package com.routesmart.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.BenchmarkData;
+import com.routesmart.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the optimizer request (with its n x n matrix) and of the route
+ * response, using the same ObjectMapper setup Spring MVC gets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int n;
+
+    private ObjectMapper objectMapper;
+    private OptimizationRequest request;
+    private RouteResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Location> locations = BenchmarkData.locations(n, 42);
+        request = OptimizationRequest.builder()
+                .locations(locations)
+                .distanceMatrix(BenchmarkData.matrix(n, 42))
+                .isRoundTrip(true)
+                .timeBudgetMs(2_000)
+                .build();
+
+        List<String> description = new ArrayList<>(n);
+        for (Location location : locations) {
+            description.add(location.getName());
+        }
+        response = RouteResponse.builder()
+                .routeId("3f2a9c")
+                .optimizedOrder(locations)
+                .totalDistanceKm(123.4)
+                .totalTimeMinutes(240)
+                .isRoundTrip(true)
+                .googleMapsUrl("https://www.google.com/maps/dir/-17.8,31.0/")
+                .embedMapUrl("https://www.google.com/maps/embed/v1/directions?key=x")
+                .remainingRequests(99)
+                .routeDescription(description)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] optimizationRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] routeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,128 @@
+package com.routesmart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.maps.model.Distance;
+import com.google.maps.model.DistanceMatrixElement;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import com.google.maps.model.DistanceMatrixRow;
+import com.google.maps.model.Duration;
+import com.routesmart.BenchmarkData;
+import com.routesmart.cache.DistanceMatrixCache;
+import com.routesmart.cache.GeocodeCache;
+import com.routesmart.config.DistanceMatrixCacheConfig;
+import com.routesmart.config.GazetteerConfig;
+import com.routesmart.config.GeocodeCacheConfig;
+import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.geocode.Gazetteer;
+import com.routesmart.matrix.MatrixBlock;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying one Distance Matrix API response tile into the full matrix and the cell cache
+ * ({@link GoogleMapsService#copyTile}), for the tile shapes the planner produces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceMatrixParseBenchmark {
+
+    private static final int MATRIX_SIZE = 100;
+
+    // origins x destinations
+    @Param({"10x10", "25x4", "1x25"})
+    String tileShape;
+
+    private GoogleMapsService googleMapsService;
+    private com.google.maps.model.DistanceMatrix response;
+    private MatrixBlock tile;
+    private long[] points;
+    private DistanceMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        GeocodeCacheConfig geocodeCacheConfig = new GeocodeCacheConfig();
+        geocodeCacheConfig.setSnapshotPath("");
+        DistanceMatrixCacheConfig matrixCacheConfig = new DistanceMatrixCacheConfig();
+        DistanceMatrixCache distanceMatrixCache = new DistanceMatrixCache(matrixCacheConfig);
+        googleMapsService = new GoogleMapsService(new GoogleMapsConfig(),
+                new GeocodeCache(geocodeCacheConfig, new ObjectMapper()),
+                new GazetteerGeocoder(new GazetteerConfig(), Gazetteer.builder().build()),
+                distanceMatrixCache, matrixCacheConfig, RouteSmartMetrics.standalone());
+
+        List<Location> locations = BenchmarkData.locations(MATRIX_SIZE, 42);
+        points = new long[MATRIX_SIZE];
+        for (int i = 0; i < MATRIX_SIZE; i++) {
+            points[i] = distanceMatrixCache.snap(locations.get(i).getLatitude(), locations.get(i).getLongitude());
+        }
+        matrix = new DistanceMatrix(MATRIX_SIZE);
+
+        String[] shape = tileShape.split("x");
+        int[] origins = range(0, Integer.parseInt(shape[0]));
+        int[] destinations = range(50, Integer.parseInt(shape[1]));
+        tile = new MatrixBlock(origins, destinations);
+        response = response(origins.length, destinations.length, new Random(42));
+    }
+
+    @TearDown
+    public void tearDown() {
+        googleMapsService.cleanup();
+    }
+
+    @Benchmark
+    public DistanceMatrix copyTile() {
+        googleMapsService.copyTile(response, points, tile, matrix);
+        return matrix;
+    }
+
+    private static int[] range(int from, int count) {
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = from + i;
+        }
+        return indexes;
+    }
+
+    // What the SDK hands back, with about one in twenty cells unroutable
+    private static com.google.maps.model.DistanceMatrix response(int origins, int destinations, Random random) {
+        DistanceMatrixRow[] rows = new DistanceMatrixRow[origins];
+        for (int a = 0; a < origins; a++) {
+            rows[a] = new DistanceMatrixRow();
+            rows[a].elements = new DistanceMatrixElement[destinations];
+            for (int b = 0; b < destinations; b++) {
+                DistanceMatrixElement element = new DistanceMatrixElement();
+                if (random.nextInt(20) == 0) {
+                    element.status = DistanceMatrixElementStatus.ZERO_RESULTS;
+                } else {
+                    element.status = DistanceMatrixElementStatus.OK;
+                    element.distance = new Distance();
+                    element.distance.inMeters = 500 + random.nextInt(30_000);
+                    element.duration = new Duration();
+                    element.duration.inSeconds = 60 + random.nextInt(2_400);
+                }
+                rows[a].elements[b] = element;
+            }
+        }
+        return new com.google.maps.model.DistanceMatrix(new String[origins], new String[destinations], rows);
+    }
+}
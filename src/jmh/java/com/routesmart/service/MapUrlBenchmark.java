@@ -0,0 +1,56 @@
+package com.routesmart.service;
+
+import com.routesmart.BenchmarkData;
+import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The directions and embed URL builders in {@link RouteSmartService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapUrlBenchmark {
+
+    @Param({"10", "25", "100"})
+    int n;
+
+    private RouteSmartService routeSmartService;
+    private List<Location> locations;
+
+    @Setup
+    public void setUp() {
+        GoogleMapsConfig googleMapsConfig = new GoogleMapsConfig();
+        googleMapsConfig.setApiKey("benchmark-key");
+        // the URL builders only read the Maps config
+        routeSmartService = new RouteSmartService(null, null, null, null, googleMapsConfig, null, null, null);
+        locations = BenchmarkData.locations(n, 42);
+    }
+
+    @Benchmark
+    public String googleMapsUrl() {
+        return routeSmartService.buildGoogleMapsUrl(locations, true);
+    }
+
+    @Benchmark
+    public String embedMapUrl() {
+        return routeSmartService.buildEmbedMapUrl(locations, false);
+    }
+}
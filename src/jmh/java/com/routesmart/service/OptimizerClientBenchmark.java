@@ -0,0 +1,130 @@
+package com.routesmart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.BenchmarkData;
+import com.routesmart.config.OptimizerClientConfig;
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.model.Location;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Per-call overhead of {@link OptimizerService} against a local stub optimizer that answers
+ * instantly, so the time is all client side: serialization, connection handling, compression.
+ * {@code SIMPLE} is the old {@code new RestTemplate()} (JDK HttpURLConnection), {@code POOLED}
+ * the HttpClient 5 pool from {@link OptimizerClientConfig} without and with request gzip.
+ * Run with {@code -t 16} as well to see the pools under concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimizerClientBenchmark {
+
+    public enum Client { SIMPLE, POOLED, POOLED_GZIP }
+
+    @Param({"SIMPLE", "POOLED", "POOLED_GZIP"})
+    public Client client;
+
+    @Param({"10", "100"})
+    public int n;
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private OptimizerService optimizerService;
+    private List<Location> locations;
+    private int[][] distances;
+
+    @Setup
+    public void setUp() throws IOException {
+        locations = BenchmarkData.locations(n, 42);
+        distances = BenchmarkData.matrix(n, 42).toDistanceArray();
+        OptimizationResult result = new OptimizationResult();
+        result.setOptimizedOrder(IntStream.range(0, n).boxed().toList());
+        result.setOptimizedLocations(locations);
+        result.setTotalDistanceMeters(123_456);
+        result.setTotalDistanceKm(123.46);
+        result.setRouteDescription(locations.stream().map(Location::getName).toList());
+        byte[] response = new ObjectMapper().writeValueAsBytes(result);
+
+        // Without TCP_NODELAY the stub's split header/body writes hit delayed ACKs (~40 ms a call)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/optimize", exchange -> answer(exchange, response));
+        server.start();
+
+        OptimizerConfig config = new OptimizerConfig();
+        config.setUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        config.getTransport().setMode(OptimizerConfig.Transport.Mode.JSON);
+        config.setMaxConcurrency(64);
+        config.getHttp().setMaxConnectionsPerRoute(64);
+        config.getHttp().setCompressRequests(client == Client.POOLED_GZIP);
+        // gzip everything the benchmark sends, so the 10-location case shows the cost too
+        config.getHttp().setCompressMinBytes(0);
+
+        RestTemplate restTemplate;
+        if (client == Client.SIMPLE) {
+            restTemplate = new RestTemplate();
+        } else {
+            OptimizerClientConfig clientConfig = new OptimizerClientConfig();
+            httpClient = clientConfig.optimizerHttpClient(clientConfig.optimizerConnectionManager(config), config);
+            restTemplate = clientConfig.optimizerRestTemplate(new RestTemplateBuilder(), httpClient, config);
+        }
+        optimizerService = new OptimizerService(config, restTemplate);
+    }
+
+    // Reads (and inflates) the whole request like the real optimizer, then answers at once
+    private static void answer(HttpExchange exchange, byte[] response) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        body.transferTo(OutputStream.nullOutputStream());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    @Benchmark
+    public OptimizationResult optimize() {
+        return optimizerService.optimize(locations, distances, true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.routesmart.service;
+
+import com.routesmart.config.RateLimitConfig;
+import com.routesmart.metrics.RouteSmartMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link RateLimitService#tryConsume} from 8 threads: all on one client (one hot bucket),
+ * spread over a fixed set of clients, and a scan where every call is a new address - millions
+ * of distinct keys per run, well past {@code maxClients}, so eviction is exercised too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimitService rateLimitService;
+    private String[] clientIps;
+
+    @Setup
+    public void setUp() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setRequestsPerDay(Integer.MAX_VALUE);
+        rateLimitService = new RateLimitService(config, RouteSmartMetrics.standalone());
+        clientIps = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientIps[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public boolean sameClient() {
+        return rateLimitService.tryConsume(clientIps[0]);
+    }
+
+    @Benchmark
+    public boolean manyClients() {
+        return rateLimitService.tryConsume(clientIps[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public boolean distinctClients(Scanner scanner) {
+        return rateLimitService.tryConsume(scanner.nextAddress());
+    }
+
+    // Each thread walks its own IPv6 /64, never repeating an address
+    @State(Scope.Thread)
+    public static class Scanner {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private final String prefix = "2001:db8:" + Integer.toHexString(THREADS.incrementAndGet()) + "::";
+        private long next;
+
+        String nextAddress() {
+            long n = next++;
+            return prefix + Long.toHexString(n >>> 16 & 0xffff) + ":" + Long.toHexString(n & 0xffff);
+        }
+    }
+}
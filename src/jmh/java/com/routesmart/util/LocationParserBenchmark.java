@@ -0,0 +1,48 @@
+package com.routesmart.util;
+
+import com.routesmart.BenchmarkData;
+import com.routesmart.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LocationParserService#parseLocations} over a mixed import (coordinates, URLs,
+ * Eircodes, names).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationParserBenchmark {
+
+    @Param({"100", "10000"})
+    int lines;
+
+    private LocationParserService parser;
+    private List<String> inputs;
+
+    @Setup
+    public void setUp() {
+        parser = new LocationParserService();
+        inputs = BenchmarkData.mixedInputs(lines, 42);
+    }
+
+    @Benchmark
+    public List<Location> parseLocations() {
+        return parser.parseLocations(inputs);
+    }
+}
@@ -0,0 +1,97 @@
+package com.routesmart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.routesmart.config.DistanceMatrixCacheConfig;
+import com.routesmart.model.DistanceMatrix;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pairwise cache of Distance Matrix results, keyed by snapped origin and destination
+ * coordinates plus travel mode, so routes sharing stops (e.g. the same depot) only
+ * fetch the pairs they haven't seen. Hit/miss counts are per cell.
+ */
+@Component
+public class DistanceMatrixCache implements MeterBinder {
+
+    private final DistanceMatrixCacheConfig config;
+    private final Cache<CellKey, Cell> cache;
+    private final double scale;
+
+    public DistanceMatrixCache(DistanceMatrixCacheConfig config) {
+        this.config = config;
+        this.scale = Math.pow(10, Math.min(7, config.getCoordinatePrecision()));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "distance-matrix");
+    }
+
+    record CellKey(long origin, long destination, String mode) {
+    }
+
+    record Cell(int meters, int seconds) {
+    }
+
+    /**
+     * Snaps a coordinate to the configured precision and packs it into one long.
+     */
+    public long snap(double latitude, double longitude) {
+        long lat = Math.round(latitude * scale);
+        long lng = Math.round(longitude * scale);
+        return (lat << 32) | (lng & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Copies every cached pair of {@code points} into {@code matrix} and flags the rest in
+     * {@code missing}. The diagonal is set to 0 and never counted as missing.
+     *
+     * @return number of missing cells
+     */
+    public int fill(long[] points, String mode, DistanceMatrix matrix, boolean[][] missing) {
+        int n = points.length;
+        int missingCount = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    matrix.set(i, j, 0, 0);
+                    continue;
+                }
+                Cell cell = config.isEnabled()
+                        ? cache.getIfPresent(new CellKey(points[i], points[j], mode))
+                        : null;
+                if (cell != null) {
+                    matrix.set(i, j, cell.meters(), cell.seconds());
+                } else {
+                    missing[i][j] = true;
+                    missingCount++;
+                }
+            }
+        }
+        return missingCount;
+    }
+
+    public void put(long origin, long destination, String mode, int meters, int seconds) {
+        if (config.isEnabled()) {
+            cache.put(new CellKey(origin, destination, mode), new Cell(meters, seconds));
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
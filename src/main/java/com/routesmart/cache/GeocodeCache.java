@@ -0,0 +1,242 @@
+package com.routesmart.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.routesmart.config.GeocodeCacheConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache in front of the Geocoding API. Forward lookups are keyed on the normalized input text,
+ * reverse lookups on coordinates rounded to {@code coordinatePrecision} decimals.
+ * <p>
+ * Size-bounded (Caffeine's W-TinyLFU eviction) with a TTL measured from when the result was
+ * fetched, and snapshotted to a JSON file periodically and on shutdown so a restart does not
+ * start cold. Entries loaded from a snapshot keep their original age.
+ */
+@Component
+@Slf4j
+public class GeocodeCache implements MeterBinder {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final GeocodeCacheConfig config;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Cache<String, GeocodeEntry> cache;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Autowired
+    public GeocodeCache(GeocodeCacheConfig config, ObjectMapper objectMapper) {
+        this(config, objectMapper, Clock.systemUTC());
+    }
+
+    GeocodeCache(GeocodeCacheConfig config, ObjectMapper objectMapper, Clock clock) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        long ttlNanos = config.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfter(new Expiry<String, GeocodeEntry>() {
+                    @Override
+                    public long expireAfterCreate(String key, GeocodeEntry value, long currentTime) {
+                        long ageNanos = TimeUnit.MILLISECONDS.toNanos(clock.millis() - value.storedAt());
+                        return Math.max(0, ttlNanos - ageNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, GeocodeEntry value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, GeocodeEntry value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .recordStats()
+                .build();
+    }
+
+    public record GeocodeEntry(double latitude, double longitude, String formattedAddress, long storedAt) {
+    }
+
+    // ==================== LOOKUPS ====================
+
+    public Optional<GeocodeEntry> getForward(String query) {
+        if (!config.isEnabled() || query == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(forwardKey(query)));
+    }
+
+    public void putForward(String query, double latitude, double longitude, String formattedAddress) {
+        if (config.isEnabled() && query != null) {
+            put(forwardKey(query), latitude, longitude, formattedAddress);
+        }
+    }
+
+    public Optional<GeocodeEntry> getReverse(double latitude, double longitude) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(reverseKey(latitude, longitude)));
+    }
+
+    public void putReverse(double latitude, double longitude, String formattedAddress) {
+        if (config.isEnabled()) {
+            put(reverseKey(latitude, longitude), latitude, longitude, formattedAddress);
+        }
+    }
+
+    private void put(String key, double latitude, double longitude, String formattedAddress) {
+        cache.put(key, new GeocodeEntry(latitude, longitude, formattedAddress, clock.millis()));
+        dirty.set(true);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "geocode");
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Eviction runs asynchronously; tests call this to settle it
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    // ==================== KEYS ====================
+
+    // Case, surrounding and repeated whitespace don't change what Google returns
+    public static String forwardKey(String query) {
+        StringBuilder key = new StringBuilder(query.length() + 2).append("f:");
+        boolean pendingSpace = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 2;
+            } else {
+                if (pendingSpace) {
+                    key.append(' ');
+                    pendingSpace = false;
+                }
+                key.append(c);
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    String reverseKey(double latitude, double longitude) {
+        double scale = Math.pow(10, config.getCoordinatePrecision());
+        return "r:" + Math.round(latitude * scale) + ":" + Math.round(longitude * scale);
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = snapshotPath();
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(path.toFile(), Snapshot.class);
+            if (snapshot.version() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring geocode cache snapshot {} with version {}", path, snapshot.version());
+                return;
+            }
+            long expiredBefore = clock.millis() - config.getTtl().toMillis();
+            int loaded = 0;
+            for (SnapshotEntry entry : snapshot.entries()) {
+                if (entry.storedAt() > expiredBefore) {
+                    cache.put(entry.key(), new GeocodeEntry(
+                            entry.latitude(), entry.longitude(), entry.formattedAddress(), entry.storedAt()));
+                    loaded++;
+                }
+            }
+            log.info("Loaded {} geocode cache entries from {}", loaded, path);
+        } catch (IOException e) {
+            log.warn("Could not read geocode cache snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${geocode-cache.snapshot-interval:5m}",
+            initialDelayString = "${geocode-cache.snapshot-interval:5m}")
+    public void saveSnapshot() {
+        Path path = snapshotPath();
+        if (path == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        List<SnapshotEntry> entries = new ArrayList<>((int) cache.estimatedSize());
+        for (Map.Entry<String, GeocodeEntry> e : cache.asMap().entrySet()) {
+            GeocodeEntry v = e.getValue();
+            entries.add(new SnapshotEntry(e.getKey(), v.latitude(), v.longitude(), v.formattedAddress(), v.storedAt()));
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // write next to the target and rename, so a crash never leaves a half-written snapshot
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new Snapshot(SNAPSHOT_VERSION, entries));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CacheStats stats = cache.stats();
+            log.info("Saved {} geocode cache entries to {} (hits: {}, misses: {}, evictions: {})",
+                    entries.size(), path, stats.hitCount(), stats.missCount(), stats.evictionCount());
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write geocode cache snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+
+    private Path snapshotPath() {
+        String path = config.getSnapshotPath();
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    record Snapshot(int version, List<SnapshotEntry> entries) {
+    }
+
+    record SnapshotEntry(String key, double latitude, double longitude, String formattedAddress, long storedAt) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.routesmart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.routesmart.config.SolveCacheConfig;
+import com.routesmart.dto.RouteResponse;
+import com.routesmart.enums.RouteType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Solved routes, content-addressed by {@link SolveKey}. Three bounded tiers:
+ * <ul>
+ *   <li>canonical visiting orders, so the same problem in any stop order skips the solver</li>
+ *   <li>full responses by route id, for {@code GET /api/routes/{id}}</li>
+ *   <li>exact request inputs to route id, so a plain resubmit skips geocoding and the matrix too</li>
+ * </ul>
+ * Only the order is shared between differently worded requests for the same problem. The
+ * response carries the caller's own names and labels, so its route id ({@link #routeId})
+ * covers the request's inputs as well.
+ * Responses are stored and handed out as copies, since callers fill in per-caller fields.
+ */
+@Component
+public class SolveCache implements MeterBinder {
+
+    private static final int ROUTE_ID_BYTES = 16;
+
+    private final SolveCacheConfig config;
+    private final Cache<String, int[]> solves;
+    private final Cache<String, RouteResponse> routes;
+    private final Cache<String, String> requests;
+
+    public SolveCache(SolveCacheConfig config) {
+        this.config = config;
+        this.solves = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSolves())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.routes = Caffeine.newBuilder()
+                .maximumSize(config.getMaxRoutes())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(config.getMaxRoutes())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, solves, "solves");
+        CaffeineCacheMetrics.monitor(registry, routes, "routes");
+        CaffeineCacheMetrics.monitor(registry, requests, "route-requests");
+    }
+
+    // ==================== SOLVES ====================
+
+    /**
+     * Cached visiting order for this problem, in the caller's indices.
+     */
+    public Optional<int[]> getOrder(SolveKey key) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        int[] canonical = solves.getIfPresent(key.id());
+        return canonical == null ? Optional.empty() : Optional.of(key.toCaller(canonical));
+    }
+
+    public void putOrder(SolveKey key, int[] callerOrder) {
+        if (config.isEnabled()) {
+            solves.put(key.id(), key.toCanonical(callerOrder));
+        }
+    }
+
+    // ==================== ROUTES ====================
+
+    public Optional<RouteResponse> getRoute(String routeId) {
+        RouteResponse route = routes.getIfPresent(routeId);
+        return route == null ? Optional.empty() : Optional.of(route.toBuilder().build());
+    }
+
+    public Optional<RouteResponse> getRouteForRequest(List<String> inputs, RouteType routeType) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        String routeId = requests.getIfPresent(requestKey(inputs, routeType));
+        return routeId == null ? Optional.empty() : getRoute(routeId);
+    }
+
+    public void putRoute(List<String> inputs, RouteType routeType, RouteResponse route) {
+        routes.put(route.getRouteId(), route.toBuilder().remainingRequests(null).build());
+        if (config.isEnabled()) {
+            requests.put(requestKey(inputs, routeType), route.getRouteId());
+        }
+    }
+
+    /**
+     * Id of a solved response: the problem's content hash together with the inputs it was
+     * requested with, so two wordings of one problem never overwrite each other's labels.
+     */
+    public static String routeId(SolveKey key, String requestKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(key.id().getBytes(StandardCharsets.US_ASCII));
+            digest.update(requestKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(), 0, ROUTE_ID_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Key for a request's exact inputs, also used to coalesce identical requests in flight.
+     */
+    public static String requestKey(List<String> inputs, RouteType routeType) {
+        StringBuilder key = new StringBuilder(routeType.name());
+        for (String input : inputs) {
+            // length-prefixed, so no input can run into the next
+            String trimmed = input.trim();
+            key.append('|').append(trimmed.length()).append(':').append(trimmed);
+        }
+        return key.toString();
+    }
+
+    public CacheStats solveStats() {
+        return solves.stats();
+    }
+
+    public CacheStats routeStats() {
+        return routes.stats();
+    }
+}
@@ -0,0 +1,111 @@
+package com.routesmart.cache;
+
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Content hash of a routing problem: route type, stop coordinates and the distance matrix.
+ * Stops whose position doesn't matter (everything but the start, and the end of a fixed-end
+ * route) are put in a canonical order first, so the same stops submitted in a different
+ * order hash the same. {@link #toCaller} and {@link #toCanonical} translate visiting orders
+ * between the caller's indices and the canonical ones.
+ */
+public final class SolveKey {
+
+    private static final int ID_BYTES = 16;
+    private static final double COORDINATE_SCALE = 1e6;
+
+    private final String id;
+    private final int[] canonicalToCaller;
+
+    private SolveKey(String id, int[] canonicalToCaller) {
+        this.id = id;
+        this.canonicalToCaller = canonicalToCaller;
+    }
+
+    public static SolveKey of(List<Location> locations, DistanceMatrix matrix, RouteType routeType) {
+        int n = matrix.size();
+        long[] identity = new long[n];
+        for (int i = 0; i < n; i++) {
+            Location location = locations.get(i);
+            long lat = Math.round(location.getLatitude() * COORDINATE_SCALE);
+            long lng = Math.round(location.getLongitude() * COORDINATE_SCALE);
+            identity[i] = (lat << 32) | (lng & 0xFFFFFFFFL);
+        }
+
+        // Start (and fixed end) stay put; the rest are sorted by coordinates
+        int firstFree = Math.min(1, n);
+        int lastFree = routeType == RouteType.ONE_WAY_FIXED_END && n > 1 ? n - 1 : n;
+        Integer[] free = IntStream.range(firstFree, lastFree).boxed().toArray(Integer[]::new);
+        Arrays.sort(free, Comparator.<Integer>comparingLong(i -> identity[i]).thenComparingInt(i -> i));
+        int[] canonicalToCaller = new int[n];
+        for (int i = 0; i < n; i++) {
+            canonicalToCaller[i] = i;
+        }
+        for (int k = 0; k < free.length; k++) {
+            canonicalToCaller[firstFree + k] = free[k];
+        }
+
+        MessageDigest digest = sha256();
+        digest.update(routeType.name().getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer row = ByteBuffer.allocate(Math.max(Long.BYTES, n * Integer.BYTES));
+        for (int a = 0; a < n; a++) {
+            row.clear();
+            row.putLong(identity[canonicalToCaller[a]]);
+            digest.update(row.array(), 0, Long.BYTES);
+        }
+        for (int a = 0; a < n; a++) {
+            row.clear();
+            int from = canonicalToCaller[a];
+            for (int b = 0; b < n; b++) {
+                row.putInt(matrix.distance(from, canonicalToCaller[b]));
+            }
+            digest.update(row.array(), 0, n * Integer.BYTES);
+        }
+        String id = HexFormat.of().formatHex(digest.digest(), 0, ID_BYTES);
+        return new SolveKey(id, canonicalToCaller);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int[] toCaller(int[] canonicalOrder) {
+        int[] order = new int[canonicalOrder.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = canonicalToCaller[canonicalOrder[k]];
+        }
+        return order;
+    }
+
+    public int[] toCanonical(int[] callerOrder) {
+        int[] callerToCanonical = new int[canonicalToCaller.length];
+        for (int a = 0; a < canonicalToCaller.length; a++) {
+            callerToCanonical[canonicalToCaller[a]] = a;
+        }
+        int[] order = new int[callerOrder.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = callerToCanonical[callerOrder[k]];
+        }
+        return order;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
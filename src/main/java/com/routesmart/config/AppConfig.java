@@ -1,5 +1,8 @@
 package com.routesmart.config;
 
+import com.routesmart.ratelimit.BucketStateStore;
+import com.routesmart.ratelimit.InMemoryBucketStateStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,4 +20,11 @@ public class AppConfig {
                 .readTimeout(Duration.ofSeconds(30))
                 .build();
     }
+
+    // In-process stand-in; register a BucketStateStore over a shared backend to replace it
+    @Bean
+    @ConditionalOnMissingBean(BucketStateStore.class)
+    public BucketStateStore bucketStateStore() {
+        return new InMemoryBucketStateStore();
+    }
 }
@@ -0,0 +1,21 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "batch")
+@Getter
+@Setter
+public class BatchConfig {
+
+    // Routes waiting between two stages; a full queue holds back the stage before it
+    private int queueCapacity = 16;
+
+    // Routes geocoded at once (each still within the per-request geocoding limit)
+    private int geocodeWorkers = 4;
+
+    private int solveWorkers = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,28 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "distance-matrix-cache")
+@Getter
+@Setter
+public class DistanceMatrixCacheConfig {
+
+    private boolean enabled = true;
+
+    // Cached origin/destination pairs, not matrices
+    private long maxEntries = 500_000;
+
+    private Duration ttl = Duration.ofDays(7);
+
+    // Decimal places coordinates are snapped to before keying (5 is roughly 1 m, max 7)
+    private int coordinatePrecision = 5;
+
+    // Missing cells are fetched in at most this many origin x destination blocks
+    private int maxFetchBlocks = 4;
+}
@@ -0,0 +1,25 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "gazetteer")
+@Getter
+@Setter
+public class GazetteerConfig {
+
+    // Resolve known place names locally before calling the Geocoding API
+    private boolean enabled = true;
+
+    // CSV of name,lat,lng,aliases (aliases separated by '|'); classpath: or file: location
+    private String path = "classpath:gazetteer/zimbabwe.csv";
+
+    // Typos tolerated when there is no exact match
+    private int maxEdits = 1;
+
+    // Shorter queries only match exactly - one edit is too much of a short name
+    private int minFuzzyLength = 5;
+}
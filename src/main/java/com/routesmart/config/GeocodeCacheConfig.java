@@ -0,0 +1,29 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "geocode-cache")
+@Getter
+@Setter
+public class GeocodeCacheConfig {
+
+    private boolean enabled = true;
+
+    private long maxEntries = 50_000;
+
+    private Duration ttl = Duration.ofDays(30);
+
+    // Decimal places kept when keying reverse lookups (5 is roughly 1 m)
+    private int coordinatePrecision = 5;
+
+    // Where the cache is snapshotted so restarts come up warm; empty disables snapshots
+    private String snapshotPath = "data/geocode-cache.json";
+
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "google.maps")
 @Getter
@@ -12,4 +14,54 @@ import org.springframework.context.annotation.Configuration;
 public class GoogleMapsConfig {
 
     private String apiKey;
+
+    // Queries per second to Google across all APIs (the client library's default)
+    private int queriesPerSecond = 50;
+
+    private Geocoding geocoding = new Geocoding();
+
+    private Matrix distanceMatrix = new Matrix();
+
+    @Getter
+    @Setter
+    public static class Geocoding {
+
+        // Geocoding calls one request may have in flight at once
+        private int maxConcurrencyPerRequest = 8;
+
+        // Geocoding calls in flight across all requests (the geocoding bulkhead)
+        private int maxConcurrency = 32;
+
+        // How long a call waits for a free slot before failing
+        private Duration queueTimeout = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Matrix {
+
+        // Per-request limits of the Distance Matrix API
+        private int maxOrigins = 25;
+
+        private int maxDestinations = 25;
+
+        private int maxElements = 100;
+
+        // Elements per second across all requests, kept under the API's rate limit
+        private int elementsPerSecond = 1000;
+
+        // Tiles one matrix may have in flight at once
+        private int maxParallelRequests = 8;
+
+        // Distance Matrix calls in flight across all requests (the distance matrix bulkhead)
+        private int maxConcurrency = 16;
+
+        // How long a tile waits for a free slot before failing
+        private Duration queueTimeout = Duration.ofSeconds(5);
+
+        // Attempts per tile, with exponential backoff starting at retryBackoff
+        private int maxAttempts = 3;
+
+        private Duration retryBackoff = Duration.ofMillis(200);
+    }
 }
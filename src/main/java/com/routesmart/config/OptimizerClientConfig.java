@@ -0,0 +1,83 @@
+package com.routesmart.config;
+
+import com.routesmart.util.GzipRequestInterceptor;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * HTTP client for the Python optimizer: Apache HttpClient 5 with a pool of keep-alive
+ * connections, the timeouts from {@link OptimizerConfig.Http}, and gzip both ways (responses
+ * are decompressed by the client, large JSON requests compressed by {@link GzipRequestInterceptor}).
+ */
+@Configuration
+public class OptimizerClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager optimizerConnectionManager(OptimizerConfig optimizerConfig) {
+        OptimizerConfig.Http http = optimizerConfig.getHttp();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxConnections())
+                .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(http.getConnectTimeout()))
+                        .setSocketTimeout(timeout(http.getResponseTimeout()))
+                        .setValidateAfterInactivity(timeValue(http.getValidateAfterInactivity()))
+                        .setTimeToLive(timeValue(http.getConnectionTtl()))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient optimizerHttpClient(PoolingHttpClientConnectionManager optimizerConnectionManager,
+                                                   OptimizerConfig optimizerConfig) {
+        OptimizerConfig.Http http = optimizerConfig.getHttp();
+        return HttpClients.custom()
+                .setConnectionManager(optimizerConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(http.getConnectionRequestTimeout()))
+                        .setResponseTimeout(timeout(http.getResponseTimeout()))
+                        .build())
+                .evictIdleConnections(timeValue(http.getIdleTimeout()))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate optimizerRestTemplate(RestTemplateBuilder builder, CloseableHttpClient optimizerHttpClient,
+                                              OptimizerConfig optimizerConfig) {
+        OptimizerConfig.Http http = optimizerConfig.getHttp();
+        builder = builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(optimizerHttpClient));
+        if (http.isCompressRequests()) {
+            builder = builder.additionalInterceptors(new GzipRequestInterceptor(http.getCompressMinBytes()));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public MeterBinder optimizerConnectionPoolMetrics(PoolingHttpClientConnectionManager optimizerConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(optimizerConnectionManager, "optimizer");
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -1,10 +1,17 @@
 package com.routesmart.config;
 
+import com.routesmart.enums.RouteType;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 @Configuration
 @ConfigurationProperties(prefix = "optimizer")
 @Getter
@@ -12,4 +19,157 @@ import org.springframework.context.annotation.Configuration;
 public class OptimizerConfig {
 
     private String url;
+
+    // Several optimizer instances to balance across; when empty, url is the only one
+    private List<String> urls = new ArrayList<>();
+
+    // Time for solving one route, counted from when its distance matrix is ready
+    private Duration requestBudget = Duration.ofSeconds(15);
+
+    // Calls in flight per optimizer instance; the bulkhead allows this times the instance count
+    private int maxConcurrency = 8;
+
+    // How long a call waits for a free slot before failing
+    private Duration queueTimeout = Duration.ofSeconds(2);
+
+    private Routing routing = new Routing();
+
+    private Search search = new Search();
+
+    private Transport transport = new Transport();
+
+    private Http http = new Http();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Base URLs of the optimizer instances, without trailing slashes.
+     */
+    public List<String> endpoints() {
+        List<String> endpoints = new ArrayList<>();
+        for (String endpoint : urls.isEmpty() ? List.of(url) : urls) {
+            if (endpoint != null && !endpoint.isBlank()) {
+                String trimmed = endpoint.strip();
+                endpoints.add(trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed);
+            }
+        }
+        return endpoints;
+    }
+
+    @Getter
+    @Setter
+    public static class Routing {
+
+        // Routes up to this size are solved exactly in-process (capped by ExactTspSolver)
+        private int exactMaxLocations = 12;
+
+        private boolean remoteEnabled = true;
+
+        // Largest route the Python service accepts
+        private int remoteMaxLocations = 500;
+
+        // Only go remote when at least this much of the request budget is left
+        private Duration remoteMinBudget = Duration.ofSeconds(1);
+
+        // The Python service only knows round trip vs. open end
+        private Set<RouteType> remoteRouteTypes = EnumSet.of(RouteType.ROUND_TRIP, RouteType.ONE_WAY_OPEN_END);
+
+        // Upper bound on the in-process heuristic's search time
+        private Duration heuristicTimeLimit = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+
+        // Remote search time scales with route size, within [minTime, maxTime]
+        private Duration timePerLocation = Duration.ofMillis(50);
+        private Duration minTime = Duration.ofMillis(200);
+        private Duration maxTime = Duration.ofSeconds(5);
+
+        // Stop once the search hasn't improved for this long (unset: the optimizer's default)
+        private Duration stagnation;
+
+        // Stop after this many solutions (unset: no limit)
+        private Integer solutionLimit;
+
+        // Kept free for the HTTP round trip when fitting the search into the request budget
+        private Duration networkReserve = Duration.ofMillis(300);
+    }
+
+    @Getter
+    @Setter
+    public static class Transport {
+
+        public enum Mode { AUTO, JSON, BINARY }
+
+        // AUTO sends the binary matrix format when the optimizer advertises it on /health
+        private Mode mode = Mode.AUTO;
+
+        // Below this size JSON is cheap enough and easier to debug
+        private int binaryMinLocations = 50;
+
+        // zlib-compress the binary matrix
+        private boolean compress = true;
+
+        // How long the optimizer's advertised formats are trusted before asking again
+        private Duration formatCheckInterval = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+
+        // Pooled keep-alive connections, in total and per optimizer host
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        // Wait for a free pooled connection
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+        // Deadline for the optimizer's response once the request is sent. The optimizer sends
+        // nothing until it has solved, so this must cover search.max-time plus the round trip
+        private Duration responseTimeout = Duration.ofSeconds(10);
+
+        // Idle connections are closed after this; keep it under the optimizer's keep-alive timeout
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        // Connections idle for longer are checked before reuse, in case the server closed them
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+        // Connections are replaced after this long, so DNS changes are picked up
+        private Duration connectionTtl = Duration.ofMinutes(5);
+
+        // gzip JSON request bodies of at least this many bytes (the binary format has its own zlib)
+        private boolean compressRequests = true;
+        private int compressMinBytes = 16 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        // One breaker per optimizer instance; an instance is ejected while its breaker is open, and
+        // while all are, remote-routed requests are solved by the in-process heuristic instead
+        private boolean enabled = true;
+
+        // Failure rate over the last windowSize calls, once at least minimumCalls were made
+        private int windowSize = 20;
+        private int minimumCalls = 5;
+        private int failureRatePercent = 50;
+
+        // Calls that succeed but take longer than this count as failures
+        private Duration slowCallDuration = Duration.ofSeconds(8);
+
+        // How long the breaker stays open before letting halfOpenCalls trial calls through
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 2;
+
+        // How often each instance's /health is probed; probeFailures failed probes in a row eject
+        // the instance, a good one lets trial calls through again
+        private Duration probeInterval = Duration.ofSeconds(10);
+        private int probeFailures = 3;
+    }
 }
@@ -5,10 +5,41 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "rate-limit")
 @Getter
 @Setter
 public class RateLimitConfig {
     private int requestsPerDay;
+
+    // Clients tracked at once; past this the least useful buckets are evicted
+    private long maxClients = 100_000;
+
+    // IPv6 clients are limited per prefix (64 = per subnet); 128 means per address
+    private int ipv6PrefixLength = 128;
+
+    private Distributed distributed = new Distributed();
+
+    @Getter
+    @Setter
+    public static class Distributed {
+
+        // Keep bucket state in the shared BucketStateStore instead of per instance
+        private boolean enabled = false;
+
+        // Tokens an instance may hand out from its local copy before syncing with the store.
+        // A client can exceed the limit by up to this many per instance; 0 syncs every call
+        private long maxUnsyncedTokens = 1;
+
+        // ...and how stale the local copy may get before the next call syncs anyway
+        private Duration maxUnsyncedTime = Duration.ofSeconds(1);
+
+        // Local copies of buckets not used for this long are dropped
+        private Duration nearCacheIdle = Duration.ofMinutes(5);
+
+        // How often the in-memory stand-in store drops expired buckets
+        private Duration purgeInterval = Duration.ofMinutes(10);
+    }
 }
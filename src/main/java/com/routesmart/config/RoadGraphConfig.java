@@ -0,0 +1,28 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "road-graph")
+@Getter
+@Setter
+public class RoadGraphConfig {
+
+    // Use the offline road graph for distance matrices instead of the Distance Matrix API
+    private boolean enabled = false;
+
+    // Pre-processed graph file (see RoadGraph for the layout)
+    private String path = "data/zimbabwe.rsg";
+
+    // Locations further than this from any road node are unreachable
+    private double maxSnapMeters = 2000;
+
+    // Speed assumed between a location and the road node it snapped to
+    private double accessSpeedKmh = 20;
+
+    // Origins searched in parallel
+    private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+}
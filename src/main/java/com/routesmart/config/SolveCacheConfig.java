@@ -0,0 +1,25 @@
+package com.routesmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "solve-cache")
+@Getter
+@Setter
+public class SolveCacheConfig {
+
+    private boolean enabled = true;
+
+    // Solved visiting orders, keyed by the canonical problem hash
+    private long maxSolves = 10_000;
+
+    // Full route responses served by GET /api/routes/{id}
+    private long maxRoutes = 10_000;
+
+    private Duration ttl = Duration.ofHours(24);
+}
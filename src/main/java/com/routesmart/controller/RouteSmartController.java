@@ -1,18 +1,31 @@
 package com.routesmart.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.dto.BatchRouteRequest;
 import com.routesmart.dto.RouteRequest;
 import com.routesmart.dto.RouteResponse;
+import com.routesmart.service.BatchOptimizationService;
 import com.routesmart.service.RateLimitService;
 import com.routesmart.service.RouteSmartService;
+import com.routesmart.service.RouteStreamingService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api")
@@ -21,11 +34,20 @@ public class RouteSmartController {
 
     private final RouteSmartService routeSmartService;
     private final RateLimitService rateLimitService;
+    private final BatchOptimizationService batchOptimizationService;
+    private final RouteStreamingService routeStreamingService;
+    private final ObjectMapper objectMapper;
 
     public RouteSmartController(RouteSmartService routeSmartService,
-                                RateLimitService rateLimitService) {
+                                RateLimitService rateLimitService,
+                                BatchOptimizationService batchOptimizationService,
+                                RouteStreamingService routeStreamingService,
+                                ObjectMapper objectMapper) {
         this.routeSmartService = routeSmartService;
         this.rateLimitService = rateLimitService;
+        this.batchOptimizationService = batchOptimizationService;
+        this.routeStreamingService = routeStreamingService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/optimize")
@@ -50,6 +72,71 @@ public class RouteSmartController {
         return ResponseEntity.ok(response);
     }
 
+    // Same as /optimize, streamed as Server-Sent Events: stage and incumbent events, then the
+    // result. Closing the connection early cancels the rest of the work.
+    @PostMapping(value = "/optimize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> optimizeRouteStream(
+            @Valid @RequestBody RouteRequest request,
+            HttpServletRequest httpRequest) {
+
+        String clientIp = getClientIp(httpRequest);
+        log.info("Received streamed optimization request from IP: {} with {} locations",
+                clientIp, request.getLocations().size());
+
+        if (!rateLimitService.tryConsume(clientIp)) {
+            log.warn("Rate limit exceeded for IP: {}", clientIp);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        return ResponseEntity.ok(routeStreamingService.stream(request, rateLimitService.getRemainingRequests(clientIp)));
+    }
+
+    // Many routes in one call, streamed back as NDJSON - one line per route as it finishes.
+    @PostMapping(value = "/optimize/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> optimizeBatch(
+            @Valid @RequestBody BatchRouteRequest request,
+            HttpServletRequest httpRequest) {
+
+        String clientIp = getClientIp(httpRequest);
+        log.info("Received batch request from IP: {} with {} routes", clientIp, request.getRoutes().size());
+
+        // Each route costs what a single /optimize would; a batch the client can't pay for is refused whole
+        if (!rateLimitService.tryConsume(clientIp, request.getRoutes().size())) {
+            log.warn("Rate limit exceeded for IP: {} ({} routes)", clientIp, request.getRoutes().size());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                batchOptimizationService.optimize(request.getRoutes(), result -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(result));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Batch interrupted");
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Previously solved route by id; no rate limit since nothing is geocoded or solved
+    @GetMapping("/routes/{id}")
+    public ResponseEntity<RouteResponse> getRoute(@PathVariable String id) {
+        return routeSmartService.getRoute(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -0,0 +1,19 @@
+package com.routesmart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchRouteRequest {
+
+    @NotEmpty(message = "Routes list cannot be empty")
+    @Size(max = 1000, message = "At most 1000 routes per batch")
+    private List<@Valid @NotNull(message = "Routes cannot be null") RouteRequest> routes;
+}
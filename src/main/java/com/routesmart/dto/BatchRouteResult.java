@@ -0,0 +1,18 @@
+package com.routesmart.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One line of the batch response: the route at {@code index} in the request, or why it failed.
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchRouteResult {
+
+    private int index;
+    private RouteResponse route;
+    private String error;
+}
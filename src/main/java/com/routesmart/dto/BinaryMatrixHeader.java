@@ -0,0 +1,38 @@
+package com.routesmart.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.routesmart.model.Location;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * JSON header of a binary optimize request: everything in {@link OptimizationRequest}
+ * except the matrix, which follows as raw int32s.
+ */
+@Getter
+@Setter
+@Builder
+public class BinaryMatrixHeader {
+
+    private List<Location> locations;
+
+    @JsonProperty("is_round_trip")
+    private boolean isRoundTrip;
+
+    @JsonProperty("time_budget_ms")
+    private Integer timeBudgetMs;
+
+    @JsonProperty("solution_limit")
+    private Integer solutionLimit;
+
+    @JsonProperty("stagnation_ms")
+    private Integer stagnationMs;
+
+    private int size;
+
+    // "none" or "zlib"
+    private String compression;
+}
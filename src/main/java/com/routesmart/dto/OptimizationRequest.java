@@ -1,6 +1,8 @@
 package com.routesmart.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.routesmart.model.DistanceMatrix;
 import com.routesmart.model.Location;
 import lombok.Builder;
 import lombok.Getter;
@@ -16,8 +18,18 @@ public class OptimizationRequest {
     private List<Location> locations;
 
     @JsonProperty("distance_matrix")
-    private int[][] distanceMatrix;
+    @JsonSerialize(using = DistanceMatrix.DistancesSerializer.class)
+    private DistanceMatrix distanceMatrix;
 
     @JsonProperty("is_round_trip")
     private boolean isRoundTrip;
+
+    @JsonProperty("time_budget_ms")
+    private Integer timeBudgetMs;
+
+    @JsonProperty("solution_limit")
+    private Integer solutionLimit;
+
+    @JsonProperty("stagnation_ms")
+    private Integer stagnationMs;
 }
@@ -1,5 +1,6 @@
 package com.routesmart.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.routesmart.model.Location;
 import lombok.Getter;
@@ -27,4 +28,11 @@ public class OptimizationResult {
 
     @JsonProperty("route_description")
     private List<String> routeDescription;
+
+    @JsonProperty("search_stats")
+    private SearchStats searchStats;
+
+    // Set on our side when the in-process fallback solved a route meant for the optimizer
+    @JsonIgnore
+    private boolean degraded;
 }
@@ -0,0 +1,26 @@
+package com.routesmart.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.routesmart.enums.PipelineStage;
+import com.routesmart.model.Location;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Data of a {@code stage}, {@code incumbent} or {@code error} event on the optimize stream.
+ * Incumbent orders are indices into the locations sent with the last stage event.
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RouteProgressEvent {
+
+    private PipelineStage stage;
+    private List<Location> locations;
+    private List<Integer> order;
+    private Double distanceKm;
+    private Long elapsedMs;
+    private String message;
+}
@@ -14,8 +14,8 @@ import java.util.List;
 public class RouteRequest {
 
     @NotEmpty(message = "Locations list cannot be empty")
-    @Size(min = 2, max = 10, message = "Must have between 2 and 10 locations")
-    private List<String> locations;
+    @Size(min = 2, max = 500, message = "Must have between 2 and 500 locations")
+    private List<@NotNull(message = "Locations cannot be null") String> locations;
 
     @NotNull(message = "Route type is required")
     private RouteType routeType;
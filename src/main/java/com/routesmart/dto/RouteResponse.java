@@ -9,9 +9,11 @@ import java.util.List;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 public class RouteResponse {
 
+    // Hash of the solved problem and the request's inputs, for GET /api/routes/{id}
+    private String routeId;
     private List<Location> optimizedOrder;
     private Double totalDistanceKm;
     private Integer totalTimeMinutes;
@@ -20,4 +22,6 @@ public class RouteResponse {
     private String embedMapUrl;
     private Integer remainingRequests;
     private List<String> routeDescription;
+    // True when the optimizer was down and the route came from the in-process fallback
+    private Boolean degraded;
 }
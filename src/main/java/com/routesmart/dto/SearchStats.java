@@ -0,0 +1,51 @@
+package com.routesmart.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchStats {
+
+    @JsonProperty("elapsed_ms")
+    private long elapsedMs;
+
+    private long iterations;
+
+    @JsonProperty("improving_moves")
+    private long improvingMoves;
+
+    @JsonProperty("initial_distance_meters")
+    private long initialDistanceMeters;
+
+    @JsonProperty("final_distance_meters")
+    private long finalDistanceMeters;
+
+    // true if the search reached a local optimum before its time budget ran out
+    private boolean converged;
+
+    // (elapsed ms, distance) samples taken as the tour improves
+    private List<Progress> trajectory;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Progress {
+
+        @JsonProperty("elapsed_ms")
+        private long elapsedMs;
+
+        @JsonProperty("distance_meters")
+        private long distanceMeters;
+    }
+}
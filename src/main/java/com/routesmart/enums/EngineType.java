@@ -0,0 +1,7 @@
+package com.routesmart.enums;
+
+public enum EngineType {
+    EXACT,
+    HEURISTIC,
+    REMOTE
+}
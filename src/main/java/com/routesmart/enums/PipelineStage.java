@@ -0,0 +1,7 @@
+package com.routesmart.enums;
+
+public enum PipelineStage {
+    PARSED,
+    GEOCODED,
+    MATRIX_READY
+}
@@ -0,0 +1,11 @@
+package com.routesmart.exception;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends ServiceException {
+
+    public BulkheadFullException(String bulkhead, int maxConcurrent, Duration maxWait) {
+        super("Too many concurrent " + bulkhead + " calls (" + maxConcurrent + " in flight, waited "
+                + maxWait.toMillis() + " ms)", "BULKHEAD_FULL");
+    }
+}
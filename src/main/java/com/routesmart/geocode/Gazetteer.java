@@ -0,0 +1,277 @@
+package com.routesmart.geocode;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Place names (with aliases) to coordinates, held as a prefix trie flattened into a few
+ * primitive arrays. Nodes are numbered breadth-first, so the children of node {@code v} are
+ * the contiguous range {@code firstChild[v] .. firstChild[v + 1] - 1}, sorted by label.
+ * <p>
+ * Keys are {@link #normalize normalized}: accents folded, case ignored and everything but
+ * letters and digits dropped, so "Mbaré Musika" and "mbare-musika" are the same key. Lookups
+ * can also allow a few edits (insert, delete, substitute or swap two adjacent characters).
+ * A key shared by two different places is ambiguous and never matches.
+ */
+public final class Gazetteer {
+
+    private static final int NO_ENTRY = -1;
+    private static final int AMBIGUOUS = -2;
+
+    public record Entry(String name, double latitude, double longitude) {
+    }
+
+    public record Match(Entry entry, int edits) {
+    }
+
+    private final Entry[] entries;
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] value;
+
+    private Gazetteer(Entry[] entries, char[] label, int[] firstChild, int[] value) {
+        this.entries = entries;
+        this.label = label;
+        this.firstChild = firstChild;
+        this.value = value;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int nodeCount() {
+        return label.length;
+    }
+
+    /**
+     * Rough heap size of the trie arrays plus the entries, in bytes.
+     */
+    public long footprintBytes() {
+        long bytes = 16L + 2L * label.length + 16L + 4L * firstChild.length + 16L + 4L * value.length;
+        for (Entry entry : entries) {
+            // entry object, two doubles, String with its byte array
+            bytes += 32 + 40 + entry.name().length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Lowercase letters and digits of {@code text} with accents removed.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Exact match on the normalized key.
+     */
+    public Optional<Entry> find(String text) {
+        String key = normalize(text);
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node >= 0 && value[node] >= 0 ? Optional.of(entries[value[node]]) : Optional.empty();
+    }
+
+    /**
+     * Closest entry within {@code maxEdits} of the normalized key. Empty if nothing is that
+     * close or two different places tie for closest.
+     */
+    public Optional<Match> findClosest(String text, int maxEdits) {
+        String key = normalize(text);
+        Optional<Entry> exact = find(key);
+        if (exact.isPresent() || maxEdits == 0 || key.isEmpty()) {
+            return exact.map(entry -> new Match(entry, 0));
+        }
+
+        Search search = new Search(key, maxEdits);
+        int[] row = new int[key.length() + 1];
+        for (int i = 0; i <= key.length(); i++) {
+            row[i] = i;
+        }
+        for (int c = firstChild[0]; c < firstChild[1]; c++) {
+            search.visit(c, (char) 0, null, row);
+        }
+        if (search.best < 0 || search.tied) {
+            return Optional.empty();
+        }
+        return Optional.of(new Match(entries[search.best], search.bestEdits));
+    }
+
+    private int child(int node, char c) {
+        int lo = firstChild[node];
+        int hi = firstChild[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (label[mid] < c) {
+                lo = mid + 1;
+            } else if (label[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Depth-first walk carrying one row of the edit distance table per trie level
+    private final class Search {
+        private final String key;
+        private final int maxEdits;
+        private int best = -1;
+        private int bestEdits = Integer.MAX_VALUE;
+        private boolean tied;
+
+        Search(String key, int maxEdits) {
+            this.key = key;
+            this.maxEdits = maxEdits;
+        }
+
+        void visit(int node, char parentLabel, int[] grandparentRow, int[] parentRow) {
+            char c = label[node];
+            int n = key.length();
+            int[] row = new int[n + 1];
+            row[0] = parentRow[0] + 1;
+            int rowMin = row[0];
+            for (int i = 1; i <= n; i++) {
+                char k = key.charAt(i - 1);
+                int cost = k == c ? 0 : 1;
+                int d = Math.min(Math.min(row[i - 1] + 1, parentRow[i] + 1), parentRow[i - 1] + cost);
+                // adjacent swap, e.g. "mbrae" -> "mbare"
+                if (grandparentRow != null && i > 1 && k == parentLabel && key.charAt(i - 2) == c) {
+                    d = Math.min(d, grandparentRow[i - 2] + 1);
+                }
+                row[i] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+
+            if (value[node] != NO_ENTRY && row[n] <= maxEdits) {
+                offer(value[node], row[n]);
+            }
+            if (rowMin <= maxEdits) {
+                for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+                    visit(child, c, parentRow, row);
+                }
+            }
+        }
+
+        private void offer(int entry, int edits) {
+            if (edits < bestEdits) {
+                best = entry;
+                bestEdits = edits;
+                tied = entry == AMBIGUOUS;
+            } else if (edits == bestEdits && entry != best) {
+                tied = true;
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> keyEntries = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String name, double latitude, double longitude, List<String> aliases) {
+            int index = entries.size();
+            entries.add(new Entry(name, latitude, longitude));
+            addKey(name, index);
+            for (String alias : aliases) {
+                addKey(alias, index);
+            }
+            return this;
+        }
+
+        private void addKey(String text, int entry) {
+            String key = normalize(text);
+            if (!key.isEmpty()) {
+                keys.add(key);
+                keyEntries.add(entry);
+            }
+        }
+
+        public Gazetteer build() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            String[] sorted = new String[order.length];
+            int[] sortedEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = keys.get(order[i]);
+                sortedEntries[i] = keyEntries.get(order[i]);
+            }
+
+            // Breadth-first over ranges of sorted keys sharing a prefix: node v covers
+            // sorted[lo[v] .. hi[v]) at depth depth[v]
+            List<int[]> nodes = new ArrayList<>();
+            List<Character> labels = new ArrayList<>();
+            nodes.add(new int[]{0, sorted.length, 0});
+            labels.add((char) 0);
+            int[] firstChildTmp = new int[Math.max(1, totalChars(sorted) + 2)];
+            int[] valueTmp = new int[firstChildTmp.length];
+            for (int v = 0; v < nodes.size(); v++) {
+                int lo = nodes.get(v)[0];
+                int hi = nodes.get(v)[1];
+                int depth = nodes.get(v)[2];
+                valueTmp[v] = NO_ENTRY;
+                // keys ending here sort first
+                while (lo < hi && sorted[lo].length() == depth) {
+                    valueTmp[v] = valueTmp[v] == NO_ENTRY || valueTmp[v] == sortedEntries[lo]
+                            ? sortedEntries[lo] : AMBIGUOUS;
+                    lo++;
+                }
+                firstChildTmp[v] = nodes.size();
+                while (lo < hi) {
+                    char c = sorted[lo].charAt(depth);
+                    int end = lo;
+                    while (end < hi && sorted[end].charAt(depth) == c) {
+                        end++;
+                    }
+                    nodes.add(new int[]{lo, end, depth + 1});
+                    labels.add(c);
+                    lo = end;
+                }
+            }
+            int count = nodes.size();
+            firstChildTmp[count] = count;
+
+            char[] label = new char[count];
+            for (int v = 0; v < count; v++) {
+                label[v] = labels.get(v);
+            }
+            return new Gazetteer(entries.toArray(Entry[]::new), label,
+                    Arrays.copyOf(firstChildTmp, count + 1), Arrays.copyOf(valueTmp, count));
+        }
+
+        private static int totalChars(String[] keys) {
+            int total = 0;
+            for (String key : keys) {
+                total += key.length();
+            }
+            return total;
+        }
+    }
+}
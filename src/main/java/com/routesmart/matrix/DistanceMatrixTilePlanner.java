@@ -0,0 +1,61 @@
+package com.routesmart.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits an origin x destination block into tiles that fit the Distance Matrix API's
+ * per-request limits (origins, destinations and elements). The tile shape is chosen to
+ * minimise the number of requests, so a single row goes out 25 destinations at a time
+ * rather than 10.
+ */
+public final class DistanceMatrixTilePlanner {
+
+    private DistanceMatrixTilePlanner() {
+    }
+
+    public static List<MatrixBlock> tile(MatrixBlock block, int maxOrigins, int maxDestinations, int maxElements) {
+        int origins = block.origins().length;
+        int destinations = block.destinations().length;
+        if (origins == 0 || destinations == 0) {
+            return List.of();
+        }
+
+        // Try every row height; the width follows from the element limit
+        int bestRows = 1;
+        int bestColumns = 1;
+        long bestTiles = Long.MAX_VALUE;
+        for (int rows = 1; rows <= Math.min(origins, maxOrigins); rows++) {
+            int columns = Math.min(Math.min(destinations, maxDestinations), maxElements / rows);
+            if (columns == 0) {
+                break;
+            }
+            long tiles = (long) ceilDiv(origins, rows) * ceilDiv(destinations, columns);
+            if (tiles < bestTiles) {
+                bestTiles = tiles;
+                bestRows = rows;
+                bestColumns = columns;
+            }
+        }
+
+        // Spread evenly so the last tile isn't a sliver
+        int rowTiles = ceilDiv(origins, bestRows);
+        int columnTiles = ceilDiv(destinations, bestColumns);
+        List<MatrixBlock> tiles = new ArrayList<>(rowTiles * columnTiles);
+        for (int r = 0; r < rowTiles; r++) {
+            int[] tileOrigins = Arrays.copyOfRange(block.origins(),
+                    r * origins / rowTiles, (r + 1) * origins / rowTiles);
+            for (int c = 0; c < columnTiles; c++) {
+                int[] tileDestinations = Arrays.copyOfRange(block.destinations(),
+                        c * destinations / columnTiles, (c + 1) * destinations / columnTiles);
+                tiles.add(new MatrixBlock(tileOrigins, tileDestinations));
+            }
+        }
+        return tiles;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
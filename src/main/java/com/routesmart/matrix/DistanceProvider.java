@@ -0,0 +1,18 @@
+package com.routesmart.matrix;
+
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+
+import java.util.List;
+
+/**
+ * Source of driving distances and durations between geocoded locations. Google's Distance
+ * Matrix API by default; the offline road graph when {@code road-graph.enabled} is set.
+ */
+public interface DistanceProvider {
+
+    /**
+     * Matrix for {@code locations} in the given order. Pairs with no route are marked unreachable.
+     */
+    DistanceMatrix getDistanceMatrix(List<Location> locations);
+}
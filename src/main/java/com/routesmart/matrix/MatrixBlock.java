@@ -0,0 +1,12 @@
+package com.routesmart.matrix;
+
+/**
+ * One Distance Matrix call: the listed origins against the listed destinations,
+ * as indices into the request's locations.
+ */
+public record MatrixBlock(int[] origins, int[] destinations) {
+
+    public int elements() {
+        return origins.length * destinations.length;
+    }
+}
@@ -0,0 +1,97 @@
+package com.routesmart.matrix;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Covers the missing cells of a matrix with a few origin x destination blocks, keeping the
+ * number of billed elements low. Rows missing the same columns share a block, so adding one
+ * stop to a cached route costs a row plus a column rather than the whole matrix.
+ */
+public final class MissingCellPlanner {
+
+    // Beyond this many distinct row patterns, pairwise merging isn't worth the CPU
+    private static final int MAX_GROUPS_TO_MERGE = 64;
+
+    private MissingCellPlanner() {
+    }
+
+    public static List<MatrixBlock> plan(boolean[][] missing, int maxBlocks) {
+        int n = missing.length;
+        Map<BitSet, BitSet> rowsByColumns = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            BitSet columns = new BitSet(n);
+            for (int j = 0; j < n; j++) {
+                if (missing[i][j]) {
+                    columns.set(j);
+                }
+            }
+            if (!columns.isEmpty()) {
+                rowsByColumns.computeIfAbsent(columns, c -> new BitSet(n)).set(i);
+            }
+        }
+
+        List<BitSet[]> groups = new ArrayList<>();
+        rowsByColumns.forEach((columns, rows) -> groups.add(new BitSet[]{rows, columns}));
+
+        if (groups.size() > MAX_GROUPS_TO_MERGE) {
+            BitSet rows = new BitSet(n);
+            BitSet columns = new BitSet(n);
+            for (BitSet[] group : groups) {
+                rows.or(group[0]);
+                columns.or(group[1]);
+            }
+            groups.clear();
+            groups.add(new BitSet[]{rows, columns});
+        }
+
+        // Merge the pair that adds the fewest elements until we're within the block limit,
+        // and keep merging while it's free (e.g. a cold matrix differs per row only on the diagonal)
+        while (groups.size() > 1) {
+            int bestA = 0;
+            int bestB = 1;
+            long bestExtra = Long.MAX_VALUE;
+            for (int a = 0; a < groups.size(); a++) {
+                for (int b = a + 1; b < groups.size(); b++) {
+                    long extra = mergeCost(groups.get(a), groups.get(b));
+                    if (extra < bestExtra) {
+                        bestExtra = extra;
+                        bestA = a;
+                        bestB = b;
+                    }
+                }
+            }
+            if (bestExtra > 0 && groups.size() <= Math.max(1, maxBlocks)) {
+                break;
+            }
+            BitSet[] b = groups.remove(bestB);
+            BitSet[] a = groups.get(bestA);
+            a[0].or(b[0]);
+            a[1].or(b[1]);
+        }
+
+        List<MatrixBlock> blocks = new ArrayList<>(groups.size());
+        for (BitSet[] group : groups) {
+            blocks.add(new MatrixBlock(group[0].stream().toArray(), group[1].stream().toArray()));
+        }
+        return blocks;
+    }
+
+    // Cached cells a merged block would refetch; diagonal cells don't count as they're never cached
+    private static long mergeCost(BitSet[] a, BitSet[] b) {
+        BitSet rows = (BitSet) a[0].clone();
+        rows.or(b[0]);
+        BitSet columns = (BitSet) a[1].clone();
+        columns.or(b[1]);
+        return offDiagonal(rows, columns) - offDiagonal(a[0], a[1]) - offDiagonal(b[0], b[1]);
+    }
+
+    private static long offDiagonal(BitSet rows, BitSet columns) {
+        BitSet diagonal = (BitSet) rows.clone();
+        diagonal.and(columns);
+        return (long) rows.cardinality() * columns.cardinality() - diagonal.cardinality();
+    }
+}
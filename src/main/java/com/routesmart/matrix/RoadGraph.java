@@ -0,0 +1,222 @@
+package com.routesmart.matrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Directed road graph in compressed sparse row form, memory-mapped from a pre-processed file so
+ * the arrays live in the page cache rather than on the heap. Edges leaving node {@code v} are
+ * {@code firstEdge(v) .. firstEdge(v + 1) - 1}.
+ * <p>
+ * File layout, all little-endian int32 after the magic:
+ * <pre>
+ *   "RSG1" | nodeCount | edgeCount
+ *   latE6[nodeCount] | lngE6[nodeCount]          coordinates in micro-degrees
+ *   firstEdge[nodeCount + 1]
+ *   target[edgeCount] | meters[edgeCount] | millis[edgeCount]
+ * </pre>
+ * A grid index over the nodes is built on the heap when the graph is opened, for snapping
+ * coordinates to the nearest node.
+ */
+public final class RoadGraph {
+
+    private static final byte[] MAGIC = "RSG1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = MAGIC.length + 2 * Integer.BYTES;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    // ~1.1 km of latitude per grid cell
+    private static final double CELL_DEGREES = 0.01;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final IntBuffer latE6;
+    private final IntBuffer lngE6;
+    private final IntBuffer firstEdge;
+    private final IntBuffer target;
+    private final IntBuffer meters;
+    private final IntBuffer millis;
+
+    // grid index: sorted cell keys, and the nodes of cell i at cellNodes[cellStart[i] .. cellStart[i + 1])
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    private RoadGraph(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalArgumentException("Not a road graph file (bad magic)");
+        }
+        ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.nodeCount = le.getInt(MAGIC.length);
+        this.edgeCount = le.getInt(MAGIC.length + Integer.BYTES);
+        long expected = HEADER_BYTES + 4L * (3L * nodeCount + 1 + 3L * edgeCount);
+        if (nodeCount < 0 || edgeCount < 0 || buffer.capacity() != expected) {
+            throw new IllegalArgumentException("Road graph file is " + buffer.capacity()
+                    + " bytes, expected " + expected + " for " + nodeCount + " nodes and " + edgeCount + " edges");
+        }
+
+        int offset = HEADER_BYTES;
+        this.latE6 = slice(buffer, offset, nodeCount);
+        offset += nodeCount * Integer.BYTES;
+        this.lngE6 = slice(buffer, offset, nodeCount);
+        offset += nodeCount * Integer.BYTES;
+        this.firstEdge = slice(buffer, offset, nodeCount + 1);
+        offset += (nodeCount + 1) * Integer.BYTES;
+        this.target = slice(buffer, offset, edgeCount);
+        offset += edgeCount * Integer.BYTES;
+        this.meters = slice(buffer, offset, edgeCount);
+        offset += edgeCount * Integer.BYTES;
+        this.millis = slice(buffer, offset, edgeCount);
+
+        // bucket nodes by grid cell: sort (cell, node) pairs packed into longs
+        long[] packed = new long[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            packed[v] = (cellKey(latitude(v), longitude(v)) << 24) | v;
+        }
+        Arrays.sort(packed);
+        this.cellNodes = new int[nodeCount];
+        long[] keys = new long[nodeCount];
+        int[] starts = new int[nodeCount + 1];
+        int cells = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            long key = packed[i] >>> 24;
+            cellNodes[i] = (int) (packed[i] & 0xFFFFFF);
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells++] = i;
+            }
+        }
+        starts[cells] = nodeCount;
+        this.cellKeys = Arrays.copyOf(keys, cells);
+        this.cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    public static RoadGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Road graph file over 2 GB: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RoadGraph(buffer);
+        }
+    }
+
+    /**
+     * Writes a graph in the layout {@link #open} reads. {@code firstEdge} has
+     * {@code latE6.length + 1} entries; the three edge arrays are parallel.
+     */
+    public static void write(Path path, int[] latE6, int[] lngE6, int[] firstEdge,
+                             int[] target, int[] meters, int[] millis) throws IOException {
+        int n = latE6.length;
+        int m = target.length;
+        if (lngE6.length != n || firstEdge.length != n + 1 || firstEdge[n] != m
+                || meters.length != m || millis.length != m) {
+            throw new IllegalArgumentException("Inconsistent road graph arrays");
+        }
+        if (n >= 1 << 24) {
+            throw new IllegalArgumentException("Road graph supports fewer than 2^24 nodes, got " + n);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * (3 * n + 1 + 3 * m))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(n).putInt(m);
+        for (int[] array : new int[][]{latE6, lngE6, firstEdge, target, meters, millis}) {
+            buffer.asIntBuffer().put(array);
+            buffer.position(buffer.position() + array.length * Integer.BYTES);
+        }
+        Files.write(path, buffer.array());
+    }
+
+    private static IntBuffer slice(ByteBuffer buffer, int offset, int ints) {
+        return buffer.slice(offset, ints * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public double latitude(int node) {
+        return latE6.get(node) / 1e6;
+    }
+
+    public double longitude(int node) {
+        return lngE6.get(node) / 1e6;
+    }
+
+    public int firstEdge(int node) {
+        return firstEdge.get(node);
+    }
+
+    public int target(int edge) {
+        return target.get(edge);
+    }
+
+    public int meters(int edge) {
+        return meters.get(edge);
+    }
+
+    public int millis(int edge) {
+        return millis.get(edge);
+    }
+
+    /**
+     * Node closest to the given point within {@code maxMeters}, or -1 if there is none.
+     */
+    public int nearestNode(double lat, double lng, double maxMeters) {
+        int latCell = (int) Math.floor(lat / CELL_DEGREES);
+        int lngCell = (int) Math.floor(lng / CELL_DEGREES);
+        double cellMeters = Math.toRadians(CELL_DEGREES) * EARTH_RADIUS_METERS
+                * Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat) + 1, 89))), 0.01);
+        int rings = (int) Math.ceil(maxMeters / cellMeters);
+
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int dLat = -rings; dLat <= rings; dLat++) {
+            for (int dLng = -rings; dLng <= rings; dLng++) {
+                int cell = Arrays.binarySearch(cellKeys, packCell(latCell + dLat, lngCell + dLng));
+                if (cell < 0) {
+                    continue;
+                }
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int node = cellNodes[i];
+                    double d = distanceMeters(lat, lng, latitude(node), longitude(node));
+                    if (d <= bestMeters) {
+                        best = node;
+                        bestMeters = d;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long cellKey(double lat, double lng) {
+        return packCell((int) Math.floor(lat / CELL_DEGREES), (int) Math.floor(lng / CELL_DEGREES));
+    }
+
+    // 17 bits per axis covers the 36,000 cells of longitude at 0.01 degrees; with the 24 node
+    // bits the packed (cell, node) pairs stay positive, so they sort in cell order
+    private static long packCell(int latCell, int lngCell) {
+        return ((long) (latCell + (1 << 16)) << 17) | (lngCell + (1 << 16));
+    }
+
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.routesmart.metrics;
+
+import com.routesmart.enums.EngineType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The application's own meters, registered once up front so the hot paths only touch
+ * pre-built timers and counters. Scraped at {@code /actuator/prometheus}.
+ * <ul>
+ *   <li>{@code routesmart.optimize} - whole request, tagged {@code outcome} (solved, cached, failed)</li>
+ *   <li>{@code routesmart.stage} - each pipeline stage, tagged {@code stage}</li>
+ *   <li>{@code routesmart.google.calls} - Google API requests, tagged {@code api} and {@code outcome}</li>
+ *   <li>{@code routesmart.google.elements} - Distance Matrix elements returned (what Google bills)</li>
+ *   <li>{@code routesmart.ratelimit.rejections} - requests refused by the rate limiter</li>
+ *   <li>{@code routesmart.optimizer.selections} / {@code .failures} - per engine</li>
+ *   <li>{@code routesmart.optimizer.degraded} - remote solves served by the in-process fallback</li>
+ * </ul>
+ * Timers publish percentile histograms, so latency quantiles can be computed in Prometheus.
+ */
+@Component
+public class RouteSmartMetrics {
+
+    public enum Stage { PARSE, GEOCODE, MATRIX, SOLVE }
+
+    public enum Outcome { SOLVED, CACHED, FAILED }
+
+    public enum GoogleApi { GEOCODE, REVERSE_GEOCODE, DISTANCE_MATRIX }
+
+    private final MeterRegistry registry;
+    private final Map<Outcome, Timer> requests = new EnumMap<>(Outcome.class);
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<GoogleApi, Counter> googleCalls = new EnumMap<>(GoogleApi.class);
+    private final Map<GoogleApi, Counter> googleErrors = new EnumMap<>(GoogleApi.class);
+    private final Counter googleElements;
+    private final Counter rateLimitRejections;
+    private final Map<EngineType, Counter> engineSelections = new EnumMap<>(EngineType.class);
+    private final Map<EngineType, Counter> engineFailures = new EnumMap<>(EngineType.class);
+    private final Counter degradedSolves;
+
+    public RouteSmartMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Outcome outcome : Outcome.values()) {
+            requests.put(outcome, Timer.builder("routesmart.optimize")
+                    .description("Route optimization requests, end to end")
+                    .tag("outcome", tag(outcome))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("routesmart.stage")
+                    .description("Time spent in each route optimization stage")
+                    .tag("stage", tag(stage))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (GoogleApi api : GoogleApi.values()) {
+            googleCalls.put(api, googleCounter(api, "success"));
+            googleErrors.put(api, googleCounter(api, "error"));
+        }
+        googleElements = Counter.builder("routesmart.google.elements")
+                .description("Distance Matrix elements returned by Google")
+                .register(registry);
+        rateLimitRejections = Counter.builder("routesmart.ratelimit.rejections")
+                .description("Requests refused by the per-client rate limit")
+                .register(registry);
+        for (EngineType engine : EngineType.values()) {
+            engineSelections.put(engine, Counter.builder("routesmart.optimizer.selections")
+                    .description("Solves routed to each optimizer engine")
+                    .tag("engine", tag(engine))
+                    .register(registry));
+            engineFailures.put(engine, Counter.builder("routesmart.optimizer.failures")
+                    .description("Solves that threw instead of returning a route")
+                    .tag("engine", tag(engine))
+                    .register(registry));
+        }
+        degradedSolves = Counter.builder("routesmart.optimizer.degraded")
+                .description("Remote solves answered by the in-process heuristic instead")
+                .register(registry);
+    }
+
+    /**
+     * Not registered anywhere; for tests and tools that build services by hand.
+     */
+    public static RouteSmartMetrics standalone() {
+        return new RouteSmartMetrics(new SimpleMeterRegistry());
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    // ==================== TIMERS ====================
+
+    public Timer.Sample startRequest() {
+        return Timer.start(registry);
+    }
+
+    public void requestDone(Timer.Sample sample, Outcome outcome) {
+        sample.stop(requests.get(outcome));
+    }
+
+    public <T> T timeStage(Stage stage, Supplier<T> work) {
+        return stages.get(stage).record(work);
+    }
+
+    public void timeStage(Stage stage, Runnable work) {
+        stages.get(stage).record(work);
+    }
+
+    // ==================== COUNTERS ====================
+
+    public void googleCall(GoogleApi api, boolean success) {
+        (success ? googleCalls : googleErrors).get(api).increment();
+    }
+
+    public void googleElements(int elements) {
+        googleElements.increment(elements);
+    }
+
+    public void rateLimitRejected() {
+        rateLimitRejections.increment();
+    }
+
+    public void engineSelected(EngineType engine) {
+        engineSelections.get(engine).increment();
+    }
+
+    public long engineSelections(EngineType engine) {
+        return (long) engineSelections.get(engine).count();
+    }
+
+    public void engineFailed(EngineType engine) {
+        engineFailures.get(engine).increment();
+    }
+
+    public long engineFailures(EngineType engine) {
+        return (long) engineFailures.get(engine).count();
+    }
+
+    public void degradedSolve() {
+        degradedSolves.increment();
+    }
+
+    public long degradedSolves() {
+        return (long) degradedSolves.count();
+    }
+
+    private Counter googleCounter(GoogleApi api, String outcome) {
+        return Counter.builder("routesmart.google.calls")
+                .description("Requests sent to Google Maps APIs")
+                .tag("api", tag(api))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
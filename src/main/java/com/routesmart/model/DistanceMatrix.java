@@ -0,0 +1,131 @@
+package com.routesmart.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Square matrix of driving distances (meters) and durations (seconds), stored row-major in
+ * flat int arrays with a bit mask for pairs the API couldn't route. Unreachable cells hold
+ * {@link #UNREACHABLE_PENALTY} in both arrays, so the solvers can use the arrays as costs
+ * directly and legs still sum safely in a long.
+ * <p>
+ * Cells may be written from several threads at once as long as each cell has one writer
+ * (parallel matrix tiles cover disjoint cells); the mask words cells share are updated atomically.
+ */
+public final class DistanceMatrix {
+
+    // Large enough that no solver picks an unreachable leg if any alternative exists (10,000 km)
+    public static final int UNREACHABLE_PENALTY = 10_000_000;
+
+    private final int size;
+    private final int[] distances;
+    private final int[] durations;
+    private final AtomicLongArray unreachable;
+
+    public DistanceMatrix(int size) {
+        this.size = size;
+        this.distances = new int[size * size];
+        this.durations = new int[size * size];
+        this.unreachable = new AtomicLongArray((size * size + 63) >>> 6);
+    }
+
+    /**
+     * Matrix with the given distances and no durations, mainly for tests and callers
+     * that still hold a jagged array. {@link Integer#MAX_VALUE} marks a cell unreachable.
+     */
+    public static DistanceMatrix ofDistances(int[][] distances) {
+        DistanceMatrix matrix = new DistanceMatrix(distances.length);
+        for (int i = 0; i < distances.length; i++) {
+            for (int j = 0; j < distances.length; j++) {
+                if (distances[i][j] == Integer.MAX_VALUE) {
+                    matrix.setUnreachable(i, j);
+                } else {
+                    matrix.set(i, j, distances[i][j], 0);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int from, int to, int meters, int seconds) {
+        int cell = from * size + to;
+        distances[cell] = meters;
+        durations[cell] = seconds;
+        // Only a cell marked unreachable before needs the mask touched
+        long bit = 1L << cell;
+        if ((unreachable.get(cell >>> 6) & bit) != 0) {
+            unreachable.getAndUpdate(cell >>> 6, word -> word & ~bit);
+        }
+    }
+
+    public void setUnreachable(int from, int to) {
+        int cell = from * size + to;
+        distances[cell] = UNREACHABLE_PENALTY;
+        durations[cell] = UNREACHABLE_PENALTY;
+        long bit = 1L << cell;
+        unreachable.getAndUpdate(cell >>> 6, word -> word | bit);
+    }
+
+    public int distance(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    public int duration(int from, int to) {
+        return durations[from * size + to];
+    }
+
+    public boolean isReachable(int from, int to) {
+        int cell = from * size + to;
+        return (unreachable.get(cell >>> 6) & (1L << cell)) == 0;
+    }
+
+    /**
+     * Backing row-major distance array, cell {@code (i, j)} at {@code i * size + j}.
+     * Shared, not copied - callers must not modify it.
+     */
+    public int[] distances() {
+        return distances;
+    }
+
+    /**
+     * Backing row-major duration array. Shared, not copied - callers must not modify it.
+     */
+    public int[] durations() {
+        return durations;
+    }
+
+    public int[][] toDistanceArray() {
+        int[][] rows = new int[size][];
+        for (int i = 0; i < size; i++) {
+            rows[i] = Arrays.copyOfRange(distances, i * size, (i + 1) * size);
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the distances as nested JSON arrays (the optimizer's {@code List[List[int]]})
+     * straight from the flat array, without building rows first.
+     */
+    public static class DistancesSerializer extends JsonSerializer<DistanceMatrix> {
+
+        @Override
+        public void serialize(DistanceMatrix matrix, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException {
+            int n = matrix.size;
+            gen.writeStartArray(matrix, n);
+            for (int i = 0; i < n; i++) {
+                gen.writeArray(matrix.distances, i * n, n);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Exact TSP solver (Held-Karp bitmask dynamic programming) for small routes.
+ * <p>
+ * The route always starts at location 0. Depending on the route type it returns to the start
+ * (ROUND_TRIP), must finish at the last location (ONE_WAY_FIXED_END) or may finish anywhere
+ * (ONE_WAY_OPEN_END). Work tables are plain primitive arrays, pooled and only grown, so a
+ * solve does not allocate apart from building the result.
+ */
+@Component
+@Slf4j
+public class ExactTspSolver implements OptimizerEngine {
+
+    // 2^15 subsets x 15 end nodes is ~2 MB of dp table per workspace and a few ms of work
+    public static final int MAX_LOCATIONS = 16;
+
+    // INF marks dp cells not reached yet; real path costs saturate one below it
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int MAX_COST = INF - 1;
+
+    // A pool rather than a ThreadLocal: request threads are virtual and never reused, so a
+    // per-thread workspace would be rebuilt on every solve. Extra workspaces past the cap
+    // (a burst of concurrent solves) are left to the GC.
+    private static final BlockingQueue<Workspace> WORKSPACES =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    @Override
+    public EngineType type() {
+        return EngineType.EXACT;
+    }
+
+    @Override
+    public OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                       RouteType routeType, SolveContext context) {
+        return solve(locations, distanceMatrix, routeType);
+    }
+
+    public boolean supports(int numLocations) {
+        return numLocations >= 1 && numLocations <= MAX_LOCATIONS;
+    }
+
+    public OptimizationResult solve(List<Location> locations, DistanceMatrix distanceMatrix, RouteType routeType) {
+        long start = System.nanoTime();
+        int[] order = solveOrder(distanceMatrix, routeType);
+        OptimizationResult result = OptimizationResults.fromOrder(
+                locations, distanceMatrix, order, routeType == RouteType.ROUND_TRIP);
+        log.info("Exact solver: {} locations, {} in {} us",
+                order.length, routeType, (System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    /**
+     * Returns the optimal visiting order as location indices, starting with 0.
+     */
+    public int[] solveOrder(DistanceMatrix distanceMatrix, RouteType routeType) {
+        int n = distanceMatrix.size();
+        if (n > MAX_LOCATIONS) {
+            throw new IllegalArgumentException(
+                    "Exact solver supports at most " + MAX_LOCATIONS + " locations, got " + n);
+        }
+        if (n <= 2) {
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+
+        boolean fixedEnd = routeType == RouteType.ONE_WAY_FIXED_END;
+        // Free nodes are the ones we get to permute: 1..n-1, or 1..n-2 when the end is fixed.
+        // Free node j is location j + 1.
+        int k = fixedEnd ? n - 2 : n - 1;
+        int terminal = switch (routeType) {
+            case ROUND_TRIP -> 0;
+            case ONE_WAY_FIXED_END -> n - 1;
+            case ONE_WAY_OPEN_END -> -1;
+        };
+
+        Workspace ws = WORKSPACES.poll();
+        if (ws == null) {
+            ws = new Workspace();
+        }
+        try {
+            return solveOrder(distanceMatrix, n, k, fixedEnd, terminal, ws);
+        } finally {
+            WORKSPACES.offer(ws);
+        }
+    }
+
+    private static int[] solveOrder(DistanceMatrix distanceMatrix, int n, int k, boolean fixedEnd, int terminal,
+                                    Workspace ws) {
+        ws.ensureCapacity(n, k);
+        int[] dist = ws.dist;
+        int[] dp = ws.dp;
+        byte[] parent = ws.parent;
+
+        System.arraycopy(distanceMatrix.distances(), 0, dist, 0, n * n);
+
+        int full = (1 << k) - 1;
+        int tableSize = (full + 1) * k;
+        Arrays.fill(dp, 0, tableSize, INF);
+
+        for (int j = 0; j < k; j++) {
+            dp[(1 << j) * k + j] = Math.min(dist[j + 1], MAX_COST);
+        }
+
+        for (int mask = 1; mask < full; mask++) {
+            int base = mask * k;
+            for (int j = 0; j < k; j++) {
+                int cost = dp[base + j];
+                if (cost == INF) {
+                    continue;
+                }
+                int rowOffset = (j + 1) * n + 1;
+                int remaining = full & ~mask;
+                while (remaining != 0) {
+                    int l = Integer.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    int candidate = add(cost, dist[rowOffset + l]);
+                    int idx = (mask | (1 << l)) * k + l;
+                    if (candidate < dp[idx]) {
+                        dp[idx] = candidate;
+                        parent[idx] = (byte) j;
+                    }
+                }
+            }
+        }
+
+        int bestEnd = 0;
+        int bestCost = INF;
+        int fullBase = full * k;
+        for (int j = 0; j < k; j++) {
+            int cost = dp[fullBase + j];
+            if (terminal >= 0) {
+                cost = add(cost, dist[(j + 1) * n + terminal]);
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestEnd = j;
+            }
+        }
+
+        int[] order = new int[n];
+        order[0] = 0;
+        if (fixedEnd) {
+            order[n - 1] = n - 1;
+        }
+        int mask = full;
+        int j = bestEnd;
+        for (int pos = k; pos >= 1; pos--) {
+            order[pos] = j + 1;
+            int prev = parent[mask * k + j];
+            mask &= ~(1 << j);
+            j = prev;
+        }
+        return order;
+    }
+
+    // Saturating add so long tours of unreachable-leg penalties never wrap around
+    private static int add(int a, int b) {
+        long sum = (long) a + b;
+        return sum >= MAX_COST ? MAX_COST : (int) sum;
+    }
+
+    private static final class Workspace {
+        private int[] dist = new int[0];
+        private int[] dp = new int[0];
+        private byte[] parent = new byte[0];
+
+        void ensureCapacity(int n, int k) {
+            if (dist.length < n * n) {
+                dist = new int[n * n];
+            }
+            int tableSize = (1 << k) * k;
+            if (dp.length < tableSize) {
+                dp = new int[tableSize];
+                parent = new byte[tableSize];
+            }
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.dto.SearchStats;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Time-bounded local search for routes too large to solve exactly.
+ * <p>
+ * Builds a nearest-neighbour tour and then improves it with 2-opt and Or-opt moves. Moves are
+ * only tried towards each node's k nearest neighbours, and nodes whose neighbourhood produced
+ * no improvement are skipped (don't-look bits) until one of their edges changes. The tour is a
+ * flat {@code int[]} path and 2-opt deltas use prefix sums, so asymmetric matrices (as returned
+ * by the Distance Matrix API) are costed exactly.
+ * <p>
+ * Once a local optimum is reached, any remaining budget goes into small random kicks followed
+ * by re-optimisation; the search stops early when kicks stop paying off.
+ */
+@Component
+@Slf4j
+public class HeuristicTspSolver implements OptimizerEngine {
+
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(2);
+    public static final int DEFAULT_NEIGHBORS = 10;
+
+    // Or-opt moves chains of up to this many consecutive stops
+    private static final int MAX_SEGMENT = 3;
+    // How many node evaluations between clock reads
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+    // Minimum spacing between trajectory samples
+    private static final long TRAJECTORY_SAMPLE_NANOS = 1_000_000;
+    // Minimum spacing between incumbents reported to the context's listener
+    private static final long INCUMBENT_REPORT_NANOS = 100_000_000;
+    // Perturbation only pays off once there is room for three non-trivial segments
+    private static final int MIN_PERTURBATION_SIZE = 8;
+    private static final int MAX_KICK_SEGMENT = 50;
+    private static final int MIN_FAILED_KICKS = 100;
+
+    private final int neighbors;
+
+    public HeuristicTspSolver() {
+        this(DEFAULT_NEIGHBORS);
+    }
+
+    public HeuristicTspSolver(int neighbors) {
+        this.neighbors = neighbors;
+    }
+
+    @Override
+    public EngineType type() {
+        return EngineType.HEURISTIC;
+    }
+
+    @Override
+    public OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                       RouteType routeType, SolveContext context) {
+        return toResult(locations, distanceMatrix, routeType, search(distanceMatrix, routeType, context));
+    }
+
+    public OptimizationResult solve(List<Location> locations, DistanceMatrix distanceMatrix,
+                                    RouteType routeType, Duration timeBudget) {
+        return toResult(locations, distanceMatrix, routeType, search(distanceMatrix, routeType, timeBudget));
+    }
+
+    private static OptimizationResult toResult(List<Location> locations, DistanceMatrix distanceMatrix,
+                                               RouteType routeType, Solution solution) {
+        OptimizationResult result = OptimizationResults.fromOrder(
+                locations, distanceMatrix, solution.order(), routeType == RouteType.ROUND_TRIP);
+        result.setSearchStats(solution.stats());
+        return result;
+    }
+
+    public Solution search(DistanceMatrix distanceMatrix, RouteType routeType, Duration timeBudget) {
+        return search(distanceMatrix, routeType, SolveContext.withBudget(timeBudget));
+    }
+
+    /**
+     * Searches until the context's deadline or until it is cancelled, reporting better tours
+     * to its incumbent listener (at most every 100 ms) along the way.
+     */
+    public Solution search(DistanceMatrix distanceMatrix, RouteType routeType, SolveContext context) {
+        long start = System.nanoTime();
+        Search search = new Search(distanceMatrix, routeType, neighbors, start, context);
+        Solution solution = search.run();
+        SearchStats stats = solution.stats();
+        log.info("Heuristic solver: {} locations, {} -> {} m ({} moves, {} iterations) in {} ms, converged={}",
+                distanceMatrix.size(), stats.getInitialDistanceMeters(), stats.getFinalDistanceMeters(),
+                stats.getImprovingMoves(), stats.getIterations(), stats.getElapsedMs(), stats.isConverged());
+        return solution;
+    }
+
+    public record Solution(int[] order, SearchStats stats) {
+    }
+
+    /**
+     * State for one run. The path runs from position 0 (always location 0) to position
+     * {@code last}, which holds the route's end: location 0 again for a round trip, the fixed
+     * end location, or a virtual node with zero-cost edges for an open end. Only the interior
+     * positions 1..last-1 are ever moved.
+     */
+    private static final class Search {
+
+        private final int n;
+        private final int[] dist;
+        private final int virtual;
+        private final boolean roundTrip;
+        private final int last;
+        private final int[] path;
+        private final int[] pos;
+        private final long[] fwd;
+        private final long[] bwd;
+        private final int[][] neighborLists;
+        private final int[] segmentBuffer = new int[MAX_SEGMENT];
+        private final int[] scratch;
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        private final int[] queue;
+        private final boolean[] queued;
+        private int queueHead;
+        private int queueSize;
+
+        private final long startNanos;
+        private final long deadlineNanos;
+        private final SolveContext context;
+        private long cost;
+        private long reportedCost = Long.MAX_VALUE;
+        private long lastReportNanos;
+        private long iterations;
+        private long improvingMoves;
+        private long lastSampleNanos;
+        private final List<SearchStats.Progress> trajectory = new ArrayList<>();
+
+        Search(DistanceMatrix distanceMatrix, RouteType routeType, int k, long startNanos, SolveContext context) {
+            this.n = distanceMatrix.size();
+            // read-only, so the matrix's own array is used as is
+            this.dist = distanceMatrix.distances();
+            this.virtual = n;
+            this.startNanos = startNanos;
+            this.deadlineNanos = context.deadlineNanos();
+            this.context = context;
+
+            this.roundTrip = routeType == RouteType.ROUND_TRIP;
+            this.last = routeType == RouteType.ONE_WAY_FIXED_END ? Math.max(n - 1, 0) : n;
+            this.path = new int[last + 1];
+            this.pos = new int[n + 1];
+            this.fwd = new long[last + 1];
+            this.bwd = new long[last + 1];
+            path[last] = switch (routeType) {
+                case ROUND_TRIP -> 0;
+                case ONE_WAY_FIXED_END -> n - 1;
+                case ONE_WAY_OPEN_END -> virtual;
+            };
+
+            this.neighborLists = buildNeighborLists(Math.min(k, Math.max(n - 1, 0)));
+            this.scratch = new int[last + 1];
+            this.queue = new int[n];
+            this.queued = new boolean[n];
+        }
+
+        Solution run() {
+            if (n <= 2) {
+                int[] order = new int[n];
+                for (int i = 0; i < n; i++) {
+                    order[i] = i;
+                }
+                return finish(order, true, tourCost(order));
+            }
+
+            construct();
+            long initialCost = cost;
+            sample(true);
+            report(true);
+
+            for (int p = 0; p < last; p++) {
+                push(path[p]);
+            }
+            boolean converged = localSearch();
+            if (converged && last - 1 >= MIN_PERTURBATION_SIZE) {
+                converged = perturb();
+            }
+
+            sample(true);
+            return finish(Arrays.copyOf(path, n), converged, initialCost);
+        }
+
+        // Runs moves until no queued node improves; false if the deadline hit first
+        private boolean localSearch() {
+            while (queueSize > 0) {
+                if (iterations % CLOCK_CHECK_INTERVAL == 0 && outOfTime()) {
+                    return false;
+                }
+                iterations++;
+                int a = pop();
+                if (improve2Opt(a) || improveOrOpt(a)) {
+                    improvingMoves++;
+                    push(a);
+                    sample(false);
+                    report(false);
+                }
+            }
+            return true;
+        }
+
+        // Iterated local search: kick the local optimum with a segment swap, re-optimise around
+        // the kick and keep the result only if it is shorter. Stops once 'last' kicks in a row
+        // failed to improve (true) or at the deadline (false).
+        private boolean perturb() {
+            int[] best = path.clone();
+            long bestCost = cost;
+            int maxFailures = Math.max(MIN_FAILED_KICKS, last);
+            int failures = 0;
+            boolean finished = true;
+            while (failures < maxFailures && finished) {
+                if (outOfTime()) {
+                    finished = false;
+                    break;
+                }
+                kick();
+                finished = localSearch();
+                if (cost < bestCost) {
+                    System.arraycopy(path, 0, best, 0, path.length);
+                    bestCost = cost;
+                    failures = 0;
+                    sample(false);
+                } else {
+                    restore(best, bestCost);
+                    failures++;
+                }
+            }
+            clearQueue();
+            return finished;
+        }
+
+        // Double bridge limited to a window so the kick stays local: [c1,c2) and [c2,c3) swap places
+        private void kick() {
+            int window = Math.max(1, Math.min(MAX_KICK_SEGMENT, (last - 1) / 3));
+            int c1 = 1 + random.nextInt(last - 2);
+            int c2 = Math.min(c1 + 1 + random.nextInt(window), last - 1);
+            int c3 = Math.min(c2 + 1 + random.nextInt(window), last);
+            if (c2 >= c3) {
+                return;
+            }
+            int lenB = c2 - c1;
+            int lenC = c3 - c2;
+            System.arraycopy(path, c1, scratch, 0, lenB);
+            System.arraycopy(path, c2, path, c1, lenC);
+            System.arraycopy(scratch, 0, path, c1 + lenC, lenB);
+            for (int p = c1; p < c3; p++) {
+                pos[path[p]] = p;
+            }
+            recomputeFrom(c1 - 1);
+            cost = fwd[last];
+
+            int mid = c1 + lenC;
+            push(path[c1 - 1]);
+            push(path[c1]);
+            push(path[mid - 1]);
+            push(path[mid]);
+            push(path[c3 - 1]);
+            push(path[c3]);
+        }
+
+        private void restore(int[] best, long bestCost) {
+            System.arraycopy(best, 0, path, 0, path.length);
+            for (int p = 1; p < last; p++) {
+                pos[path[p]] = p;
+            }
+            recomputeFrom(0);
+            cost = bestCost;
+        }
+
+        private Solution finish(int[] order, boolean converged, long initialCost) {
+            long total = tourCost(order);
+            SearchStats stats = SearchStats.builder()
+                    .elapsedMs((System.nanoTime() - startNanos) / 1_000_000)
+                    .iterations(iterations)
+                    .improvingMoves(improvingMoves)
+                    .initialDistanceMeters(initialCost)
+                    .finalDistanceMeters(total)
+                    .converged(converged)
+                    .trajectory(trajectory)
+                    .build();
+            return new Solution(order, stats);
+        }
+
+        private long tourCost(int[] order) {
+            long total = 0;
+            for (int i = 1; i < order.length; i++) {
+                total += dist[order[i - 1] * n + order[i]];
+            }
+            if (roundTrip && order.length > 1) {
+                total += dist[order[order.length - 1] * n + order[0]];
+            }
+            return total;
+        }
+
+        // ==================== CONSTRUCTION ====================
+
+        private void construct() {
+            boolean[] used = new boolean[n];
+            used[0] = true;
+            if (path[last] != virtual) {
+                used[path[last]] = true;
+            }
+            path[0] = 0;
+            int current = 0;
+            for (int p = 1; p < last; p++) {
+                int next = -1;
+                for (int c : neighborLists[current]) {
+                    if (!used[c]) {
+                        next = c;
+                        break;
+                    }
+                }
+                if (next < 0) {
+                    // all near neighbours taken - fall back to a full scan
+                    long best = Long.MAX_VALUE;
+                    int row = current * n;
+                    for (int c = 0; c < n; c++) {
+                        if (!used[c] && dist[row + c] < best) {
+                            best = dist[row + c];
+                            next = c;
+                        }
+                    }
+                }
+                used[next] = true;
+                path[p] = next;
+                current = next;
+            }
+            for (int p = 0; p <= last; p++) {
+                if (path[p] != virtual) {
+                    pos[path[p]] = p;
+                }
+            }
+            pos[0] = 0;
+            recomputeFrom(0);
+            cost = fwd[last];
+        }
+
+        private int[][] buildNeighborLists(int k) {
+            int[][] lists = new int[n][];
+            long[] best = new long[k];
+            for (int a = 0; a < n; a++) {
+                // keep the k smallest (a->b + b->a, b) pairs in a sorted window; packing the
+                // node into the low bits makes ties break on the lower index
+                int count = 0;
+                for (int b = 0; b < n; b++) {
+                    if (b == a) {
+                        continue;
+                    }
+                    long d = (long) dist[a * n + b] + dist[b * n + a];
+                    long key = (d << 20) | b;
+                    if (count == k && key >= best[k - 1]) {
+                        continue;
+                    }
+                    int slot = count < k ? count++ : k - 1;
+                    while (slot > 0 && best[slot - 1] > key) {
+                        best[slot] = best[slot - 1];
+                        slot--;
+                    }
+                    best[slot] = key;
+                }
+                int[] list = new int[count];
+                for (int i = 0; i < count; i++) {
+                    list[i] = (int) (best[i] & 0xFFFFF);
+                }
+                lists[a] = list;
+            }
+            return lists;
+        }
+
+        // ==================== 2-OPT ====================
+
+        private boolean improve2Opt(int a) {
+            int i = pos[a];
+            if (i < last) {
+                int b = path[i + 1];
+                long ab = cost(a, b);
+                for (int c : neighborLists[a]) {
+                    int j = pos[c];
+                    if (!isInterior(c) || j <= i + 1) {
+                        continue;
+                    }
+                    long ac = cost(a, c);
+                    if (ac >= ab) {
+                        continue;
+                    }
+                    int e = path[j + 1];
+                    long delta = ac + cost(b, e) - ab - cost(c, e)
+                            + (bwd[j] - bwd[i + 1]) - (fwd[j] - fwd[i + 1]);
+                    if (delta < 0) {
+                        reverse(i + 1, j);
+                        cost += delta;
+                        push(b);
+                        push(c);
+                        push(e);
+                        return true;
+                    }
+                }
+            }
+            if (isInterior(a)) {
+                int p = path[i - 1];
+                long pa = cost(p, a);
+                for (int c : neighborLists[a]) {
+                    int j = pos[c];
+                    if (!isInterior(c) || j >= i - 1) {
+                        continue;
+                    }
+                    long ca = cost(c, a);
+                    if (ca >= pa) {
+                        continue;
+                    }
+                    int q = path[j - 1];
+                    long delta = cost(q, p) + ca - cost(q, c) - pa
+                            + (bwd[i - 1] - bwd[j]) - (fwd[i - 1] - fwd[j]);
+                    if (delta < 0) {
+                        reverse(j, i - 1);
+                        cost += delta;
+                        push(p);
+                        push(c);
+                        push(q);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void reverse(int from, int to) {
+            for (int l = from, r = to; l < r; l++, r--) {
+                int t = path[l];
+                path[l] = path[r];
+                path[r] = t;
+            }
+            for (int p = from; p <= to; p++) {
+                pos[path[p]] = p;
+            }
+            recomputeFrom(from - 1);
+        }
+
+        // ==================== OR-OPT ====================
+
+        private boolean improveOrOpt(int a) {
+            if (!isInterior(a)) {
+                return false;
+            }
+            int i = pos[a];
+            for (int len = 1; len <= MAX_SEGMENT && i + len - 1 < last; len++) {
+                int segEnd = i + len - 1;
+                int s2 = path[segEnd];
+                int p = path[i - 1];
+                int nx = path[segEnd + 1];
+                long removeGain = cost(p, a) + cost(s2, nx) - cost(p, nx);
+                if (removeGain <= 0) {
+                    continue;
+                }
+
+                // insert so that c -> a ... s2 -> next(c)
+                for (int c : neighborLists[a]) {
+                    int t = positionOf(c);
+                    if (t < 0 || t >= last || (t >= i - 1 && t <= segEnd)) {
+                        continue;
+                    }
+                    int v = path[t + 1];
+                    long delta = cost(c, a) + cost(s2, v) - cost(c, v) - removeGain;
+                    if (delta < 0) {
+                        moveSegment(i, len, t);
+                        cost += delta;
+                        push(p);
+                        push(nx);
+                        push(c);
+                        push(v);
+                        return true;
+                    }
+                }
+
+                // insert so that prev(c) -> a ... s2 -> c
+                for (int c : neighborLists[s2]) {
+                    int t = positionOf(c) - 1;
+                    if (t < 0 || t >= last || (t >= i - 1 && t <= segEnd)) {
+                        continue;
+                    }
+                    int u = path[t];
+                    long delta = cost(u, a) + cost(s2, c) - cost(u, c) - removeGain;
+                    if (delta < 0) {
+                        moveSegment(i, len, t);
+                        cost += delta;
+                        push(p);
+                        push(nx);
+                        push(u);
+                        push(c);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Moves path[from .. from+len-1] so it follows what is currently at position 'after'
+        private void moveSegment(int from, int len, int after) {
+            System.arraycopy(path, from, segmentBuffer, 0, len);
+            int lo;
+            int hi;
+            if (after > from) {
+                System.arraycopy(path, from + len, path, from, after - from - len + 1);
+                System.arraycopy(segmentBuffer, 0, path, after - len + 1, len);
+                lo = from;
+                hi = after;
+            } else {
+                System.arraycopy(path, after + 1, path, after + 1 + len, from - after - 1);
+                System.arraycopy(segmentBuffer, 0, path, after + 1, len);
+                lo = after + 1;
+                hi = from + len - 1;
+            }
+            for (int p = lo; p <= hi; p++) {
+                pos[path[p]] = p;
+            }
+            recomputeFrom(lo - 1);
+        }
+
+        // ==================== HELPERS ====================
+
+        private long cost(int a, int b) {
+            if (a == virtual || b == virtual) {
+                return 0;
+            }
+            return dist[a * n + b];
+        }
+
+        private boolean isInterior(int node) {
+            if (node == 0 || node == virtual) {
+                return false;
+            }
+            int p = pos[node];
+            return p > 0 && p < last;
+        }
+
+        // Position a node can be inserted after: interior nodes, or the start
+        private int positionOf(int node) {
+            if (node == 0) {
+                return 0;
+            }
+            return isInterior(node) ? pos[node] : -1;
+        }
+
+        private void recomputeFrom(int from) {
+            int p = Math.max(from, 0);
+            if (p == 0) {
+                fwd[0] = 0;
+                bwd[0] = 0;
+            }
+            for (; p < last; p++) {
+                fwd[p + 1] = fwd[p] + cost(path[p], path[p + 1]);
+                bwd[p + 1] = bwd[p] + cost(path[p + 1], path[p]);
+            }
+        }
+
+        private boolean outOfTime() {
+            return System.nanoTime() >= deadlineNanos || context.isCancelled();
+        }
+
+        // Hands the current tour to the listener if it beats the last one reported; the path is a
+        // complete tour between moves, so any point in the search is safe
+        private void report(boolean force) {
+            if (!context.hasIncumbentListener() || cost >= reportedCost) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (force || now - lastReportNanos >= INCUMBENT_REPORT_NANOS) {
+                context.reportIncumbent(Arrays.copyOf(path, n), cost);
+                reportedCost = cost;
+                lastReportNanos = now;
+            }
+        }
+
+        private void clearQueue() {
+            while (queueSize > 0) {
+                pop();
+            }
+        }
+
+        private void push(int node) {
+            if (node == virtual || queued[node]) {
+                return;
+            }
+            queued[node] = true;
+            queue[(queueHead + queueSize) % n] = node;
+            queueSize++;
+        }
+
+        private int pop() {
+            int node = queue[queueHead];
+            queueHead = (queueHead + 1) % n;
+            queueSize--;
+            queued[node] = false;
+            return node;
+        }
+
+        private void sample(boolean force) {
+            long now = System.nanoTime();
+            if (force || now - lastSampleNanos >= TRAJECTORY_SAMPLE_NANOS) {
+                trajectory.add(new SearchStats.Progress((now - startNanos) / 1_000_000, cost));
+                lastSampleNanos = now;
+            }
+        }
+    }
+}
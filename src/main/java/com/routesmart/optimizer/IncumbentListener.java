@@ -0,0 +1,15 @@
+package com.routesmart.optimizer;
+
+/**
+ * Told about each better tour an engine finds while it is still searching.
+ */
+@FunctionalInterface
+public interface IncumbentListener {
+
+    /**
+     * @param order          visiting order as location indices, starting with 0; the engine's
+     *                       own copy, so it may be kept
+     * @param distanceMeters length of the tour, including the way back for round trips
+     */
+    void onIncumbent(int[] order, long distanceMeters);
+}
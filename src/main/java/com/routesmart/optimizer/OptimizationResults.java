@@ -0,0 +1,61 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds {@link OptimizationResult}s for the in-process engines so they come back in exactly
+ * the same shape (and with the same route description wording) as the Python optimizer.
+ */
+public final class OptimizationResults {
+
+    private OptimizationResults() {
+    }
+
+    public static OptimizationResult fromOrder(List<Location> locations, DistanceMatrix distanceMatrix,
+                                               int[] order, boolean isRoundTrip) {
+        List<Integer> optimizedOrder = new ArrayList<>(order.length);
+        List<Location> optimizedLocations = new ArrayList<>(order.length);
+        List<String> routeDescription = new ArrayList<>(order.length + 1);
+
+        long totalDistance = 0;
+        for (int i = 0; i < order.length; i++) {
+            int idx = order[i];
+            optimizedOrder.add(idx);
+            optimizedLocations.add(locations.get(idx));
+            if (i == 0) {
+                routeDescription.add("Start at " + locations.get(idx).getName());
+            } else {
+                int leg = distanceMatrix.distance(order[i - 1], idx);
+                totalDistance += leg;
+                routeDescription.add("Go to " + locations.get(idx).getName() + " (" + formatKm(leg) + " km)");
+            }
+        }
+
+        if (isRoundTrip && order.length > 0) {
+            int first = order[0];
+            int leg = distanceMatrix.distance(order[order.length - 1], first);
+            totalDistance += leg;
+            routeDescription.add("Return to " + locations.get(first).getName() + " (" + formatKm(leg) + " km)");
+        }
+
+        int totalMeters = (int) Math.min(totalDistance, Integer.MAX_VALUE);
+
+        OptimizationResult result = new OptimizationResult();
+        result.setOptimizedOrder(optimizedOrder);
+        result.setOptimizedLocations(optimizedLocations);
+        result.setTotalDistanceMeters(totalMeters);
+        result.setTotalDistanceKm(Math.round(totalMeters / 1000.0 * 100.0) / 100.0);
+        result.setRouteDescription(routeDescription);
+        return result;
+    }
+
+    private static String formatKm(int meters) {
+        return String.format(Locale.ROOT, "%.2f", meters / 1000.0);
+    }
+}
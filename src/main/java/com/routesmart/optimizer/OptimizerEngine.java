@@ -0,0 +1,29 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+
+import java.util.List;
+
+/**
+ * A way of turning a distance matrix into a visiting order. {@link OptimizerRouter} picks one
+ * implementation per request.
+ */
+public interface OptimizerEngine {
+
+    EngineType type();
+
+    /**
+     * Whether the engine can take a solve right now. Remote engines say no while their
+     * downstream is known to be down, so the router can fall back without waiting on it.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                RouteType routeType, SolveContext context);
+}
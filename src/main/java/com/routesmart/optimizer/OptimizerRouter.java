@@ -0,0 +1,136 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks an {@link OptimizerEngine} per request from the route size, route type and the time
+ * left in the request budget, following the rules in {@link OptimizerConfig.Routing}.
+ * <p>
+ * A streamed solve (its context has an incumbent listener) never goes remote: the Python
+ * service only answers with its final tour, so the client would see no incumbents at all.
+ * <p>
+ * When the remote engine is unavailable (its circuit breaker is open) or its call fails, the
+ * route is solved by the in-process heuristic instead and the result is marked degraded.
+ */
+@Service
+@Slf4j
+public class OptimizerRouter {
+
+    private final Map<EngineType, OptimizerEngine> engines = new EnumMap<>(EngineType.class);
+    private final OptimizerConfig optimizerConfig;
+    private final RouteSmartMetrics metrics;
+
+    public OptimizerRouter(List<OptimizerEngine> engines, OptimizerConfig optimizerConfig, RouteSmartMetrics metrics) {
+        for (OptimizerEngine engine : engines) {
+            this.engines.put(engine.type(), engine);
+        }
+        this.optimizerConfig = optimizerConfig;
+        this.metrics = metrics;
+    }
+
+    public OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                       RouteType routeType, SolveContext context) {
+        EngineType type = select(locations.size(), routeType, context.remaining(), context.hasIncumbentListener());
+        OptimizerEngine engine = engine(type);
+        if (type == EngineType.REMOTE && !engine.isAvailable() && engines.containsKey(EngineType.HEURISTIC)) {
+            log.warn("Remote optimizer unavailable, solving {} locations in-process", locations.size());
+            return degraded(solve(EngineType.HEURISTIC, locations, distanceMatrix, routeType, context));
+        }
+
+        try {
+            return solve(type, locations, distanceMatrix, routeType, context);
+        } catch (RuntimeException e) {
+            if (type != EngineType.REMOTE || !engines.containsKey(EngineType.HEURISTIC) || context.isCancelled()) {
+                throw e;
+            }
+            log.warn("Remote optimizer failed ({}), solving {} locations in-process", e.getMessage(), locations.size());
+            return degraded(solve(EngineType.HEURISTIC, locations, distanceMatrix, routeType, context));
+        }
+    }
+
+    private OptimizationResult solve(EngineType type, List<Location> locations, DistanceMatrix distanceMatrix,
+                                     RouteType routeType, SolveContext context) {
+        OptimizerEngine engine = engine(type);
+        metrics.engineSelected(type);
+
+        SolveContext engineContext = type == EngineType.HEURISTIC
+                ? context.limitedTo(optimizerConfig.getRouting().getHeuristicTimeLimit())
+                : context;
+
+        long start = System.nanoTime();
+        OptimizationResult result;
+        try {
+            result = engine.optimize(locations, distanceMatrix, routeType, engineContext);
+        } catch (RuntimeException e) {
+            metrics.engineFailed(type);
+            throw e;
+        }
+        log.info("{} engine solved {} locations ({}) in {} ms",
+                type, locations.size(), routeType, (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private OptimizerEngine engine(EngineType type) {
+        OptimizerEngine engine = engines.get(type);
+        if (engine == null) {
+            throw new IllegalStateException("No optimizer engine registered for " + type);
+        }
+        return engine;
+    }
+
+    // A heuristic stand-in for a remote solve: still a valid route, just not as well optimized
+    private OptimizationResult degraded(OptimizationResult result) {
+        result.setDegraded(true);
+        metrics.degradedSolve();
+        return result;
+    }
+
+    public EngineType select(int numLocations, RouteType routeType, Duration remaining) {
+        return select(numLocations, routeType, remaining, false);
+    }
+
+    public EngineType select(int numLocations, RouteType routeType, Duration remaining, boolean streaming) {
+        OptimizerConfig.Routing rules = optimizerConfig.getRouting();
+
+        int exactMax = Math.min(rules.getExactMaxLocations(), ExactTspSolver.MAX_LOCATIONS);
+        if (numLocations <= exactMax) {
+            log.info("Routing {} locations to EXACT engine (limit {})", numLocations, exactMax);
+            return EngineType.EXACT;
+        }
+
+        if (!rules.isRemoteEnabled()) {
+            log.info("Routing {} locations to HEURISTIC engine (remote disabled)", numLocations);
+        } else if (streaming) {
+            log.info("Routing {} locations to HEURISTIC engine (streamed, remote has no incumbents)", numLocations);
+        } else if (!rules.getRemoteRouteTypes().contains(routeType)) {
+            log.info("Routing {} locations to HEURISTIC engine (remote does not support {})", numLocations, routeType);
+        } else if (numLocations > rules.getRemoteMaxLocations()) {
+            log.info("Routing {} locations to HEURISTIC engine (remote limit {})",
+                    numLocations, rules.getRemoteMaxLocations());
+        } else if (remaining.compareTo(rules.getRemoteMinBudget()) < 0) {
+            log.info("Routing {} locations to HEURISTIC engine ({} ms left, remote needs {} ms)",
+                    numLocations, remaining.toMillis(), rules.getRemoteMinBudget().toMillis());
+        } else {
+            log.info("Routing {} locations to REMOTE engine", numLocations);
+            return EngineType.REMOTE;
+        }
+        return EngineType.HEURISTIC;
+    }
+
+    public long getSelectionCount(EngineType type) {
+        return metrics.engineSelections(type);
+    }
+}
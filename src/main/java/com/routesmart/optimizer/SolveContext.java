@@ -0,0 +1,80 @@
+package com.routesmart.optimizer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-request solve state handed to the engines. The pipeline restarts the deadline with
+ * {@link #restartedWith} once the matrix is ready, so a slow geocode or matrix fetch can't eat
+ * the time the solver needs.
+ * <p>
+ * A context can be cancelled (e.g. the client went away); cancelling one also cancels every
+ * context derived from it, and a cancelled context has no time left.
+ */
+public class SolveContext {
+
+    private final long deadlineNanos;
+    private final AtomicBoolean cancelled;
+    private final IncumbentListener incumbentListener;
+
+    private SolveContext(long deadlineNanos, AtomicBoolean cancelled, IncumbentListener incumbentListener) {
+        this.deadlineNanos = deadlineNanos;
+        this.cancelled = cancelled;
+        this.incumbentListener = incumbentListener;
+    }
+
+    public static SolveContext withBudget(Duration budget) {
+        return new SolveContext(System.nanoTime() + budget.toNanos(), new AtomicBoolean(), null);
+    }
+
+    /**
+     * Same context, with the deadline pulled in to at most {@code limit} from now.
+     */
+    public SolveContext limitedTo(Duration limit) {
+        long limited = System.nanoTime() + limit.toNanos();
+        return limited < deadlineNanos ? new SolveContext(limited, cancelled, incumbentListener) : this;
+    }
+
+    /**
+     * Same context (cancellation and listener), with a fresh deadline {@code budget} from now.
+     */
+    public SolveContext restartedWith(Duration budget) {
+        return new SolveContext(System.nanoTime() + budget.toNanos(), cancelled, incumbentListener);
+    }
+
+    /**
+     * Same context, reporting improving tours to {@code listener}.
+     */
+    public SolveContext withIncumbentListener(IncumbentListener listener) {
+        return new SolveContext(deadlineNanos, cancelled, listener);
+    }
+
+    public Duration remaining() {
+        if (cancelled.get()) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public boolean hasIncumbentListener() {
+        return incumbentListener != null;
+    }
+
+    public void reportIncumbent(int[] order, long distanceMeters) {
+        if (incumbentListener != null) {
+            incumbentListener.onIncumbent(order, distanceMeters);
+        }
+    }
+}
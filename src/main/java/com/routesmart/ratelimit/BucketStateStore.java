@@ -0,0 +1,24 @@
+package com.routesmart.ratelimit;
+
+/**
+ * Shared storage for serialized rate-limit bucket state, the only thing a backend has to
+ * provide for cluster-wide limits. Implement it over Redis, a database row, etc. and
+ * register it as a bean; {@link InMemoryBucketStateStore} is the in-process stand-in.
+ */
+public interface BucketStateStore {
+
+    /**
+     * Stored state for {@code key}, or {@code null} if there is none (or it expired).
+     */
+    byte[] get(String key);
+
+    /**
+     * Stores {@code replacement} only if the current state still equals {@code expected}
+     * ({@code null} meaning no state yet). {@code ttlMillis <= 0} means no expiry.
+     *
+     * @return false if another writer got there first
+     */
+    boolean compareAndSwap(String key, byte[] expected, byte[] replacement, long ttlMillis);
+
+    void remove(String key);
+}
@@ -0,0 +1,74 @@
+package com.routesmart.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link BucketStateStore} in this JVM's heap. Behaves like a shared store for anything
+ * running in the same process (tests, a single node), but doesn't share limits between
+ * instances or survive a restart.
+ */
+@Slf4j
+public class InMemoryBucketStateStore implements BucketStateStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongSupplier clockMillis;
+
+    public InMemoryBucketStateStore() {
+        this(System::currentTimeMillis);
+    }
+
+    public InMemoryBucketStateStore(LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    private record Entry(byte[] data, long expiresAt) {
+        boolean isExpired(long now) {
+            return expiresAt > 0 && now >= expiresAt;
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = entries.get(key);
+        return entry == null || entry.isExpired(clockMillis.getAsLong()) ? null : entry.data();
+    }
+
+    @Override
+    public boolean compareAndSwap(String key, byte[] expected, byte[] replacement, long ttlMillis) {
+        long now = clockMillis.getAsLong();
+        Entry next = new Entry(replacement, ttlMillis > 0 ? now + ttlMillis : 0);
+        boolean[] swapped = new boolean[1];
+        entries.compute(key, (k, current) -> {
+            byte[] currentData = current == null || current.isExpired(now) ? null : current.data();
+            if (Arrays.equals(currentData, expected)) {
+                swapped[0] = true;
+                return next;
+            }
+            return current;
+        });
+        return swapped[0];
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.distributed.purge-interval:10m}")
+    public void purgeExpired() {
+        long now = clockMillis.getAsLong();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        log.debug("Purged {} expired rate limit buckets", before - entries.size());
+    }
+}
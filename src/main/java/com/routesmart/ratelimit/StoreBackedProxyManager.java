@@ -0,0 +1,77 @@
+package com.routesmart.ratelimit;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bucket4j proxy manager over a {@link BucketStateStore}: each consume reads the bucket's
+ * state, applies the command locally and writes it back with compare-and-swap, retrying if
+ * another node changed it in between. Synchronous only.
+ */
+public class StoreBackedProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+    private final BucketStateStore store;
+
+    public StoreBackedProxyManager(BucketStateStore store, ClientSideConfig clientSideConfig) {
+        super(clientSideConfig);
+        this.store = store;
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                return Optional.ofNullable(store.get(key));
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState,
+                                          Optional<Long> timeoutNanos) {
+                return store.compareAndSwap(key, originalData, newData, ttlMillis(newState));
+            }
+        };
+    }
+
+    private long ttlMillis(RemoteBucketState state) {
+        return getClientSideConfig().getExpirationAfterWriteStrategy()
+                .map(strategy -> strategy.calculateTimeToLiveMillis(state, currentTimeNanos()))
+                .orElse(0L);
+    }
+
+    private long currentTimeNanos() {
+        Long clientTime = getClientSideTime();
+        return clientTime != null ? clientTime : System.currentTimeMillis() * 1_000_000;
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+        throw new UnsupportedOperationException("Asynchronous mode is not supported");
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        store.remove(key);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String key) {
+        throw new UnsupportedOperationException("Asynchronous mode is not supported");
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isExpireAfterWriteSupported() {
+        return true;
+    }
+}
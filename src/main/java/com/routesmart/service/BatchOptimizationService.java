@@ -0,0 +1,205 @@
+package com.routesmart.service;
+
+import com.routesmart.cache.SolveCache;
+import com.routesmart.config.BatchConfig;
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.BatchRouteResult;
+import com.routesmart.dto.RouteRequest;
+import com.routesmart.dto.RouteResponse;
+import com.routesmart.matrix.DistanceProvider;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import com.routesmart.optimizer.SolveContext;
+import com.routesmart.util.LocationParserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Optimizes many routes as a pipeline: parse -> geocode -> distance matrix -> solve, each stage
+ * on its own workers with a bounded queue in between, so routes overlap instead of running
+ * their stages back to back. Results are handed to the sink as each route finishes, in
+ * completion order, on the calling thread.
+ * <p>
+ * Work is shared across the batch: geocodes go through one shared map, so a stop that appears
+ * in many routes is looked up once, and the matrix stage has a single worker so every fetch
+ * sees the cells earlier routes put in the distance matrix cache.
+ */
+@Service
+@Slf4j
+public class BatchOptimizationService {
+
+    private final LocationParserService locationParserService;
+    private final GoogleMapsService googleMapsService;
+    private final DistanceProvider distanceProvider;
+    private final RouteSmartService routeSmartService;
+    private final SolveCache solveCache;
+    private final BatchConfig batchConfig;
+    private final OptimizerConfig optimizerConfig;
+
+    public BatchOptimizationService(LocationParserService locationParserService,
+                                    GoogleMapsService googleMapsService,
+                                    DistanceProvider distanceProvider,
+                                    RouteSmartService routeSmartService,
+                                    SolveCache solveCache,
+                                    BatchConfig batchConfig,
+                                    OptimizerConfig optimizerConfig) {
+        this.locationParserService = locationParserService;
+        this.googleMapsService = googleMapsService;
+        this.distanceProvider = distanceProvider;
+        this.routeSmartService = routeSmartService;
+        this.solveCache = solveCache;
+        this.batchConfig = batchConfig;
+        this.optimizerConfig = optimizerConfig;
+    }
+
+    private static final class Job {
+        final int index;
+        final RouteRequest request;
+        List<Location> locations;
+        DistanceMatrix matrix;
+
+        Job(int index, RouteRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+
+    public void optimize(List<RouteRequest> routes, Consumer<BatchRouteResult> sink) throws InterruptedException {
+        log.info("Starting batch optimization for {} routes", routes.size());
+        long start = System.nanoTime();
+        int capacity = batchConfig.getQueueCapacity();
+        BlockingQueue<Job> toGeocode = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Job> toMatrix = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Job> toSolve = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<BatchRouteResult> results = new ArrayBlockingQueue<>(capacity);
+        ConcurrentMap<String, CompletableFuture<Location>> geocodes = new ConcurrentHashMap<>();
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Void>> stages = new ArrayList<>();
+        try {
+            stages.add(workers.submit(() -> parseStage(routes, toGeocode, results)));
+            for (int i = 0; i < batchConfig.getGeocodeWorkers(); i++) {
+                stages.add(workers.submit(() -> stage(toGeocode, toMatrix, results, job -> {
+                    googleMapsService.geocodeLocations(job.locations, geocodes);
+                    routeSmartService.logCoordinates(job.locations);
+                })));
+            }
+            stages.add(workers.submit(() -> stage(toMatrix, toSolve, results,
+                    job -> job.matrix = distanceProvider.getDistanceMatrix(job.locations))));
+            for (int i = 0; i < batchConfig.getSolveWorkers(); i++) {
+                stages.add(workers.submit(() -> solveStage(toSolve, results)));
+            }
+
+            // every route produces exactly one result, from whichever stage it finished or failed in
+            for (int done = 0; done < routes.size(); ) {
+                BatchRouteResult result = results.poll(1, TimeUnit.SECONDS);
+                if (result != null) {
+                    sink.accept(result);
+                    done++;
+                } else {
+                    checkWorkers(stages);
+                }
+            }
+        } finally {
+            // workers block on empty queues once the batch is through; also stops them if the sink fails
+            workers.shutdownNow();
+        }
+        log.info("Batch of {} routes finished in {} ms ({} distinct geocodes)",
+                routes.size(), (System.nanoTime() - start) / 1_000_000, geocodes.size());
+    }
+
+    // Only the parse worker and the results loop finish; a worker that stops on its own died, and
+    // the routes it held would never produce a result - fail the batch instead of waiting forever
+    private static void checkWorkers(List<Future<Void>> stages) {
+        for (int i = 1; i < stages.size(); i++) {
+            if (stages.get(i).isDone()) {
+                throw new IllegalStateException("Batch worker stopped unexpectedly", failure(stages.get(i)));
+            }
+        }
+        Future<Void> parse = stages.get(0);
+        if (parse.isDone() && failure(parse) != null) {
+            throw new IllegalStateException("Batch parse worker failed", failure(parse));
+        }
+    }
+
+    private static Throwable failure(Future<Void> stage) {
+        return stage.state() == Future.State.FAILED ? stage.exceptionNow() : null;
+    }
+
+    private Void parseStage(List<RouteRequest> routes, BlockingQueue<Job> next,
+                            BlockingQueue<BatchRouteResult> results) throws InterruptedException {
+        for (int i = 0; i < routes.size(); i++) {
+            Job job = new Job(i, routes.get(i));
+            try {
+                Optional<RouteResponse> previous =
+                        solveCache.getRouteForRequest(job.request.getLocations(), job.request.getRouteType());
+                if (previous.isPresent()) {
+                    results.put(BatchRouteResult.builder().index(i).route(previous.get()).build());
+                    continue;
+                }
+                job.locations = locationParserService.parseLocations(job.request.getLocations());
+            } catch (RuntimeException e) {
+                results.put(failed(job, e));
+                continue;
+            }
+            next.put(job);
+        }
+        return null;
+    }
+
+    private interface Step {
+        void run(Job job);
+    }
+
+    private Void stage(BlockingQueue<Job> in, BlockingQueue<Job> next, BlockingQueue<BatchRouteResult> results,
+                       Step step) throws InterruptedException {
+        while (true) {
+            Job job = in.take();
+            try {
+                step.run(job);
+            } catch (Throwable e) {
+                // anything that escapes here would kill the worker and leave the batch hanging
+                results.put(failed(job, e));
+                continue;
+            }
+            next.put(job);
+        }
+    }
+
+    private Void solveStage(BlockingQueue<Job> in, BlockingQueue<BatchRouteResult> results)
+            throws InterruptedException {
+        while (true) {
+            Job job = in.take();
+            BatchRouteResult result;
+            try {
+                // budget starts here, not when the batch did - time spent queued isn't solve time
+                SolveContext solveContext = SolveContext.withBudget(optimizerConfig.getRequestBudget());
+                RouteResponse route = routeSmartService.buildRoute(job.request, job.locations, job.matrix, solveContext);
+                result = BatchRouteResult.builder().index(job.index).route(route.toBuilder().build()).build();
+            } catch (Throwable e) {
+                result = failed(job, e);
+            }
+            results.put(result);
+        }
+    }
+
+    private static BatchRouteResult failed(Job job, Throwable e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        log.warn("Batch route {} failed: {}", job.index, message);
+        return BatchRouteResult.builder().index(job.index).error(message).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.routesmart.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.dto.BinaryMatrixHeader;
+import com.routesmart.dto.OptimizationRequest;
+import com.routesmart.model.DistanceMatrix;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes an {@link OptimizationRequest} in the optimizer's binary format
+ * (see optimizer/transport.py):
+ * <pre>
+ *   "RSM1" | u32 LE header length | JSON header | u32 LE matrix length | int32 LE distances
+ * </pre>
+ * The distances are row-major and optionally zlib-compressed.
+ */
+public final class BinaryMatrixWriter {
+
+    public static final String CONTENT_TYPE = "application/x-routesmart-matrix";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(CONTENT_TYPE);
+
+    private static final byte[] MAGIC = {'R', 'S', 'M', '1'};
+
+    private BinaryMatrixWriter() {
+    }
+
+    public static byte[] write(ObjectMapper objectMapper, OptimizationRequest request, boolean compress)
+            throws JsonProcessingException {
+        DistanceMatrix matrix = request.getDistanceMatrix();
+        int n = matrix.size();
+
+        byte[] header = objectMapper.writeValueAsBytes(BinaryMatrixHeader.builder()
+                .locations(request.getLocations())
+                .isRoundTrip(request.isRoundTrip())
+                .timeBudgetMs(request.getTimeBudgetMs())
+                .solutionLimit(request.getSolutionLimit())
+                .stagnationMs(request.getStagnationMs())
+                .size(n)
+                .compression(compress ? "zlib" : "none")
+                .build());
+
+        ByteBuffer raw = ByteBuffer.allocate(n * n * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asIntBuffer().put(matrix.distances(), 0, n * n);
+        byte[] payload = compress ? deflate(raw.array()) : raw.array();
+
+        return ByteBuffer.allocate(MAGIC.length + 4 + header.length + 4 + payload.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(MAGIC)
+                .putInt(header.length)
+                .put(header)
+                .putInt(payload.length)
+                .put(payload)
+                .array();
+    }
+
+    // Speed over ratio: road distances between nearby stops share most of their high bytes anyway
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, input.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+}
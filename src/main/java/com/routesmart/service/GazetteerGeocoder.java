@@ -0,0 +1,154 @@
+package com.routesmart.service;
+
+import com.routesmart.config.GazetteerConfig;
+import com.routesmart.geocode.Gazetteer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves well-known Zimbabwean place names (cities, suburbs, markets and their old names)
+ * from a bundled gazetteer, so the common stops never reach the Geocoding API.
+ */
+@Service
+@Slf4j
+public class GazetteerGeocoder implements MeterBinder {
+
+    private static final String COUNTRY = "zimbabwe";
+
+    private final GazetteerConfig config;
+    private final Gazetteer gazetteer;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+
+    @Autowired
+    public GazetteerGeocoder(GazetteerConfig config, ResourceLoader resourceLoader) {
+        this(config, config.isEnabled() ? load(resourceLoader.getResource(config.getPath())) : Gazetteer.builder().build());
+    }
+
+    GazetteerGeocoder(GazetteerConfig config, Gazetteer gazetteer) {
+        this.config = config;
+        this.gazetteer = gazetteer;
+    }
+
+    public record Stats(long lookups, long hits, double averageLookupMicros) {
+    }
+
+    /**
+     * Entry for {@code query}, exact or within the configured edits. If the whole query misses
+     * and it ends in a separate ", Zimbabwe" component, that is dropped and the rest tried - so
+     * "Harare, Zimbabwe" finds Harare while "Great Zimbabwe" stays itself.
+     */
+    public Optional<Gazetteer.Entry> lookup(String query) {
+        if (!config.isEnabled() || query == null || gazetteer.size() == 0) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        Optional<Gazetteer.Match> match = find(Gazetteer.normalize(query));
+        int comma = query.lastIndexOf(',');
+        if (match.isEmpty() && comma > 0 && Gazetteer.normalize(query.substring(comma + 1)).equals(COUNTRY)) {
+            match = find(Gazetteer.normalize(query.substring(0, comma)));
+        }
+
+        long nanos = System.nanoTime() - start;
+        lookups.increment();
+        lookupNanos.add(nanos);
+        match.ifPresent(m -> {
+            hits.increment();
+            log.debug("Gazetteer matched '{}' to '{}' ({} edits) in {} us",
+                    query, m.entry().name(), m.edits(), nanos / 1_000);
+        });
+        return match.map(Gazetteer.Match::entry);
+    }
+
+    private Optional<Gazetteer.Match> find(String key) {
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        int maxEdits = key.length() >= config.getMinFuzzyLength() ? config.getMaxEdits() : 0;
+        return gazetteer.findClosest(key, maxEdits);
+    }
+
+    public Stats stats() {
+        long count = lookups.sum();
+        return new Stats(count, hits.sum(), count == 0 ? 0 : lookupNanos.sum() / 1_000.0 / count);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("routesmart.gazetteer.lookups", this,
+                        g -> g.lookups.sum(), g -> g.lookupNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Offline gazetteer lookups")
+                .register(registry);
+        FunctionCounter.builder("routesmart.gazetteer.hits", this, g -> g.hits.sum())
+                .description("Gazetteer lookups answered without the Geocoding API")
+                .register(registry);
+    }
+
+    // ==================== LOADING ====================
+
+    private static Gazetteer load(Resource resource) {
+        long start = System.nanoTime();
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            Gazetteer gazetteer = parse(reader);
+            log.info("Loaded gazetteer {}: {} places, {} trie nodes, ~{} KB in {} ms",
+                    resource.getDescription(), gazetteer.size(), gazetteer.nodeCount(),
+                    gazetteer.footprintBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+            return gazetteer;
+        } catch (IOException e) {
+            // names still geocode through Google, just without the shortcut
+            log.warn("Could not read gazetteer {}: {}", resource.getDescription(), e.getMessage());
+            return Gazetteer.builder().build();
+        }
+    }
+
+    /**
+     * Reads {@code name,lat,lng[,alias|alias...]} lines; blank lines and lines starting with
+     * '#' are skipped. Names can't contain commas.
+     */
+    static Gazetteer parse(Reader reader) throws IOException {
+        Gazetteer.Builder builder = Gazetteer.builder();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", 4);
+            if (fields.length < 3) {
+                throw new IOException("Line " + lineNumber + ": expected name,lat,lng[,aliases]");
+            }
+            try {
+                List<String> aliases = fields.length == 4 && !fields[3].isBlank()
+                        ? Arrays.stream(fields[3].split("\\|")).map(String::strip).toList()
+                        : List.of();
+                builder.add(fields[0].strip(), Double.parseDouble(fields[1].strip()),
+                        Double.parseDouble(fields[2].strip()), aliases);
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": bad coordinates", e);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -3,35 +3,122 @@ package com.routesmart.service;
 import com.google.maps.DistanceMatrixApi;
 import com.google.maps.GeoApiContext;
 import com.google.maps.GeocodingApi;
-import com.google.maps.model.DistanceMatrix;
+import com.google.maps.OkHttpRequestHandler;
+import com.google.maps.PendingResult;
+import com.google.maps.errors.OverQueryLimitException;
+import com.google.maps.errors.UnknownErrorException;
 import com.google.maps.model.DistanceMatrixElement;
 import com.google.maps.model.DistanceMatrixRow;
 import com.google.maps.model.GeocodingResult;
 import com.google.maps.model.LatLng;
 import com.google.maps.model.TravelMode;
+import com.routesmart.cache.DistanceMatrixCache;
+import com.routesmart.cache.GeocodeCache;
+import com.routesmart.config.DistanceMatrixCacheConfig;
 import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.exception.BulkheadFullException;
+import com.routesmart.exception.GoogleMapsApiException;
+import com.routesmart.geocode.Gazetteer;
+import com.routesmart.matrix.DistanceMatrixTilePlanner;
+import com.routesmart.matrix.DistanceProvider;
+import com.routesmart.matrix.MatrixBlock;
+import com.routesmart.matrix.MissingCellPlanner;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.metrics.RouteSmartMetrics.GoogleApi;
+import com.routesmart.model.DistanceMatrix;
 import com.routesmart.model.Location;
+import com.routesmart.util.Bulkhead;
 import jakarta.annotation.PostConstruct;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dispatcher;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Slf4j
-public class GoogleMapsService {
+public class GoogleMapsService implements DistanceProvider, MeterBinder {
+
+    private static final TravelMode TRAVEL_MODE = TravelMode.DRIVING;
+    private static final int MAX_LOGGED_MATRIX_SIZE = 10;
 
     private final GoogleMapsConfig googleMapsConfig;
+    private final GeocodeCache geocodeCache;
+    private final GazetteerGeocoder gazetteerGeocoder;
+    private final DistanceMatrixCache distanceMatrixCache;
+    private final DistanceMatrixCacheConfig distanceMatrixCacheConfig;
+    private final RouteSmartMetrics metrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Bulkhead geocodingBulkhead;
+    private final Bulkhead matrixBulkhead;
+    private final Bucket queryRate;
+    private final Bucket elementRate;
     private GeoApiContext geoApiContext;
 
-    public GoogleMapsService(GoogleMapsConfig googleMapsConfig) {
+    public GoogleMapsService(GoogleMapsConfig googleMapsConfig,
+                             GeocodeCache geocodeCache,
+                             GazetteerGeocoder gazetteerGeocoder,
+                             DistanceMatrixCache distanceMatrixCache,
+                             DistanceMatrixCacheConfig distanceMatrixCacheConfig,
+                             RouteSmartMetrics metrics) {
         this.googleMapsConfig = googleMapsConfig;
+        this.geocodeCache = geocodeCache;
+        this.gazetteerGeocoder = gazetteerGeocoder;
+        this.distanceMatrixCache = distanceMatrixCache;
+        this.distanceMatrixCacheConfig = distanceMatrixCacheConfig;
+        this.metrics = metrics;
+        GoogleMapsConfig.Geocoding geocoding = googleMapsConfig.getGeocoding();
+        GoogleMapsConfig.Matrix matrix = googleMapsConfig.getDistanceMatrix();
+        this.geocodingBulkhead = new Bulkhead("geocoding", geocoding.getMaxConcurrency(), geocoding.getQueueTimeout());
+        this.matrixBulkhead = new Bulkhead("distance-matrix", matrix.getMaxConcurrency(), matrix.getQueueTimeout());
+        this.queryRate = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(googleMapsConfig.getQueriesPerSecond())
+                        .refillGreedy(googleMapsConfig.getQueriesPerSecond(), Duration.ofSeconds(1))
+                        .build())
+                .build();
+        // A tile larger than the bucket could never be admitted
+        int elementsPerSecond = Math.max(googleMapsConfig.getDistanceMatrix().getElementsPerSecond(),
+                googleMapsConfig.getDistanceMatrix().getMaxElements());
+        this.elementRate = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(elementsPerSecond)
+                        .refillGreedy(elementsPerSecond, Duration.ofSeconds(1))
+                        .build())
+                .build();
     }
 
     @PostConstruct
     public void init() {
-        this.geoApiContext = new GeoApiContext.Builder()
+        // Calls run on virtual threads, and the bulkheads decide how many - OkHttp's default of
+        // 5 per host would otherwise cap them. The client's own rate limiter sits on the
+        // dispatcher we replace, so queriesPerSecond is enforced in callGoogle instead.
+        Dispatcher dispatcher = new Dispatcher(httpExecutor);
+        int maxCalls = googleMapsConfig.getGeocoding().getMaxConcurrency()
+                + googleMapsConfig.getDistanceMatrix().getMaxConcurrency();
+        dispatcher.setMaxRequests(maxCalls);
+        dispatcher.setMaxRequestsPerHost(maxCalls);
+        OkHttpRequestHandler.Builder requestHandler = new OkHttpRequestHandler.Builder();
+        requestHandler.okHttpClientBuilder().dispatcher(dispatcher);
+        this.geoApiContext = new GeoApiContext.Builder(requestHandler)
                 .apiKey(googleMapsConfig.getApiKey())
                 .build();
         log.info("Google Maps API context initialized");
@@ -39,12 +126,35 @@ public class GoogleMapsService {
 
     @PreDestroy
     public void cleanup() {
+        executor.shutdownNow();
         if (geoApiContext != null) {
             geoApiContext.shutdown();
             log.info("Google Maps API context shutdown");
         }
+        httpExecutor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        geocodingBulkhead.bindTo(registry);
+        matrixBulkhead.bindTo(registry);
+    }
+
+    // One Google call: a slot in the API's bulkhead, then a query within the shared rate
+    private <T> T callGoogle(Bulkhead bulkhead, PendingResult<T> request) throws Exception {
+        return bulkhead.call(() -> {
+            queryRate.asBlocking().consume(1);
+            return request.await();
+        });
     }
 
+    /**
+     * Geocodes a single location in place. Locations that already have coordinates are
+     * reverse geocoded for a readable name; if that fails they keep the name they have.
+     * Names in the gazetteer are resolved locally, the rest go through the cache and the API.
+     *
+     * @throws GoogleMapsApiException if a location without coordinates can't be geocoded
+     */
     public void geocodeLocation(Location location) {
         if (location.getLatitude() != null && location.getLongitude() != null) {
             // Already has coordinates - do reverse geocoding to get address
@@ -52,34 +162,74 @@ public class GoogleMapsService {
             return;
         }
 
-        try {
-            GeocodingResult[] results = GeocodingApi.geocode(geoApiContext, location.getName()).await();
+        String query = location.getName();
+        Optional<Gazetteer.Entry> known = gazetteerGeocoder.lookup(query);
+        if (known.isPresent()) {
+            Gazetteer.Entry entry = known.get();
+            location.setLatitude(entry.latitude());
+            location.setLongitude(entry.longitude());
+            location.setName(entry.name() + ", Zimbabwe");
+            return;
+        }
 
-            if (results != null && results.length > 0) {
-                GeocodingResult result = results[0];
-                location.setLatitude(result.geometry.location.lat);
-                location.setLongitude(result.geometry.location.lng);
-                location.setName(result.formattedAddress);
-                log.info("Geocoded '{}' -> lat: {}, lng: {}",
-                        result.formattedAddress,
-                        result.geometry.location.lat,
-                        result.geometry.location.lng);
-            } else {
-                log.error("Geocoding failed for '{}': No results found", location.getName());
-            }
+        Optional<GeocodeCache.GeocodeEntry> cached = geocodeCache.getForward(query);
+        if (cached.isPresent()) {
+            GeocodeCache.GeocodeEntry entry = cached.get();
+            location.setLatitude(entry.latitude());
+            location.setLongitude(entry.longitude());
+            location.setName(entry.formattedAddress());
+            log.debug("Geocode cache hit for '{}'", query);
+            return;
+        }
+
+        GeocodingResult[] results;
+        try {
+            results = callGoogle(geocodingBulkhead, GeocodingApi.geocode(geoApiContext, query));
+            metrics.googleCall(GoogleApi.GEOCODE, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoogleMapsApiException("Geocoding interrupted for '" + query + "'", e);
+        } catch (BulkheadFullException e) {
+            throw new GoogleMapsApiException("Geocoding '" + query + "' not attempted: " + e.getMessage(),
+                    e.getErrorCode());
         } catch (Exception e) {
-            log.error("Error geocoding location '{}': {}", location.getName(), e.getMessage());
+            metrics.googleCall(GoogleApi.GEOCODE, false);
+            throw new GoogleMapsApiException("Error geocoding '" + query + "': " + e.getMessage(), e);
         }
+
+        if (results == null || results.length == 0) {
+            throw new GoogleMapsApiException("No results found for '" + query + "'", "ZERO_RESULTS");
+        }
+        GeocodingResult result = results[0];
+        location.setLatitude(result.geometry.location.lat);
+        location.setLongitude(result.geometry.location.lng);
+        location.setName(result.formattedAddress);
+        geocodeCache.putForward(query, result.geometry.location.lat,
+                result.geometry.location.lng, result.formattedAddress);
+        log.info("Geocoded '{}' -> lat: {}, lng: {}",
+                result.formattedAddress,
+                result.geometry.location.lat,
+                result.geometry.location.lng);
     }
 
     private void reverseGeocodeLocation(Location location) {
+        Optional<GeocodeCache.GeocodeEntry> cached =
+                geocodeCache.getReverse(location.getLatitude(), location.getLongitude());
+        if (cached.isPresent()) {
+            location.setName(cached.get().formattedAddress());
+            log.debug("Reverse geocode cache hit for ({}, {})", location.getLatitude(), location.getLongitude());
+            return;
+        }
+
         try {
             LatLng latLng = new LatLng(location.getLatitude(), location.getLongitude());
-            GeocodingResult[] results = GeocodingApi.reverseGeocode(geoApiContext, latLng).await();
+            GeocodingResult[] results = callGoogle(geocodingBulkhead, GeocodingApi.reverseGeocode(geoApiContext, latLng));
+            metrics.googleCall(GoogleApi.REVERSE_GEOCODE, true);
 
             if (results != null && results.length > 0) {
                 String formattedAddress = results[0].formattedAddress;
                 location.setName(formattedAddress);
+                geocodeCache.putReverse(location.getLatitude(), location.getLongitude(), formattedAddress);
                 log.info("Reverse geocoded ({}, {}) -> {}",
                         location.getLatitude(),
                         location.getLongitude(),
@@ -88,21 +238,137 @@ public class GoogleMapsService {
                 log.warn("Reverse geocoding failed for ({}, {}): No results",
                         location.getLatitude(), location.getLongitude());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (BulkheadFullException e) {
+            log.warn("Skipped reverse geocoding ({}, {}): {}",
+                    location.getLatitude(), location.getLongitude(), e.getMessage());
         } catch (Exception e) {
-            log.error("Error reverse geocoding ({}, {}): {}",
+            metrics.googleCall(GoogleApi.REVERSE_GEOCODE, false);
+            log.warn("Error reverse geocoding ({}, {}): {}",
                     location.getLatitude(), location.getLongitude(), e.getMessage());
         }
     }
 
+    /**
+     * Geocodes all locations concurrently, each call on its own virtual thread. At most
+     * {@code maxConcurrencyPerRequest} calls per invocation and {@code maxConcurrency} across
+     * the service (the geocoding bulkhead) are in flight. Locations are updated in place, so input order is kept.
+     *
+     * @throws GoogleMapsApiException naming every location that couldn't be geocoded
+     */
     public void geocodeLocations(List<Location> locations) {
+        if (locations.size() == 1) {
+            geocodeLocation(locations.get(0));
+            return;
+        }
+        geocodeLocations(locations, null);
+    }
+
+    /**
+     * As {@link #geocodeLocations(List)}, sharing lookups through {@code shared}: the first
+     * location with a given query (or coordinates) geocodes it, later ones with the same
+     * key - in this call or any other call given the same map - wait for and copy its result.
+     * Used by batches, so a depot that appears in every route is only geocoded once.
+     */
+    public void geocodeLocations(List<Location> locations, ConcurrentMap<String, CompletableFuture<Location>> shared) {
+        Semaphore requestPermits = new Semaphore(googleMapsConfig.getGeocoding().getMaxConcurrencyPerRequest());
+        List<Future<?>> futures = new ArrayList<>(locations.size());
         for (Location location : locations) {
+            futures.add(executor.submit(() -> {
+                CompletableFuture<Location> mine = null;
+                if (shared != null) {
+                    mine = new CompletableFuture<>();
+                    CompletableFuture<Location> first = shared.putIfAbsent(sharedKey(location), mine);
+                    if (first != null) {
+                        copyGeocode(awaitShared(first), location);
+                        return null;
+                    }
+                }
+                try {
+                    geocodeWithPermits(location, requestPermits);
+                } catch (Exception e) {
+                    // waiters must not hang on a lookup that will never finish
+                    if (mine != null) {
+                        mine.completeExceptionally(e);
+                    }
+                    throw e;
+                }
+                if (mine != null) {
+                    mine.complete(Location.builder()
+                            .name(location.getName())
+                            .latitude(location.getLatitude())
+                            .longitude(location.getLongitude())
+                            .build());
+                }
+                return null;
+            }));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new GoogleMapsApiException("Geocoding interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                log.error("Geocoding failed for location {}: {}", i + 1, cause.getMessage());
+                failures.add("location " + (i + 1) + ": " + cause.getMessage());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new GoogleMapsApiException("Could not geocode " + failures.size() + " of "
+                    + locations.size() + " locations (" + String.join("; ", failures) + ")",
+                    "GEOCODING_FAILED");
+        }
+    }
+
+    private void geocodeWithPermits(Location location, Semaphore requestPermits) throws InterruptedException {
+        requestPermits.acquire();
+        try {
             geocodeLocation(location);
+        } finally {
+            requestPermits.release();
+        }
+    }
+
+    private static String sharedKey(Location location) {
+        if (location.getLatitude() != null && location.getLongitude() != null) {
+            return "r:" + location.getLatitude() + "," + location.getLongitude();
         }
+        return GeocodeCache.forwardKey(location.getName());
     }
 
-    public int[][] getDistanceMatrix(List<Location> locations) {
+    private static Location awaitShared(CompletableFuture<Location> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void copyGeocode(Location from, Location to) {
+        to.setName(from.getName());
+        to.setLatitude(from.getLatitude());
+        to.setLongitude(from.getLongitude());
+    }
+
+    /**
+     * Driving distances in meters between all locations. Pairs already in the
+     * {@link DistanceMatrixCache} are reused; only the missing ones are requested,
+     * grouped into as few origin x destination blocks as the planner can manage.
+     */
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<Location> locations) {
         int size = locations.size();
-        int[][] matrix = new int[size][size];
+        DistanceMatrix matrix = new DistanceMatrix(size);
 
         // Validate all locations have coordinates
         for (Location loc : locations) {
@@ -112,49 +378,193 @@ public class GoogleMapsService {
             }
         }
 
-        try {
-            // Build LatLng array
-            LatLng[] latLngs = new LatLng[size];
-            for (int i = 0; i < size; i++) {
-                Location loc = locations.get(i);
-                latLngs[i] = new LatLng(loc.getLatitude(), loc.getLongitude());
+        // Build LatLng array and cache keys
+        LatLng[] latLngs = new LatLng[size];
+        long[] points = new long[size];
+        for (int i = 0; i < size; i++) {
+            Location loc = locations.get(i);
+            latLngs[i] = new LatLng(loc.getLatitude(), loc.getLongitude());
+            points[i] = distanceMatrixCache.snap(loc.getLatitude(), loc.getLongitude());
+        }
+
+        boolean[][] missing = new boolean[size][size];
+        int missingCells = distanceMatrixCache.fill(points, TRAVEL_MODE.name(), matrix, missing);
+
+        if (missingCells > 0) {
+            GoogleMapsConfig.Matrix limits = googleMapsConfig.getDistanceMatrix();
+            List<MatrixBlock> tiles = new ArrayList<>();
+            for (MatrixBlock block : MissingCellPlanner.plan(missing, distanceMatrixCacheConfig.getMaxFetchBlocks())) {
+                tiles.addAll(DistanceMatrixTilePlanner.tile(block,
+                        limits.getMaxOrigins(), limits.getMaxDestinations(), limits.getMaxElements()));
             }
+            log.info("Distance matrix: {} of {} cells cached, fetching {} in {} request(s) ({} elements)",
+                    size * (size - 1) - missingCells, size * (size - 1), missingCells, tiles.size(),
+                    tiles.stream().mapToInt(MatrixBlock::elements).sum());
+            fetchTiles(latLngs, points, tiles, matrix);
+        } else {
+            log.info("Distance matrix: all {} cells cached", size * (size - 1));
+        }
 
-            // Call Distance Matrix API
-            DistanceMatrix result = DistanceMatrixApi.newRequest(geoApiContext)
-                    .origins(latLngs)
-                    .destinations(latLngs)
-                    .mode(TravelMode.DRIVING)
-                    .await();
-
-            // Parse results
-            for (int i = 0; i < result.rows.length; i++) {
-                DistanceMatrixRow row = result.rows[i];
-                for (int j = 0; j < row.elements.length; j++) {
-                    DistanceMatrixElement element = row.elements[j];
-                    if (element.status.name().equals("OK")) {
-                        matrix[i][j] = (int) element.distance.inMeters;
-                    } else {
-                        matrix[i][j] = Integer.MAX_VALUE;
-                    }
+        logDistanceMatrix(locations, matrix);
+        return matrix;
+    }
+
+    /**
+     * Fetches tiles in parallel on virtual threads, at most {@code maxParallelRequests} at a
+     * time and within the shared element rate. Tiles cover disjoint cells, so each one
+     * writes straight into the matrix (whose unreachable mask is safe for that).
+     */
+    private void fetchTiles(LatLng[] latLngs, long[] points, List<MatrixBlock> tiles,
+                            DistanceMatrix matrix) {
+        if (tiles.size() == 1) {
+            fetchTileWithRetry(latLngs, points, tiles.get(0), matrix);
+            return;
+        }
+
+        Semaphore requestPermits = new Semaphore(googleMapsConfig.getDistanceMatrix().getMaxParallelRequests());
+        List<Future<?>> futures = new ArrayList<>(tiles.size());
+        for (MatrixBlock tile : tiles) {
+            futures.add(executor.submit(() -> {
+                requestPermits.acquire();
+                try {
+                    fetchTileWithRetry(latLngs, points, tile, matrix);
+                } finally {
+                    requestPermits.release();
+                }
+                return null;
+            }));
+        }
+
+        int failed = 0;
+        GoogleMapsApiException firstFailure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new GoogleMapsApiException("Distance matrix request interrupted", e);
+            } catch (ExecutionException e) {
+                failed++;
+                if (firstFailure == null) {
+                    firstFailure = e.getCause() instanceof GoogleMapsApiException apiException
+                            ? apiException
+                            : new GoogleMapsApiException(e.getCause().getMessage(), e.getCause());
                 }
             }
+        }
+        if (firstFailure != null) {
+            throw new GoogleMapsApiException("Distance matrix failed for " + failed + " of " + tiles.size()
+                    + " requests: " + firstFailure.getMessage(), "DISTANCE_MATRIX_FAILED");
+        }
+    }
+
+    private void fetchTileWithRetry(LatLng[] latLngs, long[] points, MatrixBlock tile,
+                                    DistanceMatrix matrix) {
+        GoogleMapsConfig.Matrix limits = googleMapsConfig.getDistanceMatrix();
+        long backoffMs = limits.getRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                elementRate.asBlocking().consume(tile.elements());
+                fetchTile(latLngs, points, tile, matrix);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GoogleMapsApiException("Distance matrix request interrupted", e);
+            } catch (BulkheadFullException e) {
+                throw new GoogleMapsApiException("Distance matrix request not attempted: " + e.getMessage(),
+                        e.getErrorCode());
+            } catch (Exception e) {
+                if (attempt >= limits.getMaxAttempts() || !isRetryable(e)) {
+                    throw new GoogleMapsApiException("Error getting distance matrix: " + e.getMessage(), e);
+                }
+                log.warn("Distance matrix request for {} elements failed (attempt {}): {}",
+                        tile.elements(), attempt, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new GoogleMapsApiException("Distance matrix request interrupted", ie);
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    // Rate limiting, server hiccups and network errors are worth another go; bad requests aren't
+    private static boolean isRetryable(Exception e) {
+        return e instanceof OverQueryLimitException
+                || e instanceof UnknownErrorException
+                || e instanceof IOException;
+    }
 
-            logDistanceMatrix(locations, matrix);
+    private void fetchTile(LatLng[] latLngs, long[] points, MatrixBlock tile,
+                           DistanceMatrix matrix) throws Exception {
+        int[] origins = tile.origins();
+        int[] destinations = tile.destinations();
+        LatLng[] originLatLngs = new LatLng[origins.length];
+        for (int a = 0; a < origins.length; a++) {
+            originLatLngs[a] = latLngs[origins[a]];
+        }
+        LatLng[] destinationLatLngs = new LatLng[destinations.length];
+        for (int b = 0; b < destinations.length; b++) {
+            destinationLatLngs[b] = latLngs[destinations[b]];
+        }
 
+        // Call Distance Matrix API
+        com.google.maps.model.DistanceMatrix result;
+        try {
+            result = callGoogle(matrixBulkhead, DistanceMatrixApi.newRequest(geoApiContext)
+                    .origins(originLatLngs)
+                    .destinations(destinationLatLngs)
+                    .mode(TRAVEL_MODE));
+        } catch (BulkheadFullException | InterruptedException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Error getting distance matrix: {}", e.getMessage(), e);
+            metrics.googleCall(GoogleApi.DISTANCE_MATRIX, false);
+            throw e;
         }
+        metrics.googleCall(GoogleApi.DISTANCE_MATRIX, true);
+        metrics.googleElements(tile.elements());
+        copyTile(result, points, tile, matrix);
+    }
 
-        return matrix;
+    // Parse a tile's results into the full matrix
+    void copyTile(com.google.maps.model.DistanceMatrix result, long[] points, MatrixBlock tile,
+                  DistanceMatrix matrix) {
+        int[] origins = tile.origins();
+        int[] destinations = tile.destinations();
+        for (int a = 0; a < result.rows.length; a++) {
+            DistanceMatrixRow row = result.rows[a];
+            int i = origins[a];
+            for (int b = 0; b < row.elements.length; b++) {
+                int j = destinations[b];
+                if (i == j) {
+                    continue;
+                }
+                DistanceMatrixElement element = row.elements[b];
+                if (element.status.name().equals("OK")) {
+                    int meters = (int) element.distance.inMeters;
+                    int seconds = (int) element.duration.inSeconds;
+                    matrix.set(i, j, meters, seconds);
+                    distanceMatrixCache.put(points[i], points[j], TRAVEL_MODE.name(), meters, seconds);
+                } else {
+                    matrix.setUnreachable(i, j);
+                }
+            }
+        }
     }
 
-    private void logDistanceMatrix(List<Location> locations, int[][] matrix) {
+    private void logDistanceMatrix(List<Location> locations, DistanceMatrix matrix) {
+        // Only worth reading for hand-entered routes
+        if (locations.size() > MAX_LOGGED_MATRIX_SIZE) {
+            return;
+        }
         log.info("=== Distance Matrix (km) ===");
         for (int i = 0; i < locations.size(); i++) {
             for (int j = 0; j < locations.size(); j++) {
                 if (i != j) {
-                    double km = matrix[i][j] / 1000.0;
+                    double km = matrix.distance(i, j) / 1000.0;
                     log.info("{} -> {}: {} km",
                             locations.get(i).getName(),
                             locations.get(j).getName(),
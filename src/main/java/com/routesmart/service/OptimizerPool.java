@@ -0,0 +1,191 @@
+package com.routesmart.service;
+
+import com.routesmart.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The optimizer processes behind {@code optimizer.urls}. Each solve goes to the less busy of
+ * two randomly picked instances (power of two choices on requests in flight), which spreads
+ * load nearly as well as always taking the least busy one without every caller piling onto
+ * the same instance.
+ * <p>
+ * Every instance has its own {@link CircuitBreaker}: an instance whose calls keep failing is
+ * ejected until its trial calls succeed again, or until a good {@code /health} probe lets
+ * them through early.
+ */
+class OptimizerPool implements MeterBinder {
+
+    private final List<Instance> instances;
+    private final boolean breakerEnabled;
+
+    OptimizerPool(List<String> urls, CircuitBreaker.Settings settings, boolean breakerEnabled) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one optimizer url is required");
+        }
+        List<Instance> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            list.add(new Instance(url, new CircuitBreaker(url, settings)));
+        }
+        this.instances = List.copyOf(list);
+        this.breakerEnabled = breakerEnabled;
+    }
+
+    List<Instance> instances() {
+        return instances;
+    }
+
+    /**
+     * Whether some instance would take a call now.
+     */
+    boolean isAvailable() {
+        if (!breakerEnabled) {
+            return true;
+        }
+        for (Instance instance : instances) {
+            if (instance.circuitBreaker.isCallPermitted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks an instance for one call, skipping those in {@code exclude}, or returns null when
+     * none is admitted. The call must be finished with {@link Instance#succeeded} or
+     * {@link Instance#failed}.
+     */
+    Instance acquire(Collection<Instance> exclude) {
+        List<Instance> candidates = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            if (!exclude.contains(instance) && (!breakerEnabled || instance.circuitBreaker.isCallPermitted())) {
+                candidates.add(instance);
+            }
+        }
+        while (!candidates.isEmpty()) {
+            Instance chosen = choose(candidates);
+            // another caller may have taken the last half-open trial slot since the check above
+            if (!breakerEnabled || chosen.circuitBreaker.tryAcquire()) {
+                chosen.inFlight.incrementAndGet();
+                return chosen;
+            }
+            candidates.remove(chosen);
+        }
+        return null;
+    }
+
+    private static Instance choose(List<Instance> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = candidates.get(first);
+        Instance b = candidates.get(second);
+        return b.inFlight.get() < a.inFlight.get() ? b : a;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Instance instance : instances) {
+            instance.bindTo(registry);
+        }
+    }
+
+    /**
+     * One optimizer process, with what it last told us about itself.
+     */
+    final class Instance implements MeterBinder {
+
+        private final String url;
+        private final CircuitBreaker circuitBreaker;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile Timer latency;
+
+        // What this instance's /health last said about the binary format, and when we asked
+        volatile boolean binarySupported;
+        volatile long formatsCheckedAtNanos;
+        volatile boolean formatsChecked;
+
+        private Instance(String url, CircuitBreaker circuitBreaker) {
+            this.url = url;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        String url() {
+            return url;
+        }
+
+        CircuitBreaker circuitBreaker() {
+            return circuitBreaker;
+        }
+
+        int inFlight() {
+            return inFlight.get();
+        }
+
+        void succeeded(Duration elapsed) {
+            done(elapsed);
+            if (breakerEnabled) {
+                circuitBreaker.onSuccess(elapsed);
+            }
+        }
+
+        void failed(Duration elapsed) {
+            done(elapsed);
+            if (breakerEnabled) {
+                circuitBreaker.onFailure();
+            }
+        }
+
+        // Finished without telling us anything about the instance's health
+        void ignored(Duration elapsed) {
+            done(elapsed);
+            if (breakerEnabled) {
+                circuitBreaker.onIgnored();
+            }
+        }
+
+        void probed(boolean healthy) {
+            if (breakerEnabled) {
+                circuitBreaker.onProbe(healthy);
+            }
+        }
+
+        private void done(Duration elapsed) {
+            inFlight.decrementAndGet();
+            Timer timer = latency;
+            if (timer != null) {
+                timer.record(elapsed.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void bindTo(MeterRegistry registry) {
+            Gauge.builder("routesmart.optimizer.instance.active", inFlight, AtomicInteger::get)
+                    .description("Solves in flight on each optimizer instance")
+                    .tag("instance", url)
+                    .register(registry);
+            latency = Timer.builder("routesmart.optimizer.instance.latency")
+                    .description("Optimizer call latency per instance, failures included")
+                    .tag("instance", url)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            circuitBreaker.bindTo(registry);
+        }
+    }
+}
@@ -1,70 +1,294 @@
 package com.routesmart.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.routesmart.config.OptimizerConfig;
 import com.routesmart.dto.OptimizationRequest;
 import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.exception.BulkheadFullException;
+import com.routesmart.exception.OptimizerServiceException;
+import com.routesmart.model.DistanceMatrix;
 import com.routesmart.model.Location;
+import com.routesmart.optimizer.OptimizerEngine;
+import com.routesmart.optimizer.SolveContext;
+import com.routesmart.util.Bulkhead;
+import com.routesmart.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Slf4j
-public class OptimizerService {
+public class OptimizerService implements OptimizerEngine, MeterBinder {
 
     private final OptimizerConfig optimizerConfig;
     private final RestTemplate restTemplate;
+    private final Bulkhead bulkhead;
+    private final OptimizerPool pool;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // Main constructor for production
-    public OptimizerService(OptimizerConfig optimizerConfig) {
-        this(optimizerConfig, new RestTemplate());
-    }
-
-    // Constructor for testing (allows injecting mock RestTemplate)
-    public OptimizerService(OptimizerConfig optimizerConfig, RestTemplate restTemplate) {
+    // Production gets the pooled client from OptimizerClientConfig; tests pass a mock
+    @Autowired
+    public OptimizerService(OptimizerConfig optimizerConfig,
+                            @Qualifier("optimizerRestTemplate") RestTemplate restTemplate) {
         this.optimizerConfig = optimizerConfig;
         this.restTemplate = restTemplate;
+        List<String> urls = optimizerConfig.endpoints();
+        this.bulkhead = new Bulkhead("optimizer", optimizerConfig.getMaxConcurrency() * urls.size(),
+                optimizerConfig.getQueueTimeout());
+        OptimizerConfig.CircuitBreaker breaker = optimizerConfig.getCircuitBreaker();
+        this.pool = new OptimizerPool(urls, new CircuitBreaker.Settings(
+                breaker.getWindowSize(), breaker.getMinimumCalls(), breaker.getFailureRatePercent(),
+                breaker.getSlowCallDuration(), breaker.getOpenDuration(), breaker.getHalfOpenCalls(),
+                breaker.getProbeFailures()),
+                breaker.isEnabled());
+        log.info("Optimizer instances: {}", urls);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bulkhead.bindTo(registry);
+        pool.bindTo(registry);
+    }
+
+    @Override
+    public EngineType type() {
+        return EngineType.REMOTE;
+    }
+
+    // False while every instance is ejected, so the router solves in-process instead of waiting on us
+    @Override
+    public boolean isAvailable() {
+        return pool.isAvailable();
+    }
+
+    List<OptimizerPool.Instance> instances() {
+        return pool.instances();
+    }
+
+    @Override
+    public OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                       RouteType routeType, SolveContext context) {
+        int timeBudgetMs = timeBudgetMs(locations.size(), context.remaining());
+        return optimize(locations, distanceMatrix, routeType == RouteType.ROUND_TRIP, timeBudgetMs);
     }
 
     public OptimizationResult optimize(List<Location> locations, int[][] distanceMatrix, boolean isRoundTrip) {
-        log.info("Calling optimizer service for {} locations", locations.size());
+        return optimize(locations, DistanceMatrix.ofDistances(distanceMatrix), isRoundTrip,
+                defaultTimeBudgetMs(locations.size()));
+    }
 
-        String url = optimizerConfig.getUrl() + "/optimize";
+    private OptimizationResult optimize(List<Location> locations, DistanceMatrix distanceMatrix,
+                                        boolean isRoundTrip, int timeBudgetMs) {
+        log.info("Calling optimizer service for {} locations ({} ms search budget)", locations.size(), timeBudgetMs);
+        OptimizerConfig.Search search = optimizerConfig.getSearch();
 
         OptimizationRequest request = OptimizationRequest.builder()
                 .locations(locations)
                 .distanceMatrix(distanceMatrix)
                 .isRoundTrip(isRoundTrip)
+                .timeBudgetMs(timeBudgetMs)
+                .solutionLimit(search.getSolutionLimit())
+                .stagnationMs(search.getStagnation() != null ? (int) search.getStagnation().toMillis() : null)
                 .build();
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<OptimizationRequest> entity = new HttpEntity<>(request, headers);
+        if (!pool.isAvailable()) {
+            throw new OptimizerServiceException("All optimizer instances are ejected", true);
+        }
 
         try {
-            OptimizationResult result = restTemplate.postForObject(url, entity, OptimizationResult.class);
-            log.info("Optimization complete: {} km total distance", result.getTotalDistanceKm());
+            OptimizationResult result = bulkhead.call(() -> call(request, locations.size()));
+            if (result.getSearchStats() != null) {
+                log.info("Optimization complete: {} km total distance, searched {} ms (converged: {})",
+                        result.getTotalDistanceKm(), result.getSearchStats().getElapsedMs(),
+                        result.getSearchStats().isConverged());
+            } else {
+                log.info("Optimization complete: {} km total distance", result.getTotalDistanceKm());
+            }
             return result;
+        } catch (BulkheadFullException | OptimizerServiceException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error calling optimizer service: {}", e.getMessage());
             throw new RuntimeException("Failed to optimize route: " + e.getMessage(), e);
         }
     }
 
-    public boolean isHealthy() {
+    // Sends the solve to a balanced pick of the instances. A refused connection means the solve
+    // never started, so it is retried once on each other instance before giving up
+    private OptimizationResult call(OptimizationRequest request, int numLocations) throws Exception {
+        List<OptimizerPool.Instance> tried = new ArrayList<>();
+        while (true) {
+            OptimizerPool.Instance instance = pool.acquire(tried);
+            if (instance == null) {
+                throw new OptimizerServiceException("No optimizer instance available", true);
+            }
+            long start = System.nanoTime();
+            try {
+                OptimizationResult result = post(instance, request, numLocations);
+                instance.succeeded(Duration.ofNanos(System.nanoTime() - start));
+                return result;
+            } catch (Exception e) {
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                if (!isInstanceFault(e)) {
+                    // e.g. a 4xx: the instance is fine, it just didn't like this request
+                    instance.ignored(elapsed);
+                    throw e;
+                }
+                instance.failed(elapsed);
+                tried.add(instance);
+                if (!(e instanceof ResourceAccessException && e.getCause() instanceof ConnectException)
+                        || tried.size() == pool.instances().size()) {
+                    throw e;
+                }
+                log.warn("Optimizer {} refused the connection, trying another instance", instance.url());
+            }
+        }
+    }
+
+    // Only 5xx answers and I/O errors (refused, reset, timed out) count against an instance
+    private static boolean isInstanceFault(Exception e) {
+        return e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+    }
+
+    private OptimizationResult post(OptimizerPool.Instance instance, OptimizationRequest request,
+                                    int numLocations) throws Exception {
+        String url = instance.url() + "/optimize";
+        OptimizationResult result = null;
+        if (useBinary(instance, numLocations)) {
+            try {
+                result = restTemplate.postForObject(url, binaryEntity(request), OptimizationResult.class);
+            } catch (HttpClientErrorException.UnsupportedMediaType e) {
+                // Optimizer was rolled back or replaced since it advertised the format
+                log.warn("Optimizer {} rejected binary matrix, falling back to JSON", instance.url());
+                instance.binarySupported = false;
+            }
+        }
+        if (result == null) {
+            result = restTemplate.postForObject(url, jsonEntity(request), OptimizationResult.class);
+        }
+        return result;
+    }
+
+    private HttpEntity<OptimizationRequest> jsonEntity(OptimizationRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(request, headers);
+    }
+
+    private HttpEntity<byte[]> binaryEntity(OptimizationRequest request) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(BinaryMatrixWriter.MEDIA_TYPE);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        byte[] body = BinaryMatrixWriter.write(objectMapper, request, optimizerConfig.getTransport().isCompress());
+        return new HttpEntity<>(body, headers);
+    }
+
+    boolean useBinary(OptimizerPool.Instance instance, int numLocations) {
+        OptimizerConfig.Transport transport = optimizerConfig.getTransport();
+        return switch (transport.getMode()) {
+            case JSON -> false;
+            case BINARY -> true;
+            case AUTO -> numLocations >= transport.getBinaryMinLocations() && optimizerSupportsBinary(instance);
+        };
+    }
+
+    // Asks the instance's /health for its formats, at most once per formatCheckInterval. Asked per
+    // instance, since a rolling upgrade leaves old and new optimizers side by side for a while
+    private boolean optimizerSupportsBinary(OptimizerPool.Instance instance) {
+        long now = System.nanoTime();
+        if (instance.formatsChecked
+                && now - instance.formatsCheckedAtNanos < optimizerConfig.getTransport().getFormatCheckInterval().toNanos()) {
+            return instance.binarySupported;
+        }
+        boolean supported = false;
         try {
-            String url = optimizerConfig.getUrl() + "/health";
-            restTemplate.getForObject(url, String.class);
-            return true;
+            String health = restTemplate.getForObject(instance.url() + "/health", String.class);
+            if (health != null) {
+                for (JsonNode format : objectMapper.readTree(health).path("formats")) {
+                    supported |= BinaryMatrixWriter.CONTENT_TYPE.equals(format.asText());
+                }
+            }
         } catch (Exception e) {
-            log.warn("Optimizer service health check failed: {}", e.getMessage());
-            return false;
+            log.warn("Could not read optimizer formats from {}: {}", instance.url(), e.getMessage());
+        }
+        instance.binarySupported = supported;
+        instance.formatsCheckedAtNanos = now;
+        instance.formatsChecked = true;
+        log.info("Optimizer {} binary matrix format supported: {}", instance.url(), supported);
+        return supported;
+    }
+
+    // Size-based search time, same rule as the optimizer's own default
+    public int defaultTimeBudgetMs(int numLocations) {
+        OptimizerConfig.Search search = optimizerConfig.getSearch();
+        long ms = search.getTimePerLocation().toMillis() * numLocations;
+        ms = Math.max(search.getMinTime().toMillis(), Math.min(search.getMaxTime().toMillis(), ms));
+        return (int) ms;
+    }
+
+    // Size-based default, shortened to fit what is left of the request budget
+    public int timeBudgetMs(int numLocations, Duration remaining) {
+        OptimizerConfig.Search search = optimizerConfig.getSearch();
+        long available = remaining.minus(search.getNetworkReserve()).toMillis();
+        long ms = Math.min(defaultTimeBudgetMs(numLocations), available);
+        return (int) Math.max(search.getMinTime().toMillis(), ms);
+    }
+
+    // Healthy when at least one instance answers
+    public boolean isHealthy() {
+        boolean healthy = false;
+        for (OptimizerPool.Instance instance : pool.instances()) {
+            try {
+                ping(instance);
+                healthy = true;
+            } catch (Exception e) {
+                log.warn("Optimizer {} health check failed: {}", instance.url(), e.getMessage());
+            }
+        }
+        return healthy;
+    }
+
+    private void ping(OptimizerPool.Instance instance) {
+        restTemplate.getForObject(instance.url() + "/health", String.class);
+    }
+
+    // Feeds each instance's circuit breaker between requests, so an outage is noticed before a
+    // user hits it and an ejected instance is re-admitted without waiting out the whole open period
+    @Scheduled(fixedDelayString = "${optimizer.circuit-breaker.probe-interval:10s}")
+    public void probeHealth() {
+        if (!optimizerConfig.getCircuitBreaker().isEnabled() || !optimizerConfig.getRouting().isRemoteEnabled()) {
+            return;
+        }
+        for (OptimizerPool.Instance instance : pool.instances()) {
+            boolean healthy;
+            try {
+                ping(instance);
+                healthy = true;
+            } catch (Exception e) {
+                // the breaker logs when this changes its state, no need to repeat it every interval
+                log.debug("Optimizer {} health probe failed: {}", instance.url(), e.getMessage());
+                healthy = false;
+            }
+            instance.probed(healthy);
         }
     }
 }
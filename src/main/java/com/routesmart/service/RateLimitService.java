@@ -1,48 +1,177 @@
 package com.routesmart.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.routesmart.config.RateLimitConfig;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.ratelimit.BucketStateStore;
+import com.routesmart.ratelimit.StoreBackedProxyManager;
+import com.routesmart.util.ClientAddress;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HexFormat;
+import java.util.function.Function;
 
+/**
+ * Per-client daily request limit. Buckets live in a size-bounded cache keyed by the packed
+ * client address, and are dropped once idle for a whole refill period - by then they are full
+ * again, so a new bucket behaves the same. If more than {@code maxClients} are active, the
+ * least frequently seen ones are evicted first (and start over with a full bucket).
+ * <p>
+ * In distributed mode the bucket state lives in the shared {@link BucketStateStore}, so all
+ * instances (and restarts) draw from one quota. The local cache then only holds proxies to
+ * it, each allowed a few unsynced tokens so most calls skip the round trip to the store.
+ */
 @Service
 @Slf4j
-public class RateLimitService {
+public class RateLimitService implements MeterBinder {
 
-    private final Map<String, Bucket> buckets;
+    private static final Duration REFILL_PERIOD = Duration.ofDays(1);
+
+    private final Cache<Object, Bucket> buckets;
     private final RateLimitConfig rateLimitConfig;
+    private final RouteSmartMetrics metrics;
+    private final RemoteBucketBuilder<String> remoteBuckets;
+    private final Function<Object, Bucket> newBucket = this::createBucket;
+
+    @Autowired
+    public RateLimitService(RateLimitConfig rateLimitConfig, RouteSmartMetrics metrics, BucketStateStore store) {
+        this(rateLimitConfig, metrics, store, Ticker.systemTicker());
+    }
+
+    // Local buckets only
+    public RateLimitService(RateLimitConfig rateLimitConfig, RouteSmartMetrics metrics) {
+        this(rateLimitConfig, metrics, null, Ticker.systemTicker());
+    }
+
+    RateLimitService(RateLimitConfig rateLimitConfig, RouteSmartMetrics metrics, Ticker ticker) {
+        this(rateLimitConfig, metrics, null, ticker);
+    }
 
-    public RateLimitService(RateLimitConfig rateLimitConfig) {
+    RateLimitService(RateLimitConfig rateLimitConfig, RouteSmartMetrics metrics, BucketStateStore store,
+                     Ticker ticker) {
         this.rateLimitConfig = rateLimitConfig;
-        this.buckets = new ConcurrentHashMap<>();
+        this.metrics = metrics;
+        RateLimitConfig.Distributed distributed = rateLimitConfig.getDistributed();
+        this.remoteBuckets = distributed.isEnabled() && store != null ? remoteBuckets(store, distributed) : null;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitConfig.getMaxClients())
+                .expireAfterAccess(remoteBuckets != null ? distributed.getNearCacheIdle() : REFILL_PERIOD)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        if (remoteBuckets != null) {
+            log.info("Rate limits shared through {} ({} unsynced tokens per instance)",
+                    store.getClass().getSimpleName(), distributed.getMaxUnsyncedTokens());
+        }
+    }
+
+    private static RemoteBucketBuilder<String> remoteBuckets(BucketStateStore store,
+                                                             RateLimitConfig.Distributed distributed) {
+        // stored state expires once the bucket would be full again, like the local idle expiry
+        ProxyManager<String> proxyManager = new StoreBackedProxyManager(store, ClientSideConfig.getDefault()
+                .withExpirationAfterWriteStrategy(
+                        ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ZERO)));
+        RemoteBucketBuilder<String> builder = proxyManager.builder();
+        if (distributed.getMaxUnsyncedTokens() > 0) {
+            builder = builder.withOptimization(Optimizations.delaying(
+                    new DelayParameters(distributed.getMaxUnsyncedTokens(), distributed.getMaxUnsyncedTime())));
+        }
+        return builder;
     }
 
     public boolean tryConsume(String clientIp) {
-        Bucket bucket = buckets.computeIfAbsent(clientIp, this::createBucket);
-        boolean consumed = bucket.tryConsume(1);
-        log.debug("Rate limit check for IP {}: {}", clientIp, consumed ? "allowed" : "blocked");
+        return tryConsume(clientIp, 1);
+    }
+
+    /**
+     * Takes {@code requests} from the client's quota all at once, or nothing if it can't pay
+     * for all of them (a batch counts one request per route).
+     */
+    public boolean tryConsume(String clientIp, int requests) {
+        Bucket bucket = buckets.get(key(clientIp), newBucket);
+        boolean consumed = bucket.tryConsume(requests);
+        if (!consumed) {
+            metrics.rateLimitRejected();
+        }
+        log.debug("Rate limit check for IP {} ({} requests): {}", clientIp, requests, consumed ? "allowed" : "blocked");
         return consumed;
     }
 
     public int getRemainingRequests(String clientIp) {
-        Bucket bucket = buckets.get(clientIp);
+        // quietly, so checking doesn't keep an idle bucket alive
+        Object key = key(clientIp);
+        Bucket bucket = buckets.policy().getIfPresentQuietly(key);
         if (bucket == null) {
-            return rateLimitConfig.getRequestsPerDay();
+            if (remoteBuckets == null) {
+                return rateLimitConfig.getRequestsPerDay();
+            }
+            // another instance may have used part of it; look without caching the proxy
+            bucket = createBucket(key);
         }
         return (int) bucket.getAvailableTokens();
     }
 
-    private Bucket createBucket(String clientIp) {
-        Bandwidth limit = Bandwidth.builder()
+    public long trackedClients() {
+        return buckets.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, buckets, "rate-limit");
+    }
+
+    // Eviction runs asynchronously; tests call this to settle it
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+
+    // Packed address when it's an IP literal; anything else (a junk X-Forwarded-For) as is
+    private Object key(String clientIp) {
+        ClientAddress address = ClientAddress.parse(clientIp, rateLimitConfig.getIpv6PrefixLength());
+        return address != null ? address : String.valueOf(clientIp);
+    }
+
+    private Bucket createBucket(Object key) {
+        log.debug("Created new rate limit bucket ({} requests/day)", rateLimitConfig.getRequestsPerDay());
+        if (remoteBuckets != null) {
+            return remoteBuckets.build(storeKey(key), this::bucketConfiguration);
+        }
+        return Bucket.builder().addLimit(dailyLimit()).build();
+    }
+
+    private BucketConfiguration bucketConfiguration() {
+        return BucketConfiguration.builder().addLimit(dailyLimit()).build();
+    }
+
+    private Bandwidth dailyLimit() {
+        return Bandwidth.builder()
                 .capacity(rateLimitConfig.getRequestsPerDay())
-                .refillIntervally(rateLimitConfig.getRequestsPerDay(), Duration.ofDays(1))
+                .refillIntervally(rateLimitConfig.getRequestsPerDay(), REFILL_PERIOD)
                 .build();
-        log.info("Created new rate limit bucket for IP: {} ({} requests/day)", clientIp, rateLimitConfig.getRequestsPerDay());
-        return Bucket.builder().addLimit(limit).build();
+    }
+
+    // Same client, same key on every instance however its address was written
+    static String storeKey(Object key) {
+        if (key instanceof ClientAddress address) {
+            return "rl:" + HexFormat.of().toHexDigits(address.high()) + HexFormat.of().toHexDigits(address.low());
+        }
+        return "rl:s:" + key;
     }
 }
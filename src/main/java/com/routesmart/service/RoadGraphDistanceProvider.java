@@ -0,0 +1,261 @@
+package com.routesmart.service;
+
+import com.routesmart.config.RoadGraphConfig;
+import com.routesmart.matrix.DistanceProvider;
+import com.routesmart.matrix.RoadGraph;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Distance matrices from an offline {@link RoadGraph} instead of the Distance Matrix API.
+ * Replaces {@link GoogleMapsService} as the {@link DistanceProvider} when
+ * {@code road-graph.enabled} is set.
+ * <p>
+ * Each location is snapped to its nearest road node; the leg between them is costed as a
+ * straight line at {@code accessSpeedKmh}. Then one Dijkstra search on travel time runs per
+ * origin, in parallel, each stopping as soon as every destination node is settled. Distances
+ * are the lengths of those fastest paths, as with Google.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "road-graph", name = "enabled", havingValue = "true")
+@Slf4j
+public class RoadGraphDistanceProvider implements DistanceProvider {
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private final RoadGraphConfig config;
+    private final RoadGraph graph;
+    private final ExecutorService executor;
+
+    @Autowired
+    public RoadGraphDistanceProvider(RoadGraphConfig config) throws IOException {
+        this(config, load(config));
+    }
+
+    RoadGraphDistanceProvider(RoadGraphConfig config, RoadGraph graph) {
+        this.config = config;
+        this.graph = graph;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getThreads()));
+    }
+
+    private static RoadGraph load(RoadGraphConfig config) throws IOException {
+        long start = System.nanoTime();
+        RoadGraph graph = RoadGraph.open(Path.of(config.getPath()));
+        log.info("Loaded road graph {} ({} nodes, {} edges) in {} ms", config.getPath(),
+                graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        return graph;
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<Location> locations) {
+        long start = System.nanoTime();
+        int size = locations.size();
+        DistanceMatrix matrix = new DistanceMatrix(size);
+
+        // Snap every location to the road network
+        int[] nodes = new int[size];
+        int[] accessMeters = new int[size];
+        int[] accessMillis = new int[size];
+        double metersPerMilli = config.getAccessSpeedKmh() / 3600.0;
+        for (int i = 0; i < size; i++) {
+            Location loc = locations.get(i);
+            if (loc.getLatitude() == null || loc.getLongitude() == null) {
+                log.error("Cannot get distance matrix - location '{}' has no coordinates", loc.getName());
+                return matrix;
+            }
+            nodes[i] = graph.nearestNode(loc.getLatitude(), loc.getLongitude(), config.getMaxSnapMeters());
+            if (nodes[i] < 0) {
+                log.warn("Location '{}' is more than {} m from any road", loc.getName(), config.getMaxSnapMeters());
+                continue;
+            }
+            double offRoad = RoadGraph.distanceMeters(loc.getLatitude(), loc.getLongitude(),
+                    graph.latitude(nodes[i]), graph.longitude(nodes[i]));
+            accessMeters[i] = (int) Math.round(offRoad);
+            accessMillis[i] = (int) Math.round(offRoad / metersPerMilli);
+        }
+        int[] targets = Arrays.stream(nodes).filter(node -> node >= 0).distinct().sorted().toArray();
+
+        // One search per origin; rows come back as arrays and are written into the matrix here
+        List<Future<int[][]>> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int source = nodes[i];
+            rows.add(source < 0 ? null : executor.submit(() -> WORKSPACE.get().search(graph, source, targets)));
+        }
+        for (int i = 0; i < size; i++) {
+            int[][] row = awaitRow(rows.get(i));
+            for (int j = 0; j < size; j++) {
+                if (i == j) {
+                    matrix.set(i, j, 0, 0);
+                    continue;
+                }
+                int t = nodes[j] < 0 || row == null ? -1 : Arrays.binarySearch(targets, nodes[j]);
+                if (t < 0 || row[0][t] < 0) {
+                    matrix.setUnreachable(i, j);
+                    continue;
+                }
+                long millis = (long) row[0][t] + accessMillis[i] + accessMillis[j];
+                matrix.set(i, j, row[1][t] + accessMeters[i] + accessMeters[j], (int) Math.round(millis / 1000.0));
+            }
+        }
+        log.info("Road graph matrix for {} locations in {} ms", size, (System.nanoTime() - start) / 1_000_000);
+        return matrix;
+    }
+
+    private static int[][] awaitRow(Future<int[][]> row) {
+        if (row == null) {
+            return null;
+        }
+        try {
+            return row.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Road graph search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Road graph search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Per-thread Dijkstra state sized to the graph. Nodes count as unvisited unless their stamp
+     * matches the current search, so nothing is cleared between searches.
+     */
+    private static final class Workspace {
+        private int[] millis = new int[0];
+        private int[] meters = new int[0];
+        private int[] stamp = new int[0];
+        private int[] heapIndex = new int[0];
+        private int[] heap = new int[0];
+        private int heapSize;
+        private int currentStamp;
+
+        /**
+         * Fastest time (ms) and its length (m) from {@code source} to each of the sorted
+         * {@code targets}, as {@code {millis[], meters[]}}; -1 millis where unreachable.
+         */
+        int[][] search(RoadGraph graph, int source, int[] targets) {
+            ensureCapacity(graph.nodeCount());
+            if (++currentStamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                currentStamp = 1;
+            }
+            int[] targetMillis = new int[targets.length];
+            int[] targetMeters = new int[targets.length];
+            Arrays.fill(targetMillis, -1);
+
+            heapSize = 0;
+            discover(source, 0, 0);
+            int remaining = targets.length;
+            while (heapSize > 0 && remaining > 0) {
+                int v = pop();
+                int t = Arrays.binarySearch(targets, v);
+                if (t >= 0) {
+                    targetMillis[t] = millis[v];
+                    targetMeters[t] = meters[v];
+                    remaining--;
+                }
+                for (int e = graph.firstEdge(v), end = graph.firstEdge(v + 1); e < end; e++) {
+                    int w = graph.target(e);
+                    int time = millis[v] + graph.millis(e);
+                    if (stamp[w] != currentStamp) {
+                        discover(w, time, meters[v] + graph.meters(e));
+                    } else if (heapIndex[w] >= 0 && time < millis[w]) {
+                        millis[w] = time;
+                        meters[w] = meters[v] + graph.meters(e);
+                        siftUp(heapIndex[w]);
+                    }
+                }
+            }
+            return new int[][]{targetMillis, targetMeters};
+        }
+
+        private void ensureCapacity(int n) {
+            if (millis.length < n) {
+                millis = new int[n];
+                meters = new int[n];
+                stamp = new int[n];
+                heapIndex = new int[n];
+                heap = new int[n];
+                currentStamp = 0;
+            }
+        }
+
+        private void discover(int node, int time, int length) {
+            stamp[node] = currentStamp;
+            millis[node] = time;
+            meters[node] = length;
+            heap[heapSize] = node;
+            heapIndex[node] = heapSize;
+            siftUp(heapSize++);
+        }
+
+        // Removes the closest node; settled nodes keep heapIndex -1
+        private int pop() {
+            int top = heap[0];
+            heapIndex[top] = -1;
+            if (--heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndex[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int node = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (millis[heap[parent]] <= millis[node]) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                heapIndex[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = node;
+            heapIndex[node] = i;
+        }
+
+        private void siftDown(int i) {
+            int node = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && millis[heap[child + 1]] < millis[heap[child]]) {
+                    child++;
+                }
+                if (millis[heap[child]] >= millis[node]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                heapIndex[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = node;
+            heapIndex[node] = i;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.routesmart.service;
+
+import com.routesmart.enums.PipelineStage;
+import com.routesmart.model.Location;
+import com.routesmart.optimizer.IncumbentListener;
+
+import java.util.List;
+
+/**
+ * Progress of one route optimization: each finished pipeline stage, then the better tours
+ * the solver finds along the way. Called on the thread doing the work.
+ */
+public interface RouteProgressListener extends IncumbentListener {
+
+    RouteProgressListener NONE = new RouteProgressListener() {
+    };
+
+    /**
+     * @param locations the route's locations as of this stage (geocoded from GEOCODED on),
+     *                  in request order - incumbent orders index into this list
+     */
+    default void onStage(PipelineStage stage, List<Location> locations) {
+    }
+
+    @Override
+    default void onIncumbent(int[] order, long distanceMeters) {
+    }
+}
@@ -1,16 +1,33 @@
 package com.routesmart.service;
 
+import com.routesmart.cache.SolveCache;
+import com.routesmart.cache.SolveKey;
 import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.config.OptimizerConfig;
 import com.routesmart.dto.OptimizationResult;
 import com.routesmart.dto.RouteRequest;
 import com.routesmart.dto.RouteResponse;
+import com.routesmart.enums.PipelineStage;
 import com.routesmart.enums.RouteType;
+import com.routesmart.exception.InvalidInputException;
+import com.routesmart.matrix.DistanceProvider;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.metrics.RouteSmartMetrics.Outcome;
+import com.routesmart.metrics.RouteSmartMetrics.Stage;
+import com.routesmart.model.DistanceMatrix;
 import com.routesmart.model.Location;
+import com.routesmart.optimizer.OptimizationResults;
+import com.routesmart.optimizer.OptimizerRouter;
+import com.routesmart.optimizer.SolveContext;
 import com.routesmart.util.LocationParserService;
+import com.routesmart.util.SingleFlight;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 @Service
 @Slf4j
@@ -18,30 +35,123 @@ public class RouteSmartService {
 
     private final LocationParserService locationParserService;
     private final GoogleMapsService googleMapsService;
-    private final OptimizerService optimizerService;
+    private final DistanceProvider distanceProvider;
+    private final OptimizerRouter optimizerRouter;
     private final GoogleMapsConfig googleMapsConfig;
+    private final OptimizerConfig optimizerConfig;
+    private final SolveCache solveCache;
+    private final RouteSmartMetrics metrics;
+    // Identical requests arriving together (e.g. a team opening the app at once) share one run
+    private final SingleFlight<String, RouteResponse> inFlight = new SingleFlight<>();
 
     public RouteSmartService(LocationParserService locationParserService,
                              GoogleMapsService googleMapsService,
-                             OptimizerService optimizerService,
-                             GoogleMapsConfig googleMapsConfig) {
+                             DistanceProvider distanceProvider,
+                             OptimizerRouter optimizerRouter,
+                             GoogleMapsConfig googleMapsConfig,
+                             OptimizerConfig optimizerConfig,
+                             SolveCache solveCache,
+                             RouteSmartMetrics metrics) {
         this.locationParserService = locationParserService;
         this.googleMapsService = googleMapsService;
-        this.optimizerService = optimizerService;
+        this.distanceProvider = distanceProvider;
+        this.optimizerRouter = optimizerRouter;
         this.googleMapsConfig = googleMapsConfig;
+        this.optimizerConfig = optimizerConfig;
+        this.solveCache = solveCache;
+        this.metrics = metrics;
+    }
+
+    public Optional<RouteResponse> getRoute(String routeId) {
+        return solveCache.getRoute(routeId);
     }
 
     public RouteResponse optimizeRoute(RouteRequest request) {
         log.info("Starting route optimization for {} locations", request.getLocations().size());
+        Timer.Sample sample = metrics.startRequest();
 
+        // Same inputs as a recent request - nothing to geocode, fetch or solve
+        Optional<RouteResponse> previous = solveCache.getRouteForRequest(request.getLocations(), request.getRouteType());
+        if (previous.isPresent()) {
+            log.info("Returning cached route {}", previous.get().getRouteId());
+            metrics.requestDone(sample, Outcome.CACHED);
+            return previous.get();
+        }
+
+        // Every caller gets its own copy, since the controller sets per-caller fields on it
+        String requestKey = SolveCache.requestKey(request.getLocations(), request.getRouteType());
+        try {
+            RouteResponse response = inFlight.execute(requestKey, () -> solve(request,
+                    SolveContext.withBudget(optimizerConfig.getRequestBudget()), RouteProgressListener.NONE))
+                    .toBuilder().build();
+            metrics.requestDone(sample, Outcome.SOLVED);
+            return response;
+        } catch (RuntimeException e) {
+            metrics.requestDone(sample, Outcome.FAILED);
+            throw e;
+        }
+    }
+
+    /**
+     * Optimizes a route, reporting stages and improving tours to {@code listener} as it goes.
+     * Not coalesced with identical requests, since each caller follows its own progress.
+     * Cancelling {@code solveContext} stops the work at the next stage boundary, or makes the
+     * solver return its best tour so far.
+     *
+     * @throws CancellationException if cancelled before the solve
+     */
+    public RouteResponse optimizeRoute(RouteRequest request, SolveContext solveContext,
+                                       RouteProgressListener listener) {
+        log.info("Starting streamed route optimization for {} locations", request.getLocations().size());
+        Timer.Sample sample = metrics.startRequest();
+        Optional<RouteResponse> previous = solveCache.getRouteForRequest(request.getLocations(), request.getRouteType());
+        if (previous.isPresent()) {
+            log.info("Returning cached route {}", previous.get().getRouteId());
+            metrics.requestDone(sample, Outcome.CACHED);
+            return previous.get();
+        }
+        try {
+            RouteResponse response = solve(request, solveContext.withIncumbentListener(listener), listener)
+                    .toBuilder().build();
+            metrics.requestDone(sample, Outcome.SOLVED);
+            return response;
+        } catch (RuntimeException e) {
+            metrics.requestDone(sample, Outcome.FAILED);
+            throw e;
+        }
+    }
+
+    private RouteResponse solve(RouteRequest request, SolveContext solveContext, RouteProgressListener listener) {
         // Step 1: Parse input strings into Location objects
-        List<Location> locations = locationParserService.parseLocations(request.getLocations());
+        List<Location> locations = metrics.timeStage(Stage.PARSE,
+                () -> locationParserService.parseLocations(request.getLocations()));
         log.info("Parsed {} locations", locations.size());
+        stageDone(PipelineStage.PARSED, locations, solveContext, listener);
 
         // Step 2: Geocode locations that don't have coordinates
-        googleMapsService.geocodeLocations(locations);
+        metrics.timeStage(Stage.GEOCODE, () -> googleMapsService.geocodeLocations(locations));
+        logCoordinates(locations);
+        stageDone(PipelineStage.GEOCODED, locations, solveContext, listener);
+
+        // Step 3: Get distance matrix (Google, or the offline road graph if configured)
+        DistanceMatrix distanceMatrix = metrics.timeStage(Stage.MATRIX,
+                () -> distanceProvider.getDistanceMatrix(locations));
+        stageDone(PipelineStage.MATRIX_READY, locations, solveContext, listener);
+
+        // the budget is for solving: a matrix of a few hundred stops can take longer than it to fetch
+        return buildRoute(request, locations, distanceMatrix,
+                solveContext.restartedWith(optimizerConfig.getRequestBudget()));
+    }
+
+    private static void stageDone(PipelineStage stage, List<Location> locations, SolveContext solveContext,
+                                  RouteProgressListener listener) {
+        if (solveContext.isCancelled()) {
+            throw new CancellationException("Route optimization cancelled after " + stage);
+        }
+        listener.onStage(stage, locations);
+    }
 
-        // Log all coordinates
+    void logCoordinates(List<Location> locations) {
         log.info("=== Location Coordinates ===");
         for (Location loc : locations) {
             log.info("{}: lat={}, lng={}, type={}",
@@ -50,13 +160,32 @@ public class RouteSmartService {
                     loc.getLongitude(),
                     loc.getInputType());
         }
+    }
 
-        // Step 3: Get distance matrix
-        int[][] distanceMatrix = googleMapsService.getDistanceMatrix(locations);
-
-        // Step 4: Optimize route using Python service
+    /**
+     * Solves a geocoded request with its matrix and builds the response, shared with the
+     * batch pipeline's solve stage. The response is stored in the solve cache.
+     */
+    RouteResponse buildRoute(RouteRequest request, List<Location> locations, DistanceMatrix distanceMatrix,
+                             SolveContext solveContext) {
+        // Step 4: Optimize route - reuse the order if this problem was solved before (in any
+        // stop order), otherwise the router picks the exact, heuristic or Python engine
         boolean isRoundTrip = request.getRouteType() == RouteType.ROUND_TRIP;
-        OptimizationResult result = optimizerService.optimize(locations, distanceMatrix, isRoundTrip);
+        SolveKey solveKey = SolveKey.of(locations, distanceMatrix, request.getRouteType());
+        OptimizationResult result = metrics.timeStage(Stage.SOLVE, () -> {
+            Optional<int[]> cachedOrder = solveCache.getOrder(solveKey);
+            if (cachedOrder.isPresent()) {
+                log.info("Solve cache hit for {}", solveKey.id());
+                return OptimizationResults.fromOrder(locations, distanceMatrix, cachedOrder.get(), isRoundTrip);
+            }
+            OptimizationResult solved = optimizerRouter.optimize(locations, distanceMatrix, request.getRouteType(), solveContext);
+            if (isCacheable(solved, solveContext)) {
+                solveCache.putOrder(solveKey, solved.getOptimizedOrder().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return solved;
+        });
+
+        requireReachable(locations, result.getOptimizedOrder(), distanceMatrix, isRoundTrip);
 
         log.info("=== Optimized Route ===");
         for (String step : result.getRouteDescription()) {
@@ -72,23 +201,64 @@ public class RouteSmartService {
             } else {
                 int prevIdx = order.get(i - 1);
                 int currIdx = order.get(i);
-                double distanceKm = distanceMatrix[prevIdx][currIdx] / 1000.0;
+                double distanceKm = distanceMatrix.distance(prevIdx, currIdx) / 1000.0;
                 optimizedLocations.get(i).setDistanceFromPrevious(Math.round(distanceKm * 100.0) / 100.0);
             }
         }
 
-        return RouteResponse.builder()
+        RouteResponse response = RouteResponse.builder()
+                .routeId(SolveCache.routeId(solveKey, SolveCache.requestKey(request.getLocations(), request.getRouteType())))
                 .optimizedOrder(optimizedLocations)
                 .totalDistanceKm(result.getTotalDistanceKm())
-                .totalTimeMinutes(0)
+                .totalTimeMinutes(totalTimeMinutes(distanceMatrix, order, isRoundTrip))
                 .isRoundTrip(isRoundTrip)
                 .googleMapsUrl(buildGoogleMapsUrl(optimizedLocations, isRoundTrip))
                 .embedMapUrl(buildEmbedMapUrl(optimizedLocations, isRoundTrip))
                 .routeDescription(result.getRouteDescription())
+                .degraded(result.isDegraded())
                 .build();
+        if (isCacheable(result, solveContext)) {
+            solveCache.putRoute(request.getLocations(), request.getRouteType(), response);
+        }
+        return response;
+    }
+
+    // A cancelled solve stopped early, a degraded one is the fallback's, and one that hit its
+    // deadline before converging may be little better than its starting tour - don't hand any
+    // of them to later requests
+    private static boolean isCacheable(OptimizationResult result, SolveContext solveContext) {
+        return !solveContext.isCancelled() && !result.isDegraded()
+                && (result.getSearchStats() == null || result.getSearchStats().isConverged());
+    }
+
+    // The solvers only avoid unreachable legs when they can; a tour that still needs one would
+    // report its 10,000 km penalty as driving distance, so refuse it instead
+    static void requireReachable(List<Location> locations, List<Integer> order, DistanceMatrix distanceMatrix,
+                                 boolean isRoundTrip) {
+        int legs = isRoundTrip && order.size() > 1 ? order.size() : order.size() - 1;
+        for (int k = 0; k < legs; k++) {
+            int from = order.get(k);
+            int to = order.get((k + 1) % order.size());
+            if (!distanceMatrix.isReachable(from, to)) {
+                throw new InvalidInputException("No driving route from '" + locations.get(from).getName()
+                        + "' to '" + locations.get(to).getName() + "'", "locations");
+            }
+        }
+    }
+
+    // Driving time along the route from the matrix durations, including the way back for round trips
+    private int totalTimeMinutes(DistanceMatrix distanceMatrix, List<Integer> order, boolean isRoundTrip) {
+        long seconds = 0;
+        for (int i = 1; i < order.size(); i++) {
+            seconds += distanceMatrix.duration(order.get(i - 1), order.get(i));
+        }
+        if (isRoundTrip && order.size() > 1) {
+            seconds += distanceMatrix.duration(order.get(order.size() - 1), order.get(0));
+        }
+        return (int) Math.round(seconds / 60.0);
     }
 
-    private String buildGoogleMapsUrl(List<Location> locations, boolean isRoundTrip) {
+    String buildGoogleMapsUrl(List<Location> locations, boolean isRoundTrip) {
         if (locations.isEmpty()) return "";
 
         StringBuilder url = new StringBuilder("https://www.google.com/maps/dir/");
@@ -103,7 +273,7 @@ public class RouteSmartService {
         return url.toString();
     }
 
-    private String buildEmbedMapUrl(List<Location> locations, boolean isRoundTrip) {
+    String buildEmbedMapUrl(List<Location> locations, boolean isRoundTrip) {
         if (locations.size() < 2) return "";
 
         // Google Maps Embed API Directions URL
@@ -0,0 +1,114 @@
+package com.routesmart.service;
+
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.RouteProgressEvent;
+import com.routesmart.dto.RouteRequest;
+import com.routesmart.dto.RouteResponse;
+import com.routesmart.enums.PipelineStage;
+import com.routesmart.model.Location;
+import com.routesmart.optimizer.SolveContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a route optimization in the background and streams its progress as Server-Sent Events:
+ * {@code stage} when parsing, geocoding and the matrix finish, {@code incumbent} for each better
+ * tour the solver finds, then {@code result} (the usual response) or {@code error}.
+ * <p>
+ * When the client disconnects - e.g. it took an incumbent and stopped listening - the next
+ * send fails and the optimization is cancelled, so no solver time goes to a client that left.
+ */
+@Service
+@Slf4j
+public class RouteStreamingService {
+
+    private final RouteSmartService routeSmartService;
+    private final OptimizerConfig optimizerConfig;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RouteStreamingService(RouteSmartService routeSmartService, OptimizerConfig optimizerConfig) {
+        this.routeSmartService = routeSmartService;
+        this.optimizerConfig = optimizerConfig;
+    }
+
+    public SseEmitter stream(RouteRequest request, int remainingRequests) {
+        SseEmitter emitter = new SseEmitter();
+        SolveContext solveContext = SolveContext.withBudget(optimizerConfig.getRequestBudget());
+        emitter.onCompletion(solveContext::cancel);
+        emitter.onTimeout(solveContext::cancel);
+        emitter.onError(e -> solveContext.cancel());
+
+        long start = System.nanoTime();
+        RouteProgressListener listener = new RouteProgressListener() {
+            @Override
+            public void onStage(PipelineStage stage, List<Location> locations) {
+                send(emitter, solveContext, "stage", RouteProgressEvent.builder()
+                        .stage(stage)
+                        .locations(locations)
+                        .elapsedMs(elapsedMs(start))
+                        .build());
+            }
+
+            @Override
+            public void onIncumbent(int[] order, long distanceMeters) {
+                send(emitter, solveContext, "incumbent", RouteProgressEvent.builder()
+                        .order(Arrays.stream(order).boxed().toList())
+                        .distanceKm(Math.round(distanceMeters / 1000.0 * 100.0) / 100.0)
+                        .elapsedMs(elapsedMs(start))
+                        .build());
+            }
+        };
+
+        executor.submit(() -> {
+            try {
+                RouteResponse response = routeSmartService.optimizeRoute(request, solveContext, listener);
+                response.setRemainingRequests(remainingRequests);
+                if (send(emitter, solveContext, "result", response)) {
+                    emitter.complete();
+                }
+            } catch (CancellationException e) {
+                log.info("Streamed optimization stopped: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Streamed optimization failed: {}", e.getMessage());
+                if (send(emitter, solveContext, "error", RouteProgressEvent.builder().message(e.getMessage()).build())) {
+                    emitter.complete();
+                }
+            }
+        });
+        return emitter;
+    }
+
+    // false once the client has gone; the first failed send cancels the optimization
+    private boolean send(SseEmitter emitter, SolveContext solveContext, String name, Object data) {
+        if (solveContext.isCancelled()) {
+            return false;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.info("Client left the optimize stream, cancelling");
+            solveContext.cancel();
+            return false;
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
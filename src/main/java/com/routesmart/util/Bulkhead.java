@@ -0,0 +1,84 @@
+package com.routesmart.util;
+
+import com.routesmart.exception.BulkheadFullException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the calls in flight to one downstream. A caller past the cap waits up to
+ * {@code maxWait} for a slot and then fails with {@link BulkheadFullException}, so a slow
+ * dependency holds up only the calls that need it instead of every request thread.
+ * Waiting is first come, first served.
+ */
+public class Bulkhead implements MeterBinder {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final LongAdder rejections = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs at least one slot");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public <T> T call(Callable<T> work) throws Exception {
+        acquire();
+        try {
+            return work.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() throws InterruptedException {
+        boolean acquired = maxWait.isPositive()
+                ? permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)
+                : permits.tryAcquire();
+        if (!acquired) {
+            rejections.increment();
+            throw new BulkheadFullException(name, maxConcurrent, maxWait);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long rejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("routesmart.bulkhead.active", this, Bulkhead::inFlight)
+                .description("Calls in flight through the bulkhead")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("routesmart.bulkhead.limit", this, b -> b.maxConcurrent)
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("routesmart.bulkhead.rejections", this, Bulkhead::rejections)
+                .description("Calls refused after waiting maxWait for a slot")
+                .tag("name", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,208 @@
+package com.routesmart.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling a downstream that keeps failing. Outcomes of the last {@code windowSize} calls
+ * are kept (slow calls count as failures); once at least {@code minimumCalls} are in and the
+ * failure rate reaches the threshold the breaker opens and calls are refused straight away.
+ * After {@code openDuration} it lets {@code halfOpenCalls} trial calls through: if they all
+ * succeed it closes again, if any fails it reopens.
+ * <p>
+ * Health probes feed it too: {@code probeFailures} failed probes in a row open it (one slow
+ * probe shouldn't eject a healthy downstream), a good probe while open lets the trial calls
+ * through without waiting out the open period.
+ */
+@Slf4j
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(int windowSize, int minimumCalls, int failureRatePercent,
+                           Duration slowCallDuration, Duration openDuration, int halfOpenCalls,
+                           int probeFailures) {
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final LongSupplier nanoTime;
+
+    // Ring of recent outcomes, true = failed
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+    private int failedProbes;
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String name, Settings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, Settings settings, LongSupplier nanoTime) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        this.window = new boolean[Math.max(1, settings.windowSize())];
+    }
+
+    /**
+     * Whether a call may go ahead now. Every permitted call must be followed by
+     * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && openPeriodOver()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> halfOpenInFlight < settings.halfOpenCalls();
+        };
+        if (!permitted) {
+            notPermitted.increment();
+        } else if (state == State.HALF_OPEN) {
+            halfOpenInFlight++;
+        }
+        return permitted;
+    }
+
+    /**
+     * Whether {@link #tryAcquire} would permit a call, without changing anything.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> openPeriodOver();
+            case HALF_OPEN -> halfOpenInFlight < settings.halfOpenCalls();
+        };
+    }
+
+    public synchronized void onSuccess(Duration elapsed) {
+        if (settings.slowCallDuration() != null && elapsed.compareTo(settings.slowCallDuration()) > 0) {
+            log.warn("{} call took {} ms, counting it as failed", name, elapsed.toMillis());
+            onFailure();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            if (++halfOpenSuccesses >= settings.halfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= settings.minimumCalls()
+                && windowFailures * 100 >= settings.failureRatePercent() * windowCount) {
+            log.warn("{} failed {} of the last {} calls", name, windowFailures, windowCount);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * The call ended in a way that says nothing about the downstream's health (e.g. it
+     * rejected our request); it only frees its trial slot.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+        }
+    }
+
+    public synchronized void onProbe(boolean healthy) {
+        if (healthy) {
+            failedProbes = 0;
+            if (state == State.OPEN) {
+                transitionTo(State.HALF_OPEN);
+            }
+        } else if (state != State.OPEN) {
+            failedProbes++;
+            log.warn("{} health probe failed ({} of {} in a row)", name, failedProbes, settings.probeFailures());
+            if (failedProbes >= settings.probeFailures()) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public long notPermittedCount() {
+        return notPermitted.sum();
+    }
+
+    private boolean openPeriodOver() {
+        return nanoTime.getAsLong() - openedAtNanos >= settings.openDuration().toNanos();
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        log.info("{} circuit breaker {} -> {}", name, state, next);
+        state = next;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+        failedProbes = 0;
+        if (next == State.OPEN) {
+            openedAtNanos = nanoTime.getAsLong();
+            opened.increment();
+        } else if (next == State.CLOSED) {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("routesmart.circuit.state", this, b -> b.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("routesmart.circuit.opened", opened, LongAdder::sum)
+                .description("Times the breaker opened")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("routesmart.circuit.not_permitted", notPermitted, LongAdder::sum)
+                .description("Calls refused while the breaker was open")
+                .tag("name", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,178 @@
+package com.routesmart.util;
+
+/**
+ * An IP address packed into two longs (IPv4 as IPv4-mapped IPv6), used as a compact map key
+ * instead of the address string. Parsed by hand: {@link java.net.InetAddress#getByName} would
+ * try a DNS lookup for anything that isn't a literal, and the input here comes from a header.
+ */
+public record ClientAddress(long high, long low) {
+
+    private static final long IPV4_MAPPED = 0xFFFFL << 32;
+
+    /**
+     * Address of {@code text} with everything past the first {@code ipv6PrefixLength} bits
+     * cleared for IPv6 (IPv4 is always kept whole), or {@code null} if it isn't an IP literal.
+     */
+    public static ClientAddress parse(String text, int ipv6PrefixLength) {
+        if (text == null) {
+            return null;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && text.charAt(start) == '[' && text.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+
+        int colon = text.indexOf(':', start);
+        if (colon < 0 || colon >= end) {
+            long ipv4 = parseIpv4(text, start, end);
+            return ipv4 < 0 ? null : new ClientAddress(0, IPV4_MAPPED | ipv4);
+        }
+
+        // zone id ("fe80::1%eth0") doesn't identify the client
+        int zone = text.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        int[] groups = parseIpv6(text, start, end);
+        if (groups == null) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 4; i++) {
+            high = high << 16 | groups[i];
+            low = low << 16 | groups[i + 4];
+        }
+        if (high == 0 && (low & 0xFFFFFFFF_00000000L) == IPV4_MAPPED) {
+            return new ClientAddress(high, low);
+        }
+        return new ClientAddress(high & mask(ipv6PrefixLength), low & mask(ipv6PrefixLength - 64));
+    }
+
+    public boolean isIpv4() {
+        return high == 0 && (low & 0xFFFFFFFF_00000000L) == IPV4_MAPPED;
+    }
+
+    // Leading `bits` bits set
+    private static long mask(int bits) {
+        if (bits <= 0) {
+            return 0;
+        }
+        return bits >= 64 ? -1L : -1L << (64 - bits);
+    }
+
+    // Dotted quad as an unsigned 32-bit value, or -1
+    private static long parseIpv4(String text, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int i = start;
+        while (octets < 4) {
+            int digitsStart = i;
+            int octet = 0;
+            while (i < end && i - digitsStart < 3 && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                octet = octet * 10 + (text.charAt(i) - '0');
+                i++;
+            }
+            if (i == digitsStart || octet > 255) {
+                return -1;
+            }
+            value = value << 8 | octet;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || text.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == end ? value : -1;
+    }
+
+    // Eight 16-bit groups, expanding "::" and a trailing dotted quad, or null
+    private static int[] parseIpv6(String text, int start, int end) {
+        int[] groups = new int[8];
+        int count = 0;
+        int gap = -1;
+        int i = start;
+        if (end - i >= 2 && text.charAt(i) == ':' && text.charAt(i + 1) == ':') {
+            gap = 0;
+            i += 2;
+        }
+        while (i < end) {
+            if (count == 8) {
+                return null;
+            }
+            int groupStart = i;
+            int group = 0;
+            while (i < end && i - groupStart < 4 && hexDigit(text.charAt(i)) >= 0) {
+                group = group << 4 | hexDigit(text.charAt(i));
+                i++;
+            }
+            if (i < end && text.charAt(i) == '.') {
+                // embedded IPv4 in the last 32 bits, e.g. ::ffff:10.0.0.1
+                long ipv4 = count <= 6 ? parseIpv4(text, groupStart, end) : -1;
+                if (ipv4 < 0) {
+                    return null;
+                }
+                groups[count++] = (int) (ipv4 >>> 16);
+                groups[count++] = (int) (ipv4 & 0xFFFF);
+                i = end;
+                break;
+            }
+            if (i == groupStart) {
+                return null;
+            }
+            groups[count++] = group;
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return null;
+            }
+            i++;
+            if (i < end && text.charAt(i) == ':') {
+                if (gap >= 0) {
+                    return null;
+                }
+                gap = count;
+                i++;
+            } else if (i == end) {
+                // trailing single ':'
+                return null;
+            }
+        }
+
+        if (gap < 0) {
+            return count == 8 ? groups : null;
+        }
+        if (count == 8) {
+            return null;
+        }
+        // shift the groups after "::" to the end
+        int tail = count - gap;
+        System.arraycopy(groups, gap, groups, 8 - tail, tail);
+        for (int k = gap; k < 8 - tail; k++) {
+            groups[k] = 0;
+        }
+        return groups;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
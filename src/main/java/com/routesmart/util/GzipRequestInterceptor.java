@@ -0,0 +1,55 @@
+package com.routesmart.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzips JSON request bodies of at least {@code minBytes} and marks them
+ * {@code Content-Encoding: gzip}. Smaller bodies and other content types go out as they are -
+ * distance matrices compress well as text, already-compressed formats don't.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int minBytes;
+
+    public GzipRequestInterceptor(int minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        MediaType contentType = headers.getContentType();
+        if (body.length < minBytes
+                || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                || contentType == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return execution.execute(request, body);
+        }
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return execution.execute(request, gzip(body));
+    }
+
+    // Fastest level: digit-heavy JSON still shrinks ~5x, for a fraction of the default's CPU
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
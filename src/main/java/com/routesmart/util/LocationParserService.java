@@ -7,38 +7,36 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Classifies raw stop inputs as coordinates, Google Maps URLs, Eircodes or place names.
+ * <p>
+ * Hand-written scanners instead of regexes, so bulk imports don't pay for matchers and
+ * intermediate strings on every line. They accept exactly what these patterns would:
+ * <pre>
+ * coordinates:  ^(-?\d+\.\d+),\s*(-?\d+\.\d+)$             (after trimming)
+ * Eircode:      ^[A-Z][0-9A-Z]{2}[ ]?[A-Z0-9]{4}$           (case-insensitive, after trimming
+ *                                                           and collapsing whitespace runs)
+ * Maps URL:     [?&amp;]q=lat,lng, else @lat,lng, else /place/lat,lng - leftmost of each kind
+ * </pre>
+ */
 @Service
 @Slf4j
 public class LocationParserService {
 
-    // Eircode pattern: D01 F5P2, D6W F4E2, A65F4E2, etc.
-    // Format: 1 letter + 2 alphanumeric + optional space + 4 alphanumeric
-    private static final Pattern EIRCODE_PATTERN = Pattern.compile(
-            "^[A-Z][0-9A-Z]{2}[ ]?[A-Z0-9]{4}$",
-            Pattern.CASE_INSENSITIVE
-    );
-
-    // Raw coordinates pattern: lat,lng (e.g., -17.8252,31.0335)
-    private static final Pattern COORDINATES_PATTERN = Pattern.compile(
-            "^(-?\\d+\\.\\d+),\\s*(-?\\d+\\.\\d+)$"
-    );
-
-    // Google Maps URL patterns for coordinate extraction
-    private static final Pattern GOOGLE_MAPS_Q_PATTERN = Pattern.compile(
-            "[?&]q=(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)"
-    );
-    private static final Pattern GOOGLE_MAPS_AT_PATTERN = Pattern.compile(
-            "@(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)"
-    );
-    private static final Pattern GOOGLE_MAPS_PLACE_PATTERN = Pattern.compile(
-            "/place/(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)"
-    );
+    private static final int NOT_FOUND = -1;
+
+    // m / 10^k is correctly rounded when both are exact doubles
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final String PLACE_PREFIX = "/place/";
 
     public List<Location> parseLocations(List<String> inputs) {
-        List<Location> locations = new ArrayList<>();
+        List<Location> locations = new ArrayList<>(inputs.size());
         for (String input : inputs) {
             locations.add(parseLocation(input.trim()));
         }
@@ -46,73 +44,89 @@ public class LocationParserService {
     }
 
     public Location parseLocation(String input) {
-        if (isCoordinates(input)) {
-            return parseCoordinates(input);
+        // bounds of input.trim(), without making the string
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        Location coordinates = parseCoordinates(input, start, end);
+        if (coordinates != null) {
+            return coordinates;
         } else if (isGoogleMapsUrl(input)) {
             return parseGoogleMapsUrl(input);
-        } else if (isEircode(input)) {
+        } else if (isEircode(input, start, end)) {
             return parseEircode(input);
         } else {
             return parseLocationName(input);
         }
     }
 
-    private boolean isCoordinates(String input) {
-        return COORDINATES_PATTERN.matcher(input.trim()).matches();
-    }
+    // ==================== COORDINATES ====================
 
-    private Location parseCoordinates(String input) {
-        Matcher matcher = COORDINATES_PATTERN.matcher(input.trim());
-        if (matcher.matches()) {
-            double latitude = Double.parseDouble(matcher.group(1));
-            double longitude = Double.parseDouble(matcher.group(2));
-            log.info("Parsed coordinates: {}, {}", latitude, longitude);
-            return Location.builder()
-                    .name("Current Location")
-                    .originalInput(input)
-                    .latitude(latitude)
-                    .longitude(longitude)
-                    .inputType(InputType.CURRENT_LOCATION)
-                    .build();
+    private Location parseCoordinates(String input, int start, int end) {
+        int latEnd = numberEnd(input, start, end);
+        if (latEnd == NOT_FOUND || latEnd == end || input.charAt(latEnd) != ',') {
+            return null;
         }
-        return parseLocationName(input);
+        int lngStart = latEnd + 1;
+        while (lngStart < end && isRegexSpace(input.charAt(lngStart))) {
+            lngStart++;
+        }
+        if (numberEnd(input, lngStart, end) != end) {
+            return null;
+        }
+
+        double latitude = parseNumber(input, start, latEnd);
+        double longitude = parseNumber(input, lngStart, end);
+        log.info("Parsed coordinates: {}, {}", latitude, longitude);
+        return Location.builder()
+                .name("Current Location")
+                .originalInput(input)
+                .latitude(latitude)
+                .longitude(longitude)
+                .inputType(InputType.CURRENT_LOCATION)
+                .build();
     }
 
+    // ==================== GOOGLE MAPS URLS ====================
+
     private boolean isGoogleMapsUrl(String input) {
         return input.contains("google.com/maps") || input.contains("goo.gl/maps");
     }
 
-    private boolean isEircode(String input) {
-        String cleaned = input.trim().replaceAll("\\s+", " ");
-        boolean matches = EIRCODE_PATTERN.matcher(cleaned).matches();
-        log.debug("Eircode check for '{}' (cleaned: '{}'): {}", input, cleaned, matches);
-        return matches;
-    }
-
     private Location parseGoogleMapsUrl(String input) {
-        Double latitude = null;
-        Double longitude = null;
-
-        // Try different URL patterns
-        Matcher matcher = GOOGLE_MAPS_Q_PATTERN.matcher(input);
-        if (matcher.find()) {
-            latitude = Double.parseDouble(matcher.group(1));
-            longitude = Double.parseDouble(matcher.group(2));
-        } else {
-            matcher = GOOGLE_MAPS_AT_PATTERN.matcher(input);
-            if (matcher.find()) {
-                latitude = Double.parseDouble(matcher.group(1));
-                longitude = Double.parseDouble(matcher.group(2));
-            } else {
-                matcher = GOOGLE_MAPS_PLACE_PATTERN.matcher(input);
-                if (matcher.find()) {
-                    latitude = Double.parseDouble(matcher.group(1));
-                    longitude = Double.parseDouble(matcher.group(2));
+        // One pass, remembering the first "@" and "/place/" pair in case no "q=" pair turns up
+        int length = input.length();
+        int qAt = NOT_FOUND;
+        int atAt = NOT_FOUND;
+        int placeAt = NOT_FOUND;
+        for (int i = 0; i < length && qAt == NOT_FOUND; i++) {
+            char c = input.charAt(i);
+            if ((c == '?' || c == '&') && i + 2 < length && input.charAt(i + 1) == 'q' && input.charAt(i + 2) == '=') {
+                if (pairEnd(input, i + 3) != NOT_FOUND) {
+                    qAt = i + 3;
+                }
+            } else if (c == '@') {
+                if (atAt == NOT_FOUND && pairEnd(input, i + 1) != NOT_FOUND) {
+                    atAt = i + 1;
+                }
+            } else if (c == '/' && placeAt == NOT_FOUND && input.startsWith(PLACE_PREFIX, i)) {
+                if (pairEnd(input, i + PLACE_PREFIX.length()) != NOT_FOUND) {
+                    placeAt = i + PLACE_PREFIX.length();
                 }
             }
         }
+        int pairStart = qAt != NOT_FOUND ? qAt : atAt != NOT_FOUND ? atAt : placeAt;
 
-        if (latitude != null) {
+        if (pairStart != NOT_FOUND) {
+            int latEnd = numberEnd(input, pairStart, length);
+            double latitude = parseNumber(input, pairStart, latEnd);
+            double longitude = parseNumber(input, latEnd + 1, numberEnd(input, latEnd + 1, length));
             log.info("Extracted coordinates from URL: {}, {}", latitude, longitude);
             return Location.builder()
                     .name("Custom Location")
@@ -132,6 +146,40 @@ public class LocationParserService {
                 .build();
     }
 
+    // End of "number,number" starting at from, or NOT_FOUND
+    private static int pairEnd(String input, int from) {
+        int latEnd = numberEnd(input, from, input.length());
+        if (latEnd == NOT_FOUND || latEnd == input.length() || input.charAt(latEnd) != ',') {
+            return NOT_FOUND;
+        }
+        return numberEnd(input, latEnd + 1, input.length());
+    }
+
+    // ==================== EIRCODES ====================
+
+    private boolean isEircode(String input, int start, int end) {
+        // routing key: letter + 2 alphanumerics
+        if (end - start < 7 || !isAsciiLetter(input.charAt(start))
+                || !isAsciiAlphanumeric(input.charAt(start + 1)) || !isAsciiAlphanumeric(input.charAt(start + 2))) {
+            return false;
+        }
+        // any whitespace run collapses to the one optional space
+        int i = start + 3;
+        while (i < end && isRegexSpace(input.charAt(i))) {
+            i++;
+        }
+        // unique identifier: 4 alphanumerics
+        if (end - i != 4) {
+            return false;
+        }
+        for (; i < end; i++) {
+            if (!isAsciiAlphanumeric(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Location parseEircode(String input) {
         String eircode = input.toUpperCase().trim();
         log.info("Parsed Eircode: {}", eircode);
@@ -151,4 +199,74 @@ public class LocationParserService {
                 .inputType(InputType.LOCATION_NAME)
                 .build();
     }
+
+    // ==================== SCANNING ====================
+
+    /**
+     * End of a {@code -?\d+\.\d+} number starting exactly at {@code from}, taking as many
+     * fraction digits as there are, or {@link #NOT_FOUND}.
+     */
+    static int numberEnd(String s, int from, int limit) {
+        int i = from;
+        if (i < limit && s.charAt(i) == '-') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < limit && isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == digitsStart || i == limit || s.charAt(i) != '.') {
+            return NOT_FOUND;
+        }
+        int fractionStart = ++i;
+        while (i < limit && isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i == fractionStart ? NOT_FOUND : i;
+    }
+
+    /**
+     * Value of a number already validated by {@link #numberEnd}. Same result as
+     * {@link Double#parseDouble}; short numbers (all coordinates in practice) skip the string.
+     */
+    static double parseNumber(String s, int from, int to) {
+        boolean negative = s.charAt(from) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+            if (++digits > MAX_FAST_DIGITS) {
+                return Double.parseDouble(s.substring(from, to));
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            if (fraction) {
+                fractionDigits++;
+            }
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    // java.util.regex \d, \s and ASCII-only case-insensitive classes
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return isAsciiLetter(c) || isDigit(c);
+    }
 }
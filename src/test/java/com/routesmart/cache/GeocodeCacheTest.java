@@ -0,0 +1,197 @@
+package com.routesmart.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.config.GeocodeCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodeCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GeocodeCacheConfig config;
+    private MutableClock clock;
+    private GeocodeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config = new GeocodeCacheConfig();
+        config.setTtl(Duration.ofDays(30));
+        config.setSnapshotPath(tempDir.resolve("geocode-cache.json").toString());
+        clock = new MutableClock();
+        cache = new GeocodeCache(config, new ObjectMapper(), clock);
+    }
+
+    // ==================== FORWARD LOOKUP TESTS ====================
+
+    @Test
+    void shouldHitForSameQueryWithDifferentCaseAndSpacing() {
+        // GIVEN
+        cache.putForward("Harare, Zimbabwe", -17.8292, 31.0522, "Harare, Zimbabwe");
+
+        // WHEN
+        var entry = cache.getForward("  harare,   ZIMBABWE ");
+
+        // THEN
+        assertTrue(entry.isPresent());
+        assertEquals(-17.8292, entry.get().latitude());
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void shouldMissForUnknownQuery() {
+        assertTrue(cache.getForward("Bulawayo").isEmpty());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        // GIVEN
+        config.setEnabled(false);
+
+        // WHEN
+        cache.putForward("Harare", -17.8292, 31.0522, "Harare, Zimbabwe");
+
+        // THEN
+        assertTrue(cache.getForward("Harare").isEmpty());
+    }
+
+    // ==================== REVERSE LOOKUP TESTS ====================
+
+    @Test
+    void shouldHitForCoordinatesWithinPrecision() {
+        // GIVEN
+        cache.putReverse(-17.829201, 31.052201, "Harare, Zimbabwe");
+
+        // WHEN / THEN - same at 5 decimals
+        assertEquals("Harare, Zimbabwe", cache.getReverse(-17.829204, 31.052198).orElseThrow().formattedAddress());
+        assertTrue(cache.getReverse(-17.82930, 31.05220).isEmpty());
+    }
+
+    // ==================== EXPIRY TESTS ====================
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        // GIVEN
+        cache.putForward("Harare", -17.8292, 31.0522, "Harare, Zimbabwe");
+
+        // WHEN
+        clock.advance(Duration.ofDays(29));
+        boolean presentBeforeTtl = cache.getForward("Harare").isPresent();
+        clock.advance(Duration.ofDays(2));
+
+        // THEN
+        assertTrue(presentBeforeTtl);
+        assertTrue(cache.getForward("Harare").isEmpty());
+    }
+
+    @Test
+    void shouldEvictWhenFull() {
+        // GIVEN
+        config.setMaxEntries(10);
+        cache = new GeocodeCache(config, new ObjectMapper(), clock);
+
+        // WHEN
+        for (int i = 0; i < 100; i++) {
+            cache.putForward("Stop " + i, i, i, "Stop " + i);
+        }
+        cache.cleanUp();
+
+        // THEN
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.stats().evictionCount() >= 90);
+    }
+
+    // ==================== SNAPSHOT TESTS ====================
+
+    @Test
+    void shouldRestoreEntriesFromSnapshot() {
+        // GIVEN
+        cache.putForward("Harare", -17.8292, 31.0522, "Harare, Zimbabwe");
+        cache.putReverse(-20.15, 28.58, "Bulawayo, Zimbabwe");
+        cache.saveSnapshot();
+
+        // WHEN
+        GeocodeCache restored = new GeocodeCache(config, new ObjectMapper(), clock);
+        restored.loadSnapshot();
+
+        // THEN
+        assertEquals(31.0522, restored.getForward("harare").orElseThrow().longitude());
+        assertEquals("Bulawayo, Zimbabwe", restored.getReverse(-20.15, 28.58).orElseThrow().formattedAddress());
+        assertFalse(Files.exists(tempDir.resolve("geocode-cache.json.tmp")));
+    }
+
+    @Test
+    void shouldKeepEntryAgeAcrossSnapshot() {
+        // GIVEN - entry is 20 days old when the snapshot is loaded
+        cache.putForward("Harare", -17.8292, 31.0522, "Harare, Zimbabwe");
+        cache.saveSnapshot();
+        clock.advance(Duration.ofDays(20));
+        GeocodeCache restored = new GeocodeCache(config, new ObjectMapper(), clock);
+        restored.loadSnapshot();
+
+        // WHEN
+        clock.advance(Duration.ofDays(11));
+
+        // THEN
+        assertTrue(restored.getForward("Harare").isEmpty());
+    }
+
+    @Test
+    void shouldSkipSnapshotWhenNothingChanged() {
+        // WHEN
+        cache.saveSnapshot();
+
+        // THEN
+        assertFalse(Files.exists(tempDir.resolve("geocode-cache.json")));
+    }
+
+    @Test
+    void shouldStartEmptyOnCorruptSnapshot() throws Exception {
+        // GIVEN
+        Files.writeString(tempDir.resolve("geocode-cache.json"), "{not json");
+
+        // WHEN
+        cache.loadSnapshot();
+
+        // THEN
+        assertEquals(0, cache.size());
+    }
+
+    // ==================== HELPER CLASSES ====================
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.routesmart.cache;
+
+import com.routesmart.config.SolveCacheConfig;
+import com.routesmart.dto.RouteResponse;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveCacheTest {
+
+    private SolveCacheConfig config;
+    private SolveCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config = new SolveCacheConfig();
+        cache = new SolveCache(config);
+    }
+
+    // ==================== SOLVE TESTS ====================
+
+    @Test
+    void shouldReturnStoredOrder() {
+        // GIVEN
+        SolveKey key = key();
+        cache.putOrder(key, new int[]{0, 2, 1});
+
+        // WHEN / THEN
+        assertArrayEquals(new int[]{0, 2, 1}, cache.getOrder(key).orElseThrow());
+        assertEquals(1, cache.solveStats().hitCount());
+    }
+
+    @Test
+    void shouldNotCacheSolvesWhenDisabled() {
+        // GIVEN
+        config.setEnabled(false);
+        SolveKey key = key();
+
+        // WHEN
+        cache.putOrder(key, new int[]{0, 2, 1});
+
+        // THEN
+        assertTrue(cache.getOrder(key).isEmpty());
+    }
+
+    // ==================== ROUTE TESTS ====================
+
+    @Test
+    void shouldFindRouteByIdAndByRequest() {
+        // GIVEN
+        RouteResponse route = RouteResponse.builder().routeId("abc").totalDistanceKm(12.5).build();
+        cache.putRoute(List.of("Harare", "Bulawayo"), RouteType.ONE_WAY_OPEN_END, route);
+
+        // WHEN / THEN
+        assertEquals(12.5, cache.getRoute("abc").orElseThrow().getTotalDistanceKm());
+        assertEquals("abc", cache.getRouteForRequest(List.of(" Harare", "Bulawayo "), RouteType.ONE_WAY_OPEN_END)
+                .orElseThrow().getRouteId());
+        assertTrue(cache.getRouteForRequest(List.of("Harare", "Bulawayo"), RouteType.ROUND_TRIP).isEmpty());
+        assertTrue(cache.getRouteForRequest(List.of("Harare", "Bulawayo", "Gweru"), RouteType.ONE_WAY_OPEN_END).isEmpty());
+    }
+
+    @Test
+    void shouldNotLeakPerCallerFields() {
+        // GIVEN
+        RouteResponse route = RouteResponse.builder().routeId("abc").remainingRequests(4).build();
+        cache.putRoute(List.of("Harare", "Bulawayo"), RouteType.ONE_WAY_OPEN_END, route);
+
+        // WHEN
+        cache.getRoute("abc").orElseThrow().setRemainingRequests(1);
+
+        // THEN
+        assertNull(cache.getRoute("abc").orElseThrow().getRemainingRequests());
+    }
+
+    @Test
+    void shouldKeepEachWordingsLabelsForTheSameProblem() {
+        // GIVEN - one problem, asked for by name and by coordinates
+        List<String> byName = List.of("Harare", "Bulawayo", "Gweru");
+        List<String> byCoordinates = List.of("-17.8292,31.0522", "-20.15,28.58", "-19.45,29.8167");
+        String nameId = SolveCache.routeId(key(), SolveCache.requestKey(byName, RouteType.ONE_WAY_OPEN_END));
+        String coordinateId = SolveCache.routeId(key(), SolveCache.requestKey(byCoordinates, RouteType.ONE_WAY_OPEN_END));
+
+        // WHEN
+        cache.putRoute(byName, RouteType.ONE_WAY_OPEN_END, RouteResponse.builder()
+                .routeId(nameId).routeDescription(List.of("Start at Harare")).build());
+        cache.putRoute(byCoordinates, RouteType.ONE_WAY_OPEN_END, RouteResponse.builder()
+                .routeId(coordinateId).routeDescription(List.of("Start at -17.8292,31.0522")).build());
+
+        // THEN
+        assertNotEquals(nameId, coordinateId);
+        assertEquals(List.of("Start at Harare"), cache.getRoute(nameId).orElseThrow().getRouteDescription());
+        assertEquals(List.of("Start at Harare"), cache.getRouteForRequest(byName, RouteType.ONE_WAY_OPEN_END)
+                .orElseThrow().getRouteDescription());
+        assertEquals(List.of("Start at -17.8292,31.0522"), cache.getRouteForRequest(byCoordinates,
+                RouteType.ONE_WAY_OPEN_END).orElseThrow().getRouteDescription());
+        assertEquals(nameId, SolveCache.routeId(key(), SolveCache.requestKey(List.of(" Harare", "Bulawayo", "Gweru "),
+                RouteType.ONE_WAY_OPEN_END)));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private SolveKey key() {
+        List<Location> locations = List.of(
+                Location.builder().latitude(-17.8292).longitude(31.0522).build(),
+                Location.builder().latitude(-20.15).longitude(28.58).build(),
+                Location.builder().latitude(-19.45).longitude(29.8167).build());
+        DistanceMatrix matrix = DistanceMatrix.ofDistances(new int[][]{{0, 440, 275}, {440, 0, 165}, {275, 165, 0}});
+        return SolveKey.of(locations, matrix, RouteType.ONE_WAY_OPEN_END);
+    }
+}
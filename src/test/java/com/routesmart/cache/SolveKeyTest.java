@@ -0,0 +1,119 @@
+package com.routesmart.cache;
+
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveKeyTest {
+
+    // Harare, Bulawayo, Mutare, Gweru
+    private static final double[][] COORDS = {
+            {-17.8292, 31.0522}, {-20.1500, 28.5800}, {-18.9707, 32.6709}, {-19.4500, 29.8167}
+    };
+
+    // ==================== CANONICAL ORDER TESTS ====================
+
+    @Test
+    void shouldHashSameStopsInDifferentOrderTheSame() {
+        // GIVEN - same start, free stops shuffled
+        int[] permutation = {0, 3, 1, 2};
+
+        // WHEN
+        SolveKey original = key(new int[]{0, 1, 2, 3}, RouteType.ONE_WAY_OPEN_END);
+        SolveKey shuffled = key(permutation, RouteType.ONE_WAY_OPEN_END);
+
+        // THEN
+        assertEquals(original.id(), shuffled.id());
+    }
+
+    @Test
+    void shouldTranslateOrderBetweenCallers() {
+        // GIVEN - caller B lists the stops as A's {0, 3, 1, 2}
+        int[] permutation = {0, 3, 1, 2};
+        SolveKey a = key(new int[]{0, 1, 2, 3}, RouteType.ONE_WAY_OPEN_END);
+        SolveKey b = key(permutation, RouteType.ONE_WAY_OPEN_END);
+
+        // WHEN - A solved 0 -> 2 -> 3 -> 1
+        int[] canonical = a.toCanonical(new int[]{0, 2, 3, 1});
+        int[] forB = b.toCaller(canonical);
+
+        // THEN - same physical stops, in B's indices
+        for (int k = 0; k < forB.length; k++) {
+            assertEquals(new int[]{0, 2, 3, 1}[k], permutation[forB[k]]);
+        }
+    }
+
+    @Test
+    void shouldKeepStartAnchored() {
+        // WHEN - different start
+        SolveKey a = key(new int[]{0, 1, 2, 3}, RouteType.ONE_WAY_OPEN_END);
+        SolveKey b = key(new int[]{1, 0, 2, 3}, RouteType.ONE_WAY_OPEN_END);
+
+        // THEN
+        assertNotEquals(a.id(), b.id());
+    }
+
+    @Test
+    void shouldKeepFixedEndAnchored() {
+        // WHEN - only the middle stops swapped vs. the end swapped in
+        SolveKey a = key(new int[]{0, 1, 2, 3}, RouteType.ONE_WAY_FIXED_END);
+        SolveKey b = key(new int[]{0, 2, 1, 3}, RouteType.ONE_WAY_FIXED_END);
+        SolveKey c = key(new int[]{0, 1, 3, 2}, RouteType.ONE_WAY_FIXED_END);
+
+        // THEN
+        assertEquals(a.id(), b.id());
+        assertNotEquals(a.id(), c.id());
+    }
+
+    @Test
+    void shouldHashRouteTypeAndDistances() {
+        // GIVEN
+        SolveKey oneWay = key(new int[]{0, 1, 2, 3}, RouteType.ONE_WAY_OPEN_END);
+        SolveKey roundTrip = key(new int[]{0, 1, 2, 3}, RouteType.ROUND_TRIP);
+        DistanceMatrix changed = matrix(new int[]{0, 1, 2, 3});
+        changed.set(1, 2, 1, 1);
+
+        // WHEN
+        SolveKey otherDistances = SolveKey.of(locations(new int[]{0, 1, 2, 3}), changed, RouteType.ONE_WAY_OPEN_END);
+
+        // THEN
+        assertNotEquals(oneWay.id(), roundTrip.id());
+        assertNotEquals(oneWay.id(), otherDistances.id());
+        assertEquals(32, oneWay.id().length());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    // Key for the stops listed in the given order of COORDS
+    private SolveKey key(int[] permutation, RouteType routeType) {
+        return SolveKey.of(locations(permutation), matrix(permutation), routeType);
+    }
+
+    private List<Location> locations(int[] permutation) {
+        List<Location> locations = new ArrayList<>();
+        for (int p : permutation) {
+            locations.add(Location.builder().latitude(COORDS[p][0]).longitude(COORDS[p][1]).build());
+        }
+        return locations;
+    }
+
+    // Asymmetric, so a wrong remap of rows or columns changes the hash
+    private DistanceMatrix matrix(int[] permutation) {
+        int n = permutation.length;
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int from = permutation[i];
+                int to = permutation[j];
+                matrix.set(i, j, from == to ? 0 : 1000 * (from + 1) + 7 * to, 0);
+            }
+        }
+        return matrix;
+    }
+}
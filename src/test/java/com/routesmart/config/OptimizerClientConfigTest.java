@@ -0,0 +1,189 @@
+package com.routesmart.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerClientConfigTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> contentEncodings = new CopyOnWriteArrayList<>();
+
+    private OptimizerConfig optimizerConfig;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub optimizer: echoes the decoded request size, /slow answers after a second
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/echo", this::echo);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "late");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        optimizerConfig = new OptimizerConfig();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+    }
+
+    private void echo(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String encoding = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        contentEncodings.add(String.valueOf(encoding));
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(encoding)) {
+            body = new GZIPInputStream(body);
+        }
+        respond(exchange, String.valueOf(body.readAllBytes().length));
+    }
+
+    private static void respond(HttpExchange exchange, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private RestTemplate restTemplate() {
+        OptimizerClientConfig clientConfig = new OptimizerClientConfig();
+        connectionManager = clientConfig.optimizerConnectionManager(optimizerConfig);
+        httpClient = clientConfig.optimizerHttpClient(connectionManager, optimizerConfig);
+        return clientConfig.optimizerRestTemplate(new RestTemplateBuilder(), httpClient, optimizerConfig);
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    // ==================== CONNECTION POOL TESTS ====================
+
+    @Test
+    void shouldReuseOneConnectionForSequentialCalls() {
+        // GIVEN
+        RestTemplate restTemplate = restTemplate();
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            restTemplate.postForObject(baseUrl + "/echo", json("{}"), String.class);
+        }
+
+        // THEN
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    void shouldApplyPoolLimitsPerRoute() {
+        // GIVEN
+        optimizerConfig.getHttp().setMaxConnectionsPerRoute(3);
+
+        // WHEN
+        restTemplate();
+
+        // THEN
+        assertEquals(3, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(50, connectionManager.getMaxTotal());
+    }
+
+    // ==================== COMPRESSION TESTS ====================
+
+    @Test
+    void shouldGzipLargeJsonRequests() {
+        // GIVEN
+        RestTemplate restTemplate = restTemplate();
+        String body = "[" + "123456,".repeat(5000) + "0]";
+
+        // WHEN
+        String received = restTemplate.postForObject(baseUrl + "/echo", json(body), String.class);
+
+        // THEN - the stub decoded it back to the original size
+        assertEquals(List.of("gzip"), contentEncodings);
+        assertEquals(String.valueOf(body.length()), received);
+    }
+
+    @Test
+    void shouldSendSmallRequestsUncompressed() {
+        // GIVEN
+        RestTemplate restTemplate = restTemplate();
+
+        // WHEN
+        restTemplate.postForObject(baseUrl + "/echo", json("{\"size\":3}"), String.class);
+
+        // THEN
+        assertEquals(List.of("null"), contentEncodings);
+    }
+
+    @Test
+    void shouldNotCompressWhenDisabled() {
+        // GIVEN
+        optimizerConfig.getHttp().setCompressRequests(false);
+        RestTemplate restTemplate = restTemplate();
+
+        // WHEN
+        restTemplate.postForObject(baseUrl + "/echo", json("[" + "1,".repeat(20_000) + "0]"), String.class);
+
+        // THEN
+        assertEquals(List.of("null"), contentEncodings);
+    }
+
+    // ==================== TIMEOUT TESTS ====================
+
+    @Test
+    void shouldGiveUpOnSlowResponseAfterResponseTimeout() {
+        // GIVEN
+        optimizerConfig.getHttp().setResponseTimeout(Duration.ofMillis(200));
+        RestTemplate restTemplate = restTemplate();
+
+        // WHEN
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // THEN
+        assertTrue(elapsedMs < 900, "took " + elapsedMs + " ms");
+    }
+}
@@ -0,0 +1,127 @@
+package com.routesmart.geocode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTest {
+
+    private Gazetteer gazetteer;
+
+    @BeforeEach
+    void setUp() {
+        gazetteer = Gazetteer.builder()
+                .add("Harare", -17.8292, 31.0522, List.of("Salisbury"))
+                .add("Mbare Musika", -17.86, 31.043, List.of("Mbare Market"))
+                .add("Mbare", -17.8556, 31.0386, List.of())
+                .add("Gweru", -19.45, 29.8167, List.of("Gwelo"))
+                .add("Hatfield", -17.88, 31.08, List.of())
+                .add("Highfield", -17.8789, 30.9939, List.of())
+                .add("Highfield Bulawayo", -20.1, 28.5, List.of())
+                .build();
+    }
+
+    // ==================== EXACT LOOKUP TESTS ====================
+
+    @Test
+    void shouldFindByNameIgnoringCaseSpacesAndPunctuation() {
+        assertEquals("Mbare Musika", gazetteer.find("  MBARE-musika ").orElseThrow().name());
+        assertEquals("Harare", gazetteer.find("harare").orElseThrow().name());
+    }
+
+    @Test
+    void shouldFoldAccents() {
+        assertEquals("Mbare", gazetteer.find("Mbaré").orElseThrow().name());
+    }
+
+    @Test
+    void shouldFindByAlias() {
+        // WHEN
+        Gazetteer.Entry entry = gazetteer.find("Salisbury").orElseThrow();
+
+        // THEN
+        assertEquals("Harare", entry.name());
+        assertEquals(-17.8292, entry.latitude());
+    }
+
+    @Test
+    void shouldNotMatchPrefixOfLongerKey() {
+        assertTrue(gazetteer.find("Mbare Mus").isEmpty());
+        assertTrue(gazetteer.find("").isEmpty());
+    }
+
+    // ==================== FUZZY LOOKUP TESTS ====================
+
+    @Test
+    void shouldMatchWithinOneEdit() {
+        // substitution, deletion, insertion and adjacent swap
+        assertMatch("Gweru", 1, gazetteer.findClosest("Gweri", 1));
+        assertMatch("Gweru", 1, gazetteer.findClosest("Gwru", 1));
+        assertMatch("Harare", 1, gazetteer.findClosest("Hararre", 1));
+        assertMatch("Harare", 1, gazetteer.findClosest("Hraare", 1));
+    }
+
+    @Test
+    void shouldPreferExactMatch() {
+        assertMatch("Mbare", 0, gazetteer.findClosest("Mbare", 1));
+    }
+
+    @Test
+    void shouldReturnEmptyWhenTooManyEdits() {
+        assertTrue(gazetteer.findClosest("Hrraee", 1).isEmpty());
+        assertTrue(gazetteer.findClosest("Gweri", 0).isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenClosestIsAmbiguous() {
+        // GIVEN
+        Gazetteer tied = Gazetteer.builder()
+                .add("Ruwa", -17.89, 31.24, List.of())
+                .add("Rusa", -18.0, 31.0, List.of())
+                .build();
+
+        // WHEN / THEN - "Ruta" is one substitution from both
+        assertTrue(tied.findClosest("Ruta", 1).isEmpty());
+    }
+
+    @Test
+    void shouldTreatKeySharedByTwoPlacesAsAmbiguous() {
+        // GIVEN
+        Gazetteer shared = Gazetteer.builder()
+                .add("Highfield", -17.8789, 30.9939, List.of())
+                .add("Highfield", -20.1, 28.5, List.of())
+                .build();
+
+        // WHEN / THEN
+        assertTrue(shared.find("Highfield").isEmpty());
+        assertTrue(shared.findClosest("Highfeld", 1).isEmpty());
+    }
+
+    // ==================== SIZE TESTS ====================
+
+    @Test
+    void shouldShareCommonPrefixes() {
+        // GIVEN - "mbare" is a prefix of "mbaremusika" and "mbaremarket"
+        Gazetteer small = Gazetteer.builder()
+                .add("Mbare", 0, 0, List.of())
+                .add("Mbare Musika", 0, 0, List.of("Mbare Market"))
+                .build();
+
+        // THEN - root + mbare (5) + m (1) + usika (5) + arket (5)
+        assertEquals(17, small.nodeCount());
+        assertEquals(2, small.size());
+        assertTrue(small.footprintBytes() > 0);
+    }
+
+    // ==================== HELPERS ====================
+
+    private static void assertMatch(String name, int edits, Optional<Gazetteer.Match> match) {
+        assertTrue(match.isPresent(), "expected " + name);
+        assertEquals(name, match.get().entry().name());
+        assertEquals(edits, match.get().edits());
+    }
+}
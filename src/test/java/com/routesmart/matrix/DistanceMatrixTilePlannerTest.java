@@ -0,0 +1,84 @@
+package com.routesmart.matrix;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTilePlannerTest {
+
+    // ==================== TILING TESTS ====================
+
+    @Test
+    void shouldKeepSmallBlockWhole() {
+        // GIVEN
+        MatrixBlock block = block(10, 10);
+
+        // WHEN
+        List<MatrixBlock> tiles = DistanceMatrixTilePlanner.tile(block, 25, 25, 100);
+
+        // THEN
+        assertEquals(1, tiles.size());
+        assertEquals(100, tiles.get(0).elements());
+    }
+
+    @Test
+    void shouldUseWideTilesForSingleRow() {
+        // GIVEN - one new stop against 60 cached ones
+        MatrixBlock block = block(1, 60);
+
+        // WHEN
+        List<MatrixBlock> tiles = DistanceMatrixTilePlanner.tile(block, 25, 25, 100);
+
+        // THEN - 25 destinations per request, not 10
+        assertEquals(3, tiles.size());
+        assertCoversWithinLimits(block, tiles, 25, 25, 100);
+    }
+
+    @Test
+    void shouldTileLargeMatrixWithinLimits() {
+        // GIVEN
+        MatrixBlock block = block(500, 500);
+
+        // WHEN
+        List<MatrixBlock> tiles = DistanceMatrixTilePlanner.tile(block, 25, 25, 100);
+
+        // THEN
+        assertEquals(2500, tiles.size());
+        assertCoversWithinLimits(block, tiles, 25, 25, 100);
+    }
+
+    @Test
+    void shouldSpreadUnevenSizes() {
+        // GIVEN
+        MatrixBlock block = block(23, 37);
+
+        // WHEN
+        List<MatrixBlock> tiles = DistanceMatrixTilePlanner.tile(block, 25, 25, 100);
+
+        // THEN
+        assertCoversWithinLimits(block, tiles, 25, 25, 100);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private MatrixBlock block(int origins, int destinations) {
+        return new MatrixBlock(IntStream.range(0, origins).toArray(),
+                IntStream.range(0, destinations).map(j -> j + 1000).toArray());
+    }
+
+    private void assertCoversWithinLimits(MatrixBlock block, List<MatrixBlock> tiles,
+                                          int maxOrigins, int maxDestinations, int maxElements) {
+        long covered = 0;
+        for (MatrixBlock tile : tiles) {
+            assertTrue(tile.origins().length <= maxOrigins);
+            assertTrue(tile.destinations().length <= maxDestinations);
+            assertTrue(tile.elements() <= maxElements);
+            covered += tile.elements();
+        }
+        // tiles are disjoint, so covering every cell means the counts match
+        assertEquals(block.elements(), covered);
+    }
+}
@@ -0,0 +1,93 @@
+package com.routesmart.matrix;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MissingCellPlannerTest {
+
+    // ==================== PLANNING TESTS ====================
+
+    @Test
+    void shouldPlanNothingWhenNoCellsMissing() {
+        assertTrue(MissingCellPlanner.plan(new boolean[4][4], 4).isEmpty());
+    }
+
+    @Test
+    void shouldFetchFullMatrixAsOneBlockWhenCold() {
+        // GIVEN
+        boolean[][] missing = missing(5, (i, j) -> i != j);
+
+        // WHEN
+        List<MatrixBlock> blocks = MissingCellPlanner.plan(missing, 4);
+
+        // THEN - every row misses a different column (its own diagonal is excluded),
+        // merged into a single 5x5 call
+        assertEquals(1, blocks.size());
+        assertEquals(25, blocks.get(0).elements());
+    }
+
+    @Test
+    void shouldFetchOnlyRowAndColumnOfNewStop() {
+        // GIVEN - stops 0..8 cached, stop 9 is new
+        int n = 10;
+        boolean[][] missing = missing(n, (i, j) -> i != j && (i == 9 || j == 9));
+
+        // WHEN
+        List<MatrixBlock> blocks = MissingCellPlanner.plan(missing, 4);
+
+        // THEN
+        assertEquals(2, blocks.size());
+        assertTrue(blocks.stream().mapToInt(MatrixBlock::elements).sum() <= 2 * n);
+        assertCovers(missing, blocks);
+    }
+
+    @Test
+    void shouldRespectBlockLimit() {
+        // GIVEN - a scattered pattern with many distinct rows
+        int n = 30;
+        boolean[][] missing = missing(n, (i, j) -> i != j && (i * 7 + j * 3) % 5 == 0);
+
+        // WHEN
+        List<MatrixBlock> blocks = MissingCellPlanner.plan(missing, 3);
+
+        // THEN
+        assertTrue(blocks.size() <= 3);
+        assertCovers(missing, blocks);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private interface CellPredicate {
+        boolean test(int i, int j);
+    }
+
+    private boolean[][] missing(int n, CellPredicate predicate) {
+        boolean[][] missing = new boolean[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                missing[i][j] = predicate.test(i, j);
+            }
+        }
+        return missing;
+    }
+
+    private void assertCovers(boolean[][] missing, List<MatrixBlock> blocks) {
+        int n = missing.length;
+        boolean[][] covered = new boolean[n][n];
+        for (MatrixBlock block : blocks) {
+            for (int i : block.origins()) {
+                for (int j : block.destinations()) {
+                    covered[i][j] = true;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertTrue(!missing[i][j] || covered[i][j], "cell " + i + "," + j + " not covered");
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.routesmart.matrix;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ==================== FILE FORMAT TESTS ====================
+
+    @Test
+    void shouldReadBackWrittenGraph() throws Exception {
+        // GIVEN - 0 -> 1, 0 -> 2, 2 -> 1
+        Path file = tempDir.resolve("graph.rsg");
+        RoadGraph.write(file,
+                new int[]{-17_800_000, -17_810_000, -17_820_000},
+                new int[]{31_000_000, 31_010_000, 31_020_000},
+                new int[]{0, 2, 2, 3},
+                new int[]{1, 2, 1},
+                new int[]{1000, 1500, 700},
+                new int[]{60_000, 90_000, 40_000});
+
+        // WHEN
+        RoadGraph graph = RoadGraph.open(file);
+
+        // THEN
+        assertEquals(3, graph.nodeCount());
+        assertEquals(3, graph.edgeCount());
+        assertEquals(-17.81, graph.latitude(1), 1e-9);
+        assertEquals(31.02, graph.longitude(2), 1e-9);
+        assertEquals(2, graph.firstEdge(1));
+        assertEquals(2, graph.firstEdge(2));
+        assertEquals(1, graph.target(2));
+        assertEquals(1500, graph.meters(1));
+        assertEquals(40_000, graph.millis(2));
+    }
+
+    @Test
+    void shouldRejectFileWithWrongMagic() throws Exception {
+        // GIVEN
+        Path file = tempDir.resolve("graph.rsg");
+        Files.write(file, new byte[]{'N', 'O', 'P', 'E', 0, 0, 0, 0, 0, 0, 0, 0});
+
+        // WHEN / THEN
+        assertThrows(IllegalArgumentException.class, () -> RoadGraph.open(file));
+    }
+
+    @Test
+    void shouldRejectTruncatedFile() throws Exception {
+        // GIVEN
+        Path file = tempDir.resolve("graph.rsg");
+        RoadGraph.write(file, new int[]{0, 0}, new int[]{0, 0}, new int[]{0, 1, 1},
+                new int[]{1}, new int[]{10}, new int[]{10});
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+
+        // WHEN / THEN
+        assertThrows(IllegalArgumentException.class, () -> RoadGraph.open(file));
+    }
+
+    // ==================== SNAPPING TESTS ====================
+
+    @Test
+    void shouldSnapToNearestNodeAcrossGridCells() throws Exception {
+        // GIVEN - nodes either side of a 0.01 degree cell boundary
+        Path file = tempDir.resolve("graph.rsg");
+        RoadGraph.write(file,
+                new int[]{-17_829_000, -17_831_000, -17_900_000},
+                new int[]{31_045_000, 31_051_000, 31_100_000},
+                new int[]{0, 0, 0, 0}, new int[0], new int[0], new int[0]);
+        RoadGraph graph = RoadGraph.open(file);
+
+        // WHEN / THEN
+        assertEquals(1, graph.nearestNode(-17.8305, 31.0500, 2000));
+        assertEquals(0, graph.nearestNode(-17.8291, 31.0460, 2000));
+        assertEquals(2, graph.nearestNode(-17.8990, 31.1000, 2000));
+        assertEquals(-1, graph.nearestNode(-18.5, 32.0, 2000));
+    }
+
+    @Test
+    void shouldMeasureGreatCircleDistance() {
+        // Harare to Bulawayo is roughly 365 km as the crow flies
+        double meters = RoadGraph.distanceMeters(-17.8292, 31.0522, -20.1500, 28.5800);
+        assertEquals(365_000, meters, 5_000);
+    }
+}
@@ -0,0 +1,123 @@
+package com.routesmart.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.dto.OptimizationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTest {
+
+    // ==================== CELL TESTS ====================
+
+    @Test
+    void shouldStoreDistanceAndDurationPerCell() {
+        // GIVEN
+        DistanceMatrix matrix = new DistanceMatrix(3);
+
+        // WHEN
+        matrix.set(0, 2, 1500, 120);
+        matrix.set(2, 0, 1700, 130);
+
+        // THEN
+        assertEquals(1500, matrix.distance(0, 2));
+        assertEquals(130, matrix.duration(2, 0));
+        assertEquals(1700, matrix.distances()[2 * 3]);
+        assertTrue(matrix.isReachable(0, 2));
+    }
+
+    @Test
+    void shouldMarkUnreachableCellsWithPenalty() {
+        // GIVEN
+        DistanceMatrix matrix = new DistanceMatrix(9);
+
+        // WHEN - cell 66 lives in the second mask word
+        matrix.setUnreachable(7, 3);
+
+        // THEN
+        assertFalse(matrix.isReachable(7, 3));
+        assertTrue(matrix.isReachable(3, 7));
+        assertEquals(DistanceMatrix.UNREACHABLE_PENALTY, matrix.distance(7, 3));
+
+        // WHEN - a later result overwrites it
+        matrix.set(7, 3, 800, 60);
+
+        // THEN
+        assertTrue(matrix.isReachable(7, 3));
+    }
+
+    @Test
+    void shouldConvertMaxValueFromJaggedArray() {
+        // GIVEN
+        int[][] distances = {{0, 100}, {Integer.MAX_VALUE, 0}};
+
+        // WHEN
+        DistanceMatrix matrix = DistanceMatrix.ofDistances(distances);
+
+        // THEN
+        assertEquals(100, matrix.distance(0, 1));
+        assertFalse(matrix.isReachable(1, 0));
+        assertArrayEquals(new int[]{DistanceMatrix.UNREACHABLE_PENALTY, 0}, matrix.toDistanceArray()[1]);
+    }
+
+    @Test
+    void shouldKeepUnreachableBitsWrittenFromParallelTiles() throws Exception {
+        // GIVEN - two "tiles" splitting every row's destinations, so they share mask words
+        int n = 64;
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        CountDownLatch start = new CountDownLatch(1);
+        Runnable left = () -> fill(matrix, 0, n / 2, start);
+        Runnable right = () -> fill(matrix, n / 2, n, start);
+
+        // WHEN
+        for (int round = 0; round < 20; round++) {
+            Thread a = Thread.ofPlatform().start(left);
+            Thread b = Thread.ofPlatform().start(right);
+            start.countDown();
+            a.join();
+            b.join();
+        }
+
+        // THEN - odd destinations unreachable, none lost
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(j % 2 == 0, matrix.isReachable(i, j), "cell " + i + "," + j);
+            }
+        }
+    }
+
+    private static void fill(DistanceMatrix matrix, int fromColumn, int toColumn, CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < matrix.size(); i++) {
+            for (int j = fromColumn; j < toColumn; j++) {
+                if (j % 2 == 0) {
+                    matrix.set(i, j, 100, 10);
+                } else {
+                    matrix.setUnreachable(i, j);
+                }
+            }
+        }
+    }
+
+    // ==================== SERIALIZATION TESTS ====================
+
+    @Test
+    void shouldSerializeDistancesAsNestedArrays() throws Exception {
+        // GIVEN
+        DistanceMatrix matrix = DistanceMatrix.ofDistances(new int[][]{{0, 5, 7}, {5, 0, 9}, {7, Integer.MAX_VALUE, 0}});
+        OptimizationRequest request = OptimizationRequest.builder().distanceMatrix(matrix).build();
+
+        // WHEN
+        String json = new ObjectMapper().writeValueAsString(request);
+
+        // THEN
+        assertTrue(json.contains("\"distance_matrix\":[[0,5,7],[5,0,9],[7,10000000,0]]"), json);
+    }
+}
@@ -0,0 +1,242 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.InputType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactTspSolverTest {
+
+    private ExactTspSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new ExactTspSolver();
+    }
+
+    // ==================== SMALL ROUTES ====================
+
+    @Test
+    void shouldReturnSingleLocation() {
+        // GIVEN
+        int[][] distanceMatrix = {{0}};
+
+        // WHEN
+        int[] order = solver.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP);
+
+        // THEN
+        assertArrayEquals(new int[]{0}, order);
+    }
+
+    @Test
+    void shouldSolveTwoLocationRoundTrip() {
+        // GIVEN - A to B is 100, B to A is 150
+        int[][] distanceMatrix = {
+                {0, 100},
+                {150, 0}
+        };
+
+        // WHEN
+        OptimizationResult result = solver.solve(createLocations(2), DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP);
+
+        // THEN
+        assertEquals(List.of(0, 1), result.getOptimizedOrder());
+        assertEquals(250, result.getTotalDistanceMeters());
+    }
+
+    @Test
+    void shouldFollowObviousPathOneWay() {
+        // GIVEN - A->B->C is 20, going A->C directly is 100
+        int[][] distanceMatrix = {
+                {0, 10, 100},
+                {10, 0, 10},
+                {100, 10, 0}
+        };
+
+        // WHEN
+        OptimizationResult result = solver.solve(createLocations(3), DistanceMatrix.ofDistances(distanceMatrix), RouteType.ONE_WAY_OPEN_END);
+
+        // THEN
+        assertEquals(List.of(0, 1, 2), result.getOptimizedOrder());
+        assertEquals(20, result.getTotalDistanceMeters());
+    }
+
+    @Test
+    void shouldKeepFixedEndLast() {
+        // GIVEN - open end would finish at 1, but the last location is the fixed end
+        int[][] distanceMatrix = {
+                {0, 50, 10, 10},
+                {50, 0, 10, 10},
+                {10, 10, 0, 90},
+                {10, 10, 90, 0}
+        };
+
+        // WHEN
+        int[] order = solver.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ONE_WAY_FIXED_END);
+
+        // THEN
+        assertEquals(0, order[0]);
+        assertEquals(3, order[3]);
+        assertArrayEquals(new int[]{0, 2, 1, 3}, order);
+    }
+
+    // ==================== OPTIMALITY ====================
+
+    @Test
+    void shouldMatchBruteForceForAllRouteTypes() {
+        // GIVEN - random asymmetric matrices
+        Random random = new Random(42);
+        for (int n = 3; n <= 8; n++) {
+            int[][] distanceMatrix = randomMatrix(random, n);
+
+            for (RouteType routeType : RouteType.values()) {
+                // WHEN
+                int[] order = solver.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), routeType);
+
+                // THEN
+                assertValidOrder(order, n, routeType);
+                assertEquals(bruteForce(distanceMatrix, routeType), cost(distanceMatrix, order, routeType),
+                        "n=" + n + ", " + routeType);
+            }
+        }
+    }
+
+    @Test
+    void shouldSolveLargestSupportedSize() {
+        // GIVEN
+        int n = ExactTspSolver.MAX_LOCATIONS;
+        int[][] distanceMatrix = randomMatrix(new Random(7), n);
+
+        // WHEN
+        int[] order = solver.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP);
+
+        // THEN
+        assertValidOrder(order, n, RouteType.ROUND_TRIP);
+        assertTrue(solver.supports(n));
+        assertFalse(solver.supports(n + 1));
+    }
+
+    @Test
+    void shouldNotOverflowOnUnreachablePairs() {
+        // GIVEN - Distance Matrix API marks failed cells with Integer.MAX_VALUE
+        int max = Integer.MAX_VALUE;
+        int[][] distanceMatrix = {
+                {0, max, 10, max},
+                {max, 0, 10, 10},
+                {10, 10, 0, max},
+                {10, max, max, 0}
+        };
+
+        // WHEN
+        int[] order = solver.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP);
+
+        // THEN - 0 -> 2 -> 1 -> 3 -> 0 uses only reachable legs
+        assertArrayEquals(new int[]{0, 2, 1, 3}, order);
+    }
+
+    @Test
+    void shouldDescribeRouteLikePythonOptimizer() {
+        // GIVEN
+        int[][] distanceMatrix = {
+                {0, 1500},
+                {2500, 0}
+        };
+
+        // WHEN
+        OptimizationResult result = solver.solve(createLocations(2), DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP);
+
+        // THEN
+        assertEquals(List.of(
+                "Start at Location 0",
+                "Go to Location 1 (1.50 km)",
+                "Return to Location 0 (2.50 km)"), result.getRouteDescription());
+        assertEquals(4.0, result.getTotalDistanceKm());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private List<Location> createLocations(int n) {
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            locations.add(Location.builder()
+                    .name("Location " + i)
+                    .latitude(-17.8 - i * 0.01)
+                    .longitude(31.0 + i * 0.01)
+                    .inputType(InputType.LOCATION_NAME)
+                    .build());
+        }
+        return locations;
+    }
+
+    private int[][] randomMatrix(Random random, int n) {
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = i == j ? 0 : 100 + random.nextInt(10_000);
+            }
+        }
+        return matrix;
+    }
+
+    private void assertValidOrder(int[] order, int n, RouteType routeType) {
+        assertEquals(n, order.length);
+        assertEquals(0, order[0]);
+        if (routeType == RouteType.ONE_WAY_FIXED_END) {
+            assertEquals(n - 1, order[n - 1]);
+        }
+        boolean[] seen = new boolean[n];
+        for (int idx : order) {
+            assertFalse(seen[idx], "duplicate " + idx);
+            seen[idx] = true;
+        }
+    }
+
+    private long cost(int[][] matrix, int[] order, RouteType routeType) {
+        long total = 0;
+        for (int i = 1; i < order.length; i++) {
+            total += matrix[order[i - 1]][order[i]];
+        }
+        if (routeType == RouteType.ROUND_TRIP) {
+            total += matrix[order[order.length - 1]][order[0]];
+        }
+        return total;
+    }
+
+    private long bruteForce(int[][] matrix, RouteType routeType) {
+        int n = matrix.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int last = routeType == RouteType.ONE_WAY_FIXED_END ? n - 2 : n - 1;
+        return permute(matrix, order, 1, last, routeType);
+    }
+
+    private long permute(int[][] matrix, int[] order, int from, int last, RouteType routeType) {
+        if (from >= last) {
+            return cost(matrix, order, routeType);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = from; i <= last; i++) {
+            swap(order, from, i);
+            best = Math.min(best, permute(matrix, order, from + 1, last, routeType));
+            swap(order, from, i);
+        }
+        return best;
+    }
+
+    private void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
@@ -0,0 +1,220 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.dto.SearchStats;
+import com.routesmart.enums.RouteType;
+import com.routesmart.model.DistanceMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicTspSolverTest {
+
+    private HeuristicTspSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new HeuristicTspSolver();
+    }
+
+    // ==================== ROUTE VALIDITY ====================
+
+    @Test
+    void shouldVisitEveryLocationOnceForAllRouteTypes() {
+        // GIVEN
+        int n = 300;
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(1), n);
+
+        for (RouteType routeType : RouteType.values()) {
+            // WHEN
+            HeuristicTspSolver.Solution solution = solver.search(DistanceMatrix.ofDistances(distanceMatrix), routeType, Duration.ofSeconds(5));
+
+            // THEN
+            int[] order = solution.order();
+            assertEquals(n, order.length);
+            assertEquals(0, order[0]);
+            if (routeType == RouteType.ONE_WAY_FIXED_END) {
+                assertEquals(n - 1, order[n - 1]);
+            }
+            boolean[] seen = new boolean[n];
+            for (int idx : order) {
+                assertFalse(seen[idx], "duplicate " + idx);
+                seen[idx] = true;
+            }
+            assertEquals(cost(distanceMatrix, order, routeType), solution.stats().getFinalDistanceMeters());
+        }
+    }
+
+    // ==================== SOLUTION QUALITY ====================
+
+    @Test
+    void shouldImproveOnConstructionTour() {
+        // GIVEN
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(2), 500);
+
+        // WHEN
+        SearchStats stats = solver.search(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP, Duration.ofSeconds(5)).stats();
+
+        // THEN
+        assertTrue(stats.getImprovingMoves() > 0);
+        assertTrue(stats.getFinalDistanceMeters() < stats.getInitialDistanceMeters());
+        assertTrue(stats.isConverged());
+        assertFalse(stats.getTrajectory().isEmpty());
+    }
+
+    @Test
+    void shouldFindConvexTourForPointsOnCircle() {
+        // GIVEN - points on a circle in shuffled order; the only tour without
+        // crossings walks around the circle, and 2-opt removes every crossing
+        int n = 60;
+        double[][] points = new double[n][2];
+        Random random = new Random(3);
+        int[] shuffle = new int[n];
+        for (int i = 0; i < n; i++) {
+            shuffle[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = shuffle[i];
+            shuffle[i] = shuffle[j];
+            shuffle[j] = t;
+        }
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * shuffle[i] / n;
+            points[i][0] = 100_000 * Math.cos(angle);
+            points[i][1] = 100_000 * Math.sin(angle);
+        }
+        int[][] distanceMatrix = planeMatrix(points);
+        long perimeter = (long) n * distanceMatrix[indexOf(shuffle, 0)][indexOf(shuffle, 1)];
+
+        // WHEN
+        SearchStats stats = solver.search(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP, Duration.ofSeconds(5)).stats();
+
+        // THEN - allow for rounding of individual legs
+        assertEquals(perimeter, stats.getFinalDistanceMeters(), n);
+    }
+
+    @Test
+    void shouldMatchExactSolverOnSmallRoutes() {
+        // GIVEN
+        ExactTspSolver exact = new ExactTspSolver();
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(4), 9);
+
+        for (RouteType routeType : RouteType.values()) {
+            // WHEN
+            int[] heuristic = solver.search(DistanceMatrix.ofDistances(distanceMatrix), routeType, Duration.ofSeconds(1)).order();
+            int[] optimal = exact.solveOrder(DistanceMatrix.ofDistances(distanceMatrix), routeType);
+
+            // THEN - local search may miss the optimum, but not by much on 9 stops
+            long heuristicCost = cost(distanceMatrix, heuristic, routeType);
+            long optimalCost = cost(distanceMatrix, optimal, routeType);
+            assertTrue(heuristicCost <= optimalCost * 1.10, routeType + ": " + heuristicCost + " vs " + optimalCost);
+        }
+    }
+
+    // ==================== TIME BUDGET ====================
+
+    @Test
+    void shouldStopAtTimeBudget() {
+        // GIVEN
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(5), 2000);
+
+        // WHEN
+        SearchStats stats = solver.search(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP, Duration.ofMillis(1)).stats();
+
+        // THEN - stops soon after construction, still with a complete tour
+        assertFalse(stats.isConverged());
+        assertTrue(stats.getElapsedMs() < 2000, "took " + stats.getElapsedMs() + " ms");
+        assertTrue(stats.getFinalDistanceMeters() <= stats.getInitialDistanceMeters());
+    }
+
+    @Test
+    void shouldStopWhenCancelled() {
+        // GIVEN - a budget far longer than the test, cancelled at the first incumbent
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(9), 2000);
+        SolveContext base = SolveContext.withBudget(Duration.ofMinutes(1));
+        SolveContext context = base.withIncumbentListener((order, distance) -> base.cancel());
+
+        // WHEN
+        SearchStats stats = solver.search(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP, context).stats();
+
+        // THEN
+        assertFalse(stats.isConverged());
+        assertTrue(stats.getElapsedMs() < 10_000, "took " + stats.getElapsedMs() + " ms");
+    }
+
+    // ==================== INCUMBENT TESTS ====================
+
+    @Test
+    void shouldReportImprovingValidTours() {
+        // GIVEN
+        int n = 1000;
+        int[][] distanceMatrix = randomPlaneMatrix(new Random(13), n);
+        List<Long> distances = new ArrayList<>();
+        SolveContext context = SolveContext.withBudget(Duration.ofMillis(500))
+                .withIncumbentListener((order, distance) -> {
+                    assertEquals(n, order.length);
+                    assertEquals(0, order[0]);
+                    assertEquals(cost(distanceMatrix, order, RouteType.ROUND_TRIP), distance);
+                    distances.add(distance);
+                });
+
+        // WHEN
+        SearchStats stats = solver.search(DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP, context).stats();
+
+        // THEN - starts with the construction tour, each one shorter, none better than the result
+        assertFalse(distances.isEmpty());
+        assertEquals(stats.getInitialDistanceMeters(), distances.get(0));
+        for (int i = 1; i < distances.size(); i++) {
+            assertTrue(distances.get(i) < distances.get(i - 1));
+        }
+        assertTrue(stats.getFinalDistanceMeters() <= distances.get(distances.size() - 1));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private int[][] randomPlaneMatrix(Random random, int n) {
+        double[][] points = new double[n][2];
+        for (int i = 0; i < n; i++) {
+            points[i][0] = random.nextDouble() * 50_000;
+            points[i][1] = random.nextDouble() * 50_000;
+        }
+        return planeMatrix(points);
+    }
+
+    private int[][] planeMatrix(double[][] points) {
+        int n = points.length;
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = (int) Math.round(Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]));
+            }
+        }
+        return matrix;
+    }
+
+    private int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long cost(int[][] matrix, int[] order, RouteType routeType) {
+        long total = 0;
+        for (int i = 1; i < order.length; i++) {
+            total += matrix[order[i - 1]][order[i]];
+        }
+        if (routeType == RouteType.ROUND_TRIP) {
+            total += matrix[order[order.length - 1]][order[0]];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,230 @@
+package com.routesmart.optimizer;
+
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OptimizerRouterTest {
+
+    @Mock
+    private OptimizerEngine exactEngine;
+
+    @Mock
+    private OptimizerEngine heuristicEngine;
+
+    @Mock
+    private OptimizerEngine remoteEngine;
+
+    private OptimizerConfig optimizerConfig;
+    private RouteSmartMetrics metrics;
+    private OptimizerRouter router;
+
+    @BeforeEach
+    void setUp() {
+        when(exactEngine.type()).thenReturn(EngineType.EXACT);
+        when(heuristicEngine.type()).thenReturn(EngineType.HEURISTIC);
+        when(remoteEngine.type()).thenReturn(EngineType.REMOTE);
+
+        optimizerConfig = new OptimizerConfig();
+        optimizerConfig.getRouting().setExactMaxLocations(12);
+        optimizerConfig.getRouting().setRemoteMaxLocations(100);
+        optimizerConfig.getRouting().setRemoteMinBudget(Duration.ofSeconds(6));
+
+        metrics = RouteSmartMetrics.standalone();
+        router = new OptimizerRouter(List.of(exactEngine, heuristicEngine, remoteEngine), optimizerConfig, metrics);
+    }
+
+    // ==================== SELECTION RULES ====================
+
+    @Test
+    void shouldUseExactEngineForSmallRoutes() {
+        assertEquals(EngineType.EXACT, router.select(2, RouteType.ROUND_TRIP, Duration.ofSeconds(10)));
+        assertEquals(EngineType.EXACT, router.select(12, RouteType.ONE_WAY_FIXED_END, Duration.ZERO));
+    }
+
+    @Test
+    void shouldNeverExceedExactSolverLimit() {
+        // GIVEN - configured above what the DP can handle
+        optimizerConfig.getRouting().setExactMaxLocations(50);
+
+        // WHEN
+        EngineType type = router.select(ExactTspSolver.MAX_LOCATIONS + 1, RouteType.ROUND_TRIP, Duration.ofSeconds(10));
+
+        // THEN
+        assertNotEquals(EngineType.EXACT, type);
+    }
+
+    @Test
+    void shouldUseRemoteEngineWhenBudgetAllows() {
+        assertEquals(EngineType.REMOTE, router.select(40, RouteType.ROUND_TRIP, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void shouldUseHeuristicWhenBudgetTooShortForRemote() {
+        assertEquals(EngineType.HEURISTIC, router.select(40, RouteType.ROUND_TRIP, Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void shouldUseHeuristicForRouteTypesRemoteCannotSolve() {
+        assertEquals(EngineType.HEURISTIC, router.select(40, RouteType.ONE_WAY_FIXED_END, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void shouldUseHeuristicAboveRemoteLimit() {
+        assertEquals(EngineType.HEURISTIC, router.select(101, RouteType.ROUND_TRIP, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void shouldUseHeuristicWhenRemoteDisabled() {
+        // GIVEN
+        optimizerConfig.getRouting().setRemoteEnabled(false);
+
+        // WHEN / THEN
+        assertEquals(EngineType.HEURISTIC, router.select(40, RouteType.ROUND_TRIP, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void shouldKeepStreamedSolvesInProcess() {
+        // WHEN / THEN - remote would only send its final tour, so stream on the heuristic
+        assertEquals(EngineType.HEURISTIC, router.select(40, RouteType.ROUND_TRIP, Duration.ofSeconds(10), true));
+        assertEquals(EngineType.EXACT, router.select(12, RouteType.ROUND_TRIP, Duration.ofSeconds(10), true));
+    }
+
+    // ==================== DISPATCH ====================
+
+    @Test
+    void shouldDispatchToSelectedEngineAndCountIt() {
+        // GIVEN
+        List<Location> locations = createLocations(3);
+        DistanceMatrix distanceMatrix = new DistanceMatrix(3);
+        OptimizationResult expected = new OptimizationResult();
+        when(exactEngine.optimize(any(), any(), any(), any())).thenReturn(expected);
+
+        // WHEN
+        OptimizationResult result = router.optimize(locations, distanceMatrix, RouteType.ROUND_TRIP,
+                SolveContext.withBudget(Duration.ofSeconds(10)));
+
+        // THEN
+        assertSame(expected, result);
+        verify(exactEngine).optimize(eq(locations), eq(distanceMatrix), eq(RouteType.ROUND_TRIP), any());
+        verify(remoteEngine, never()).optimize(any(), any(), any(), any());
+        assertEquals(1, router.getSelectionCount(EngineType.EXACT));
+        assertEquals(0, router.getSelectionCount(EngineType.REMOTE));
+    }
+
+    @Test
+    void shouldCountEngineFailures() {
+        // GIVEN
+        when(exactEngine.optimize(any(), any(), any(), any())).thenThrow(new IllegalStateException("boom"));
+
+        // WHEN
+        assertThrows(IllegalStateException.class, () -> router.optimize(createLocations(3), new DistanceMatrix(3),
+                RouteType.ROUND_TRIP, SolveContext.withBudget(Duration.ofSeconds(10))));
+
+        // THEN
+        assertEquals(1, metrics.engineFailures(EngineType.EXACT));
+        assertEquals(0, metrics.engineFailures(EngineType.REMOTE));
+    }
+
+    @Test
+    void shouldCapHeuristicTimeLimit() {
+        // GIVEN
+        optimizerConfig.getRouting().setRemoteEnabled(false);
+        optimizerConfig.getRouting().setHeuristicTimeLimit(Duration.ofMillis(500));
+        List<Location> locations = createLocations(20);
+        when(heuristicEngine.optimize(any(), any(), any(), any())).thenReturn(new OptimizationResult());
+
+        // WHEN
+        router.optimize(locations, new DistanceMatrix(20), RouteType.ROUND_TRIP, SolveContext.withBudget(Duration.ofSeconds(30)));
+
+        // THEN
+        verify(heuristicEngine).optimize(any(), any(), any(),
+                argThat(context -> context.remaining().compareTo(Duration.ofMillis(500)) <= 0));
+    }
+
+    // ==================== FALLBACK ====================
+
+    @Test
+    void shouldSolveInProcessWhenRemoteUnavailable() {
+        // GIVEN - remote's circuit breaker is open
+        when(remoteEngine.isAvailable()).thenReturn(false);
+        when(heuristicEngine.optimize(any(), any(), any(), any())).thenReturn(new OptimizationResult());
+
+        // WHEN
+        OptimizationResult result = router.optimize(createLocations(40), new DistanceMatrix(40), RouteType.ROUND_TRIP,
+                SolveContext.withBudget(Duration.ofSeconds(10)));
+
+        // THEN
+        assertTrue(result.isDegraded());
+        verify(remoteEngine, never()).optimize(any(), any(), any(), any());
+        assertEquals(1, router.getSelectionCount(EngineType.HEURISTIC));
+        assertEquals(1, metrics.degradedSolves());
+    }
+
+    @Test
+    void shouldSolveInProcessWhenRemoteFails() {
+        // GIVEN
+        optimizerConfig.getRouting().setHeuristicTimeLimit(Duration.ofMillis(500));
+        when(remoteEngine.isAvailable()).thenReturn(true);
+        when(remoteEngine.optimize(any(), any(), any(), any())).thenThrow(new RuntimeException("Failed to optimize route"));
+        when(heuristicEngine.optimize(any(), any(), any(), any())).thenReturn(new OptimizationResult());
+
+        // WHEN
+        OptimizationResult result = router.optimize(createLocations(40), new DistanceMatrix(40), RouteType.ROUND_TRIP,
+                SolveContext.withBudget(Duration.ofSeconds(10)));
+
+        // THEN - within the heuristic's usual limit
+        assertTrue(result.isDegraded());
+        assertEquals(1, metrics.engineFailures(EngineType.REMOTE));
+        assertEquals(1, metrics.degradedSolves());
+        verify(heuristicEngine).optimize(any(), any(), any(),
+                argThat(context -> context.remaining().compareTo(Duration.ofMillis(500)) <= 0));
+    }
+
+    @Test
+    void shouldNotMarkRemoteResultsDegraded() {
+        // GIVEN
+        when(remoteEngine.isAvailable()).thenReturn(true);
+        when(remoteEngine.optimize(any(), any(), any(), any())).thenReturn(new OptimizationResult());
+
+        // WHEN
+        OptimizationResult result = router.optimize(createLocations(40), new DistanceMatrix(40), RouteType.ROUND_TRIP,
+                SolveContext.withBudget(Duration.ofSeconds(10)));
+
+        // THEN
+        assertFalse(result.isDegraded());
+        verify(heuristicEngine, never()).optimize(any(), any(), any(), any());
+        assertEquals(0, metrics.degradedSolves());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private List<Location> createLocations(int n) {
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            locations.add(Location.builder().name("Location " + i).latitude(-17.8).longitude(31.0).build());
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,82 @@
+package com.routesmart.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryBucketStateStoreTest {
+
+    private AtomicLong now;
+    private InMemoryBucketStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        store = new InMemoryBucketStateStore(now::get);
+    }
+
+    // ==================== COMPARE AND SWAP TESTS ====================
+
+    @Test
+    void shouldInsertWhenExpectingNothing() {
+        // WHEN
+        boolean swapped = store.compareAndSwap("k", null, new byte[]{1}, 0);
+
+        // THEN
+        assertTrue(swapped);
+        assertArrayEquals(new byte[]{1}, store.get("k"));
+    }
+
+    @Test
+    void shouldRejectStaleExpectedValue() {
+        // GIVEN
+        store.compareAndSwap("k", null, new byte[]{1}, 0);
+        store.compareAndSwap("k", new byte[]{1}, new byte[]{2}, 0);
+
+        // WHEN - another writer still holding the old value
+        boolean swapped = store.compareAndSwap("k", new byte[]{1}, new byte[]{3}, 0);
+
+        // THEN
+        assertFalse(swapped);
+        assertArrayEquals(new byte[]{2}, store.get("k"));
+        assertFalse(store.compareAndSwap("k", null, new byte[]{4}, 0));
+    }
+
+    // ==================== EXPIRY TESTS ====================
+
+    @Test
+    void shouldTreatExpiredEntryAsAbsent() {
+        // GIVEN
+        store.compareAndSwap("k", null, new byte[]{1}, 500);
+
+        // WHEN
+        now.addAndGet(499);
+        byte[] beforeTtl = store.get("k");
+        now.addAndGet(1);
+
+        // THEN
+        assertNotNull(beforeTtl);
+        assertNull(store.get("k"));
+        assertTrue(store.compareAndSwap("k", null, new byte[]{2}, 500));
+    }
+
+    @Test
+    void shouldPurgeOnlyExpiredEntries() {
+        // GIVEN
+        store.compareAndSwap("short", null, new byte[]{1}, 100);
+        store.compareAndSwap("long", null, new byte[]{1}, 10_000);
+        store.compareAndSwap("forever", null, new byte[]{1}, 0);
+
+        // WHEN
+        now.addAndGet(1_000);
+        store.purgeExpired();
+
+        // THEN
+        assertEquals(2, store.size());
+        assertNull(store.get("short"));
+        assertNotNull(store.get("long"));
+    }
+}
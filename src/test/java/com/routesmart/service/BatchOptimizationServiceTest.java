@@ -0,0 +1,178 @@
+package com.routesmart.service;
+
+import com.routesmart.cache.SolveCache;
+import com.routesmart.config.BatchConfig;
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.config.SolveCacheConfig;
+import com.routesmart.dto.BatchRouteResult;
+import com.routesmart.dto.RouteRequest;
+import com.routesmart.dto.RouteResponse;
+import com.routesmart.enums.RouteType;
+import com.routesmart.exception.GoogleMapsApiException;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import com.routesmart.util.LocationParserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BatchOptimizationServiceTest {
+
+    @Mock
+    private GoogleMapsService googleMapsService;
+
+    @Mock
+    private RouteSmartService routeSmartService;
+
+    private SolveCache solveCache;
+    private BatchOptimizationService batchService;
+
+    @BeforeEach
+    void setUp() {
+        solveCache = new SolveCache(new SolveCacheConfig());
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setQueueCapacity(2);
+        batchConfig.setSolveWorkers(2);
+        batchService = new BatchOptimizationService(new LocationParserService(), googleMapsService,
+                googleMapsService, routeSmartService, solveCache, batchConfig, new OptimizerConfig());
+
+        when(googleMapsService.getDistanceMatrix(anyList()))
+                .thenAnswer(inv -> new DistanceMatrix(((List<?>) inv.getArgument(0)).size()));
+        when(routeSmartService.buildRoute(any(), anyList(), any(), any()))
+                .thenAnswer(inv -> RouteResponse.builder()
+                        .routeId("route-" + ((RouteRequest) inv.getArgument(0)).getLocations().get(0))
+                        .build());
+    }
+
+    // ==================== PIPELINE TESTS ====================
+
+    @Test
+    void shouldReturnOneResultPerRoute() throws Exception {
+        // GIVEN - more routes than any queue holds
+        List<RouteRequest> routes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            routes.add(route("Stop " + i, "Depot"));
+        }
+
+        // WHEN
+        List<BatchRouteResult> results = run(routes);
+
+        // THEN
+        assertEquals(20, results.size());
+        for (BatchRouteResult result : results) {
+            assertNull(result.getError());
+            assertEquals("route-Stop " + result.getIndex(), result.getRoute().getRouteId());
+        }
+    }
+
+    @Test
+    void shouldReportFailedRouteAndFinishTheRest() throws Exception {
+        // GIVEN
+        doThrow(new GoogleMapsApiException("No results found for 'Nowhere'", "ZERO_RESULTS"))
+                .when(googleMapsService).geocodeLocations(argThat(locations -> locations.stream()
+                        .anyMatch(l -> "Nowhere".equals(l.getOriginalInput()))), any());
+
+        // WHEN
+        List<BatchRouteResult> results = run(List.of(
+                route("Harare", "Depot"), route("Nowhere", "Depot"), route("Gweru", "Depot")));
+
+        // THEN
+        assertEquals(3, results.size());
+        BatchRouteResult failed = results.stream().filter(r -> r.getIndex() == 1).findFirst().orElseThrow();
+        assertNull(failed.getRoute());
+        assertTrue(failed.getError().contains("Nowhere"));
+        assertEquals(2, results.stream().filter(r -> r.getRoute() != null).count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldShareGeocodesAcrossBatch() throws Exception {
+        // WHEN
+        run(List.of(route("Harare", "Depot"), route("Gweru", "Depot")));
+
+        // THEN - every route geocodes through the same map
+        ArgumentCaptor<ConcurrentMap<String, CompletableFuture<Location>>> shared =
+                ArgumentCaptor.forClass(ConcurrentMap.class);
+        verify(googleMapsService, times(2)).geocodeLocations(anyList(), shared.capture());
+        assertSame(shared.getAllValues().get(0), shared.getAllValues().get(1));
+    }
+
+    @Test
+    void shouldSkipPipelineForCachedRequest() throws Exception {
+        // GIVEN
+        RouteRequest cached = route("Harare", "Depot");
+        solveCache.putRoute(cached.getLocations(), cached.getRouteType(),
+                RouteResponse.builder().routeId("cached").build());
+
+        // WHEN
+        List<BatchRouteResult> results = run(List.of(cached));
+
+        // THEN
+        assertEquals("cached", results.get(0).getRoute().getRouteId());
+        verifyNoInteractions(googleMapsService);
+    }
+
+    @Test
+    void shouldReportNullRouteAndNullLocationInsteadOfHanging() throws Exception {
+        // GIVEN - bad entries that slipped past validation, with the solve cache on
+        RouteRequest nullLocation = new RouteRequest();
+        nullLocation.setLocations(Arrays.asList("Harare", null));
+        nullLocation.setRouteType(RouteType.ONE_WAY_OPEN_END);
+
+        // WHEN
+        List<BatchRouteResult> results = run(Arrays.asList(nullLocation, null, route("Gweru", "Depot")));
+
+        // THEN
+        assertEquals(3, results.size());
+        assertEquals(2, results.stream().filter(r -> r.getError() != null).count());
+        assertTrue(results.stream().anyMatch(r -> r.getIndex() == 2 && r.getRoute() != null));
+    }
+
+    @Test
+    void shouldReportErrorThrownInsideWorker() throws Exception {
+        // GIVEN - an Error, not an exception, escapes the solve
+        doThrow(new StackOverflowError()).when(routeSmartService)
+                .buildRoute(argThat(r -> r != null && r.getLocations().contains("Harare")), anyList(), any(), any());
+
+        // WHEN
+        List<BatchRouteResult> results = run(List.of(route("Harare", "Depot"), route("Gweru", "Depot")));
+
+        // THEN - the worker survives and both routes get a result
+        assertEquals(2, results.size());
+        BatchRouteResult failed = results.stream().filter(r -> r.getIndex() == 0).findFirst().orElseThrow();
+        assertEquals("StackOverflowError", failed.getError());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private List<BatchRouteResult> run(List<RouteRequest> routes) throws InterruptedException {
+        List<BatchRouteResult> results = Collections.synchronizedList(new ArrayList<>());
+        batchService.optimize(routes, results::add);
+        return results;
+    }
+
+    private RouteRequest route(String... locations) {
+        RouteRequest request = new RouteRequest();
+        request.setLocations(List.of(locations));
+        request.setRouteType(RouteType.ONE_WAY_OPEN_END);
+        return request;
+    }
+}
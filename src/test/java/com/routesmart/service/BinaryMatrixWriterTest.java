@@ -0,0 +1,108 @@
+package com.routesmart.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.dto.OptimizationRequest;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMatrixWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // ==================== LAYOUT TESTS ====================
+
+    @Test
+    void shouldWriteHeaderAndLittleEndianMatrix() throws Exception {
+        // GIVEN
+        OptimizationRequest request = createRequest(new int[][]{{0, 1}, {256, 0}});
+
+        // WHEN
+        ByteBuffer buffer = ByteBuffer.wrap(BinaryMatrixWriter.write(objectMapper, request, false))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        // THEN
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertEquals("RSM1", new String(magic, StandardCharsets.US_ASCII));
+
+        JsonNode header = readHeader(buffer);
+        assertEquals(2, header.get("size").asInt());
+        assertEquals("none", header.get("compression").asText());
+        assertTrue(header.get("is_round_trip").asBoolean());
+        assertEquals(2, header.get("locations").size());
+
+        assertEquals(16, buffer.getInt());
+        assertArrayEquals(new int[]{0, 1, 256, 0}, readInts(buffer, 4));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void shouldCompressMatrixWithZlib() throws Exception {
+        // GIVEN
+        int n = 100;
+        int[][] distances = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i][j] = Math.abs(i - j) * 1000;
+            }
+        }
+        OptimizationRequest request = createRequest(distances);
+
+        // WHEN
+        ByteBuffer buffer = ByteBuffer.wrap(BinaryMatrixWriter.write(objectMapper, request, true))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        // THEN
+        buffer.position(4);
+        assertEquals("zlib", readHeader(buffer).get("compression").asText());
+        byte[] compressed = new byte[buffer.getInt()];
+        buffer.get(compressed);
+        assertTrue(compressed.length < n * n * 4 / 2);
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[n * n * 4];
+        assertEquals(raw.length, inflater.inflate(raw));
+        inflater.end();
+        int[] decoded = readInts(ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN), n * n);
+        assertArrayEquals(request.getDistanceMatrix().distances(), decoded);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private OptimizationRequest createRequest(int[][] distances) {
+        List<Location> locations = Arrays.stream(distances)
+                .map(row -> Location.builder().name("Stop").latitude(-17.8).longitude(31.0).build())
+                .toList();
+        return OptimizationRequest.builder()
+                .locations(locations)
+                .distanceMatrix(DistanceMatrix.ofDistances(distances))
+                .isRoundTrip(true)
+                .timeBudgetMs(500)
+                .build();
+    }
+
+    private JsonNode readHeader(ByteBuffer buffer) throws Exception {
+        byte[] header = new byte[buffer.getInt()];
+        buffer.get(header);
+        return objectMapper.readTree(header);
+    }
+
+    private int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+}
@@ -0,0 +1,100 @@
+package com.routesmart.service;
+
+import com.routesmart.config.GazetteerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerGeocoderTest {
+
+    private GazetteerConfig config;
+    private GazetteerGeocoder geocoder;
+
+    @BeforeEach
+    void setUp() {
+        config = new GazetteerConfig();
+        geocoder = new GazetteerGeocoder(config, new DefaultResourceLoader());
+    }
+
+    // ==================== LOOKUP TESTS ====================
+
+    @Test
+    void shouldResolveBundledPlacesAndOldNames() {
+        assertEquals("Gweru", geocoder.lookup("Gwelo").orElseThrow().name());
+        assertEquals("Kwekwe", geocoder.lookup("Que Que").orElseThrow().name());
+        assertEquals("Victoria Falls", geocoder.lookup("Vic Falls, Zimbabwe").orElseThrow().name());
+        assertEquals("Mbare Musika", geocoder.lookup("Mbare Musika").orElseThrow().name());
+    }
+
+    @Test
+    void shouldIgnoreTrailingCountry() {
+        assertEquals("Harare", geocoder.lookup("Harare, Zimbabwe").orElseThrow().name());
+    }
+
+    @Test
+    void shouldKeepCountryThatIsPartOfTheName() {
+        assertEquals("Great Zimbabwe", geocoder.lookup("Great Zimbabwe").orElseThrow().name());
+        assertEquals("University of Zimbabwe", geocoder.lookup("University of Zimbabwe").orElseThrow().name());
+        assertEquals("Great Zimbabwe", geocoder.lookup("Great Zimbabwe, Zimbabwe").orElseThrow().name());
+        assertTrue(geocoder.lookup("Zimbabwe").isEmpty());
+    }
+
+    @Test
+    void shouldOnlyMatchShortQueriesExactly() {
+        // GIVEN - "Ruwq" is one edit from Ruwa but shorter than minFuzzyLength
+        assertTrue(geocoder.lookup("Ruwq").isEmpty());
+        assertEquals("Chitungwiza", geocoder.lookup("Chitungwizq").orElseThrow().name());
+    }
+
+    @Test
+    void shouldMissUnknownAddresses() {
+        assertTrue(geocoder.lookup("12 Samora Machel Ave, Harare").isEmpty());
+        assertTrue(geocoder.lookup(null).isEmpty());
+    }
+
+    @Test
+    void shouldCountLookupsAndHits() {
+        // WHEN
+        geocoder.lookup("Harare");
+        geocoder.lookup("Nowhere");
+
+        // THEN
+        GazetteerGeocoder.Stats stats = geocoder.stats();
+        assertEquals(2, stats.lookups());
+        assertEquals(1, stats.hits());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenDisabled() {
+        // GIVEN
+        config.setEnabled(false);
+
+        // WHEN / THEN
+        assertTrue(geocoder.lookup("Harare").isEmpty());
+    }
+
+    @Test
+    void shouldFallBackToEmptyWhenFileMissing() {
+        // GIVEN
+        config.setPath("classpath:gazetteer/missing.csv");
+
+        // WHEN
+        GazetteerGeocoder missing = new GazetteerGeocoder(config, new DefaultResourceLoader());
+
+        // THEN
+        assertTrue(missing.lookup("Harare").isEmpty());
+    }
+
+    // ==================== PARSING TESTS ====================
+
+    @Test
+    void shouldRejectBadCoordinates() {
+        assertThrows(IOException.class,
+                () -> GazetteerGeocoder.parse(new StringReader("# header\nHarare,north,31.05,\n")));
+    }
+}
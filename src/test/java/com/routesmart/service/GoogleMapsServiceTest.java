@@ -0,0 +1,138 @@
+package com.routesmart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routesmart.cache.DistanceMatrixCache;
+import com.routesmart.cache.GeocodeCache;
+import com.routesmart.config.DistanceMatrixCacheConfig;
+import com.routesmart.config.GazetteerConfig;
+import com.routesmart.config.GeocodeCacheConfig;
+import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.geocode.Gazetteer;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleMapsServiceTest {
+
+    private GeocodeCache geocodeCache;
+    private DistanceMatrixCache distanceMatrixCache;
+    private GoogleMapsService googleMapsService;
+
+    @BeforeEach
+    void setUp() {
+        GeocodeCacheConfig cacheConfig = new GeocodeCacheConfig();
+        cacheConfig.setSnapshotPath("");
+        geocodeCache = new GeocodeCache(cacheConfig, new ObjectMapper());
+
+        GoogleMapsConfig googleMapsConfig = new GoogleMapsConfig();
+        googleMapsConfig.getGeocoding().setMaxConcurrencyPerRequest(3);
+        DistanceMatrixCacheConfig matrixCacheConfig = new DistanceMatrixCacheConfig();
+        distanceMatrixCache = new DistanceMatrixCache(matrixCacheConfig);
+        Gazetteer gazetteer = Gazetteer.builder()
+                .add("Mbare Musika", -17.86, 31.043, List.of("Mbare Market"))
+                .build();
+        GazetteerGeocoder gazetteerGeocoder = new GazetteerGeocoder(new GazetteerConfig(), gazetteer);
+        googleMapsService = new GoogleMapsService(googleMapsConfig, geocodeCache, gazetteerGeocoder,
+                distanceMatrixCache, matrixCacheConfig, RouteSmartMetrics.standalone());
+    }
+
+    @AfterEach
+    void tearDown() {
+        googleMapsService.cleanup();
+    }
+
+    // ==================== geocodeLocations TESTS ====================
+
+    @Test
+    void shouldKeepInputOrderWhenGeocodingConcurrently() {
+        // GIVEN - all lookups answered from the cache, so no API calls
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            geocodeCache.putForward("Stop " + i, -17.0 - i, 31.0 + i, "Stop " + i + ", Zimbabwe");
+            locations.add(Location.builder().name("Stop " + i).build());
+        }
+
+        // WHEN
+        googleMapsService.geocodeLocations(locations);
+
+        // THEN
+        for (int i = 0; i < 20; i++) {
+            Location location = locations.get(i);
+            assertEquals("Stop " + i + ", Zimbabwe", location.getName());
+            assertEquals(-17.0 - i, location.getLatitude());
+            assertEquals(31.0 + i, location.getLongitude());
+        }
+    }
+
+    @Test
+    void shouldResolveGazetteerNamesWithoutCache() {
+        // GIVEN
+        Location location = Location.builder().name("mbare market, Zimbabwe").build();
+
+        // WHEN
+        googleMapsService.geocodeLocation(location);
+
+        // THEN
+        assertEquals("Mbare Musika, Zimbabwe", location.getName());
+        assertEquals(-17.86, location.getLatitude());
+        assertEquals(0, geocodeCache.stats().requestCount());
+    }
+
+    @Test
+    void shouldReverseGeocodeLocationsWithCoordinates() {
+        // GIVEN
+        geocodeCache.putReverse(-17.8292, 31.0522, "Harare, Zimbabwe");
+        geocodeCache.putForward("Bulawayo", -20.15, 28.58, "Bulawayo, Zimbabwe");
+        List<Location> locations = List.of(
+                Location.builder().name("-17.8292, 31.0522").latitude(-17.8292).longitude(31.0522).build(),
+                Location.builder().name("Bulawayo").build());
+
+        // WHEN
+        googleMapsService.geocodeLocations(locations);
+
+        // THEN
+        assertEquals("Harare, Zimbabwe", locations.get(0).getName());
+        assertEquals(-17.8292, locations.get(0).getLatitude());
+        assertEquals("Bulawayo, Zimbabwe", locations.get(1).getName());
+    }
+
+    // ==================== getDistanceMatrix TESTS ====================
+
+    @Test
+    void shouldAssembleMatrixFromCacheWithoutApiCall() {
+        // GIVEN
+        List<Location> locations = List.of(
+                Location.builder().name("A").latitude(-17.8292).longitude(31.0522).build(),
+                Location.builder().name("B").latitude(-20.15).longitude(28.58).build(),
+                Location.builder().name("C").latitude(-18.97).longitude(32.67).build());
+        long[] points = new long[3];
+        for (int i = 0; i < 3; i++) {
+            points[i] = distanceMatrixCache.snap(locations.get(i).getLatitude(), locations.get(i).getLongitude());
+        }
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (i != j) {
+                    distanceMatrixCache.put(points[i], points[j], "DRIVING", 1000 * (i + 1) + j, 60 * (i + 1));
+                }
+            }
+        }
+
+        // WHEN
+        DistanceMatrix matrix = googleMapsService.getDistanceMatrix(locations);
+
+        // THEN
+        assertEquals(0, matrix.distance(1, 1));
+        assertEquals(1001, matrix.distance(0, 1));
+        assertEquals(3001, matrix.distance(2, 1));
+        assertEquals(180, matrix.duration(2, 1));
+        assertEquals(6, distanceMatrixCache.stats().hitCount());
+    }
+}
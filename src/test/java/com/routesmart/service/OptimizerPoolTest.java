@@ -0,0 +1,166 @@
+package com.routesmart.service;
+
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerPoolTest {
+
+    private static final CircuitBreaker.Settings SETTINGS = new CircuitBreaker.Settings(
+            10, 2, 50, Duration.ofSeconds(8), Duration.ofSeconds(30), 1, 1);
+
+    private static OptimizerPool pool(String... urls) {
+        return new OptimizerPool(List.of(urls), SETTINGS, true);
+    }
+
+    // ==================== BALANCING TESTS ====================
+
+    @Test
+    void shouldPreferLessBusyInstance() {
+        // GIVEN - a busy with three solves
+        OptimizerPool pool = pool("http://a", "http://b");
+        OptimizerPool.Instance b = pool.instances().get(1);
+        for (int i = 0; i < 3; i++) {
+            pool.acquire(List.of(b));
+        }
+
+        // WHEN / THEN - with two instances both are always sampled, so b wins every time
+        for (int i = 0; i < 20; i++) {
+            OptimizerPool.Instance chosen = pool.acquire(List.of());
+            assertEquals("http://b", chosen.url());
+            chosen.succeeded(Duration.ofMillis(10));
+        }
+    }
+
+    @Test
+    void shouldSpreadConcurrentCallsEvenly() {
+        // GIVEN
+        OptimizerPool pool = pool("http://a", "http://b", "http://c");
+
+        // WHEN - 30 calls held open at once
+        for (int i = 0; i < 30; i++) {
+            assertNotNull(pool.acquire(List.of()));
+        }
+
+        // THEN - power of two choices never lets one instance run far ahead
+        for (OptimizerPool.Instance instance : pool.instances()) {
+            assertTrue(instance.inFlight() >= 6 && instance.inFlight() <= 14,
+                    instance.url() + " has " + instance.inFlight());
+        }
+    }
+
+    @Test
+    void shouldSkipExcludedInstances() {
+        // GIVEN
+        OptimizerPool pool = pool("http://a", "http://b");
+
+        // WHEN
+        OptimizerPool.Instance chosen = pool.acquire(List.of(pool.instances().get(1)));
+
+        // THEN
+        assertEquals("http://a", chosen.url());
+        assertNull(pool.acquire(pool.instances()));
+    }
+
+    // ==================== EJECTION TESTS ====================
+
+    @Test
+    void shouldEjectFailingInstance() {
+        // GIVEN
+        OptimizerPool pool = pool("http://a", "http://b");
+        OptimizerPool.Instance a = pool.instances().get(0);
+
+        // WHEN - two failures in a row on a
+        for (int i = 0; i < 2; i++) {
+            OptimizerPool.Instance chosen = pool.acquire(List.of(pool.instances().get(1)));
+            chosen.failed(Duration.ofMillis(5));
+        }
+
+        // THEN - everything goes to b
+        assertEquals(CircuitBreaker.State.OPEN, a.circuitBreaker().state());
+        for (int i = 0; i < 10; i++) {
+            OptimizerPool.Instance chosen = pool.acquire(List.of());
+            assertEquals("http://b", chosen.url());
+            chosen.succeeded(Duration.ofMillis(10));
+        }
+        assertTrue(pool.isAvailable());
+    }
+
+    @Test
+    void shouldReadmitInstanceAfterHealthyProbe() {
+        // GIVEN
+        OptimizerPool pool = pool("http://a");
+        OptimizerPool.Instance a = pool.instances().get(0);
+        a.probed(false);
+        assertFalse(pool.isAvailable());
+        assertNull(pool.acquire(List.of()));
+
+        // WHEN
+        a.probed(true);
+        OptimizerPool.Instance trial = pool.acquire(List.of());
+        trial.succeeded(Duration.ofMillis(10));
+
+        // THEN
+        assertSame(a, trial);
+        assertEquals(CircuitBreaker.State.CLOSED, a.circuitBreaker().state());
+    }
+
+    @Test
+    void shouldNeverEjectWithBreakerDisabled() {
+        // GIVEN
+        OptimizerPool pool = new OptimizerPool(List.of("http://a"), SETTINGS, false);
+        OptimizerPool.Instance a = pool.instances().get(0);
+
+        // WHEN
+        a.probed(false);
+        for (int i = 0; i < 5; i++) {
+            pool.acquire(List.of()).failed(Duration.ofMillis(5));
+        }
+
+        // THEN
+        assertTrue(pool.isAvailable());
+        assertEquals(CircuitBreaker.State.CLOSED, a.circuitBreaker().state());
+    }
+
+    // ==================== METRICS TESTS ====================
+
+    @Test
+    void shouldPublishPerInstanceMeters() {
+        // GIVEN
+        OptimizerPool pool = pool("http://a", "http://b");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+
+        // WHEN
+        OptimizerPool.Instance chosen = pool.acquire(List.of(pool.instances().get(1)));
+        assertEquals(1.0, registry.get("routesmart.optimizer.instance.active").tag("instance", "http://a").gauge().value());
+        chosen.succeeded(Duration.ofMillis(40));
+
+        // THEN
+        assertEquals(0.0, registry.get("routesmart.optimizer.instance.active").tag("instance", "http://a").gauge().value());
+        assertEquals(1, registry.get("routesmart.optimizer.instance.latency").tag("instance", "http://a").timer().count());
+        assertEquals(0, registry.get("routesmart.optimizer.instance.latency").tag("instance", "http://b").timer().count());
+        assertNotNull(registry.get("routesmart.circuit.state").tag("name", "http://b").gauge());
+    }
+
+    // ==================== CONFIG TESTS ====================
+
+    @Test
+    void shouldFallBackToSingleUrlWhenNoListConfigured() {
+        // GIVEN
+        OptimizerConfig config = new OptimizerConfig();
+        config.setUrl("http://localhost:8001/");
+
+        // WHEN / THEN
+        assertEquals(List.of("http://localhost:8001"), config.endpoints());
+
+        config.setUrls(List.of("http://opt-1:8001", " http://opt-2:8001/ ", ""));
+        assertEquals(List.of("http://opt-1:8001", "http://opt-2:8001"), config.endpoints());
+    }
+}
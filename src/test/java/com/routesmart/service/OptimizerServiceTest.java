@@ -1,18 +1,32 @@
 package com.routesmart.service;
 
 import com.routesmart.config.OptimizerConfig;
+import com.routesmart.dto.OptimizationRequest;
 import com.routesmart.dto.OptimizationResult;
 import com.routesmart.enums.InputType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.exception.OptimizerServiceException;
+import com.routesmart.model.DistanceMatrix;
 import com.routesmart.model.Location;
+import com.routesmart.optimizer.SolveContext;
+import com.routesmart.util.CircuitBreaker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -115,6 +129,242 @@ class OptimizerServiceTest {
         );
     }
 
+    @Test
+    void shouldSendSizeBasedTimeBudget() {
+        // GIVEN
+        List<Location> locations = createTestLocations();
+        int[][] distanceMatrix = {{0, 100}, {100, 0}};
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenReturn(createMockResult());
+
+        // WHEN
+        optimizerService.optimize(locations, DistanceMatrix.ofDistances(distanceMatrix), RouteType.ROUND_TRIP,
+                SolveContext.withBudget(Duration.ofSeconds(30)));
+
+        // THEN
+        ArgumentCaptor<HttpEntity> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForObject(anyString(), captor.capture(), eq(OptimizationResult.class));
+        OptimizationRequest request = (OptimizationRequest) captor.getValue().getBody();
+        assertEquals(optimizerService.defaultTimeBudgetMs(2), request.getTimeBudgetMs());
+    }
+
+    // ==================== TIME BUDGET TESTS ====================
+
+    @Test
+    void shouldScaleDefaultBudgetWithinBounds() {
+        // GIVEN - defaults: 50 ms per location, between 200 ms and 5 s
+        // WHEN / THEN
+        assertEquals(200, optimizerService.defaultTimeBudgetMs(2));
+        assertEquals(1000, optimizerService.defaultTimeBudgetMs(20));
+        assertEquals(5000, optimizerService.defaultTimeBudgetMs(1000));
+    }
+
+    @Test
+    void shouldFitBudgetIntoRemainingRequestTime() {
+        // GIVEN - 1.3 s left, 300 ms kept for the round trip
+        // WHEN
+        int budget = optimizerService.timeBudgetMs(1000, Duration.ofMillis(1300));
+
+        // THEN
+        assertEquals(1000, budget);
+    }
+
+    // ==================== TRANSPORT TESTS ====================
+
+    @Test
+    void shouldSendBinaryMatrixWhenOptimizerAdvertisesIt() {
+        // GIVEN
+        optimizerConfig.getTransport().setBinaryMinLocations(2);
+        when(restTemplate.getForObject(eq("http://localhost:8001/health"), eq(String.class)))
+                .thenReturn("{\"status\": \"healthy\", \"formats\": [\"application/json\", \"application/x-routesmart-matrix\"]}");
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenReturn(createMockResult());
+
+        // WHEN
+        optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true);
+        optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true);
+
+        // THEN - formats are asked for once, and both requests go out binary
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(String.class));
+        ArgumentCaptor<HttpEntity> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2)).postForObject(anyString(), captor.capture(), eq(OptimizationResult.class));
+        HttpEntity<?> entity = captor.getValue();
+        assertEquals("application/x-routesmart-matrix", entity.getHeaders().getContentType().toString());
+        assertInstanceOf(byte[].class, entity.getBody());
+    }
+
+    @Test
+    void shouldUseJsonWhenOptimizerDoesNotAdvertiseBinary() {
+        // GIVEN - an older optimizer without "formats"
+        optimizerConfig.getTransport().setBinaryMinLocations(2);
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("{\"status\": \"healthy\"}");
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenReturn(createMockResult());
+
+        // WHEN
+        optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true);
+
+        // THEN
+        ArgumentCaptor<HttpEntity> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForObject(anyString(), captor.capture(), eq(OptimizationResult.class));
+        assertInstanceOf(OptimizationRequest.class, captor.getValue().getBody());
+    }
+
+    @Test
+    void shouldFallBackToJsonOnUnsupportedMediaType() {
+        // GIVEN
+        optimizerConfig.getTransport().setMode(OptimizerConfig.Transport.Mode.BINARY);
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported", null, null, null))
+                .thenReturn(createMockResult());
+
+        // WHEN
+        OptimizationResult result = optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true);
+
+        // THEN
+        assertEquals(10.5, result.getTotalDistanceKm());
+        verify(restTemplate, times(2)).postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class));
+    }
+
+    // ==================== CIRCUIT BREAKER TESTS ====================
+
+    @Test
+    void shouldStopCallingOptimizerOnceBreakerOpens() {
+        // GIVEN
+        optimizerConfig.getCircuitBreaker().setMinimumCalls(3);
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+        List<Location> locations = createTestLocations();
+        int[][] distanceMatrix = {{0, 100}, {100, 0}};
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", null, null, null));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> optimizerService.optimize(locations, distanceMatrix, true));
+        }
+
+        // WHEN
+        OptimizerServiceException e = assertThrows(OptimizerServiceException.class,
+                () -> optimizerService.optimize(locations, distanceMatrix, true));
+
+        // THEN - refused without another call
+        assertTrue(e.isServiceUnavailable());
+        assertFalse(optimizerService.isAvailable());
+        verify(restTemplate, times(3)).postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class));
+    }
+
+    @Test
+    void shouldNotCountClientErrorsAgainstInstance() {
+        // GIVEN - the optimizer rejects every request as invalid
+        optimizerConfig.getCircuitBreaker().setMinimumCalls(3);
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+        List<Location> locations = createTestLocations();
+        int[][] distanceMatrix = {{0, 100}, {100, 0}};
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity", null, null, null));
+
+        // WHEN
+        for (int i = 0; i < 5; i++) {
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> optimizerService.optimize(locations, distanceMatrix, true));
+            assertInstanceOf(HttpClientErrorException.class, e.getCause());
+        }
+
+        // THEN - still closed, every call reached it, and nothing is left in flight
+        OptimizerPool.Instance instance = optimizerService.instances().get(0);
+        assertEquals(CircuitBreaker.State.CLOSED, instance.circuitBreaker().state());
+        assertEquals(0, instance.inFlight());
+        assertTrue(optimizerService.isAvailable());
+        verify(restTemplate, times(5)).postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class));
+    }
+
+    @Test
+    void shouldOpenAndHalfOpenBreakerFromHealthProbes() {
+        // GIVEN
+        when(restTemplate.getForObject(eq("http://localhost:8001/health"), eq(String.class)))
+                .thenThrow(new RestClientException("Connection refused"))
+                .thenThrow(new RestClientException("Connection refused"))
+                .thenThrow(new RestClientException("Connection refused"))
+                .thenReturn("{\"status\": \"healthy\"}");
+
+        // WHEN / THEN - ejected on the third failed probe in a row
+        optimizerService.probeHealth();
+        optimizerService.probeHealth();
+        assertEquals(CircuitBreaker.State.CLOSED, optimizerService.instances().get(0).circuitBreaker().state());
+        optimizerService.probeHealth();
+        assertEquals(CircuitBreaker.State.OPEN, optimizerService.instances().get(0).circuitBreaker().state());
+        assertFalse(optimizerService.isAvailable());
+
+        optimizerService.probeHealth();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, optimizerService.instances().get(0).circuitBreaker().state());
+        assertTrue(optimizerService.isAvailable());
+    }
+
+    @Test
+    void shouldAlwaysBeAvailableWithBreakerDisabled() {
+        // GIVEN
+        optimizerConfig.getCircuitBreaker().setEnabled(false);
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+
+        // WHEN
+        optimizerService.probeHealth();
+
+        // THEN - not even probed
+        assertTrue(optimizerService.isAvailable());
+        verifyNoInteractions(restTemplate);
+    }
+
+    // ==================== LOAD BALANCING TESTS ====================
+
+    @Test
+    void shouldSpreadSolvesAcrossInstances() {
+        // GIVEN
+        optimizerConfig.setUrls(List.of("http://opt-1:8001", "http://opt-2:8001"));
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenReturn(createMockResult());
+
+        // WHEN
+        for (int i = 0; i < 40; i++) {
+            optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true);
+        }
+
+        // THEN - both used, the single url ignored
+        verify(restTemplate, atLeastOnce()).postForObject(eq("http://opt-1:8001/optimize"), any(HttpEntity.class), eq(OptimizationResult.class));
+        verify(restTemplate, atLeastOnce()).postForObject(eq("http://opt-2:8001/optimize"), any(HttpEntity.class), eq(OptimizationResult.class));
+        verify(restTemplate, never()).postForObject(startsWith("http://localhost"), any(HttpEntity.class), eq(OptimizationResult.class));
+    }
+
+    @Test
+    void shouldRetryRefusedConnectionOnAnotherInstance() {
+        // GIVEN - opt-1 is down
+        optimizerConfig.setUrls(List.of("http://opt-1:8001", "http://opt-2:8001"));
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+        when(restTemplate.postForObject(eq("http://opt-1:8001/optimize"), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenThrow(new ResourceAccessException("refused", new ConnectException("Connection refused")));
+        when(restTemplate.postForObject(eq("http://opt-2:8001/optimize"), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenReturn(createMockResult());
+
+        // WHEN / THEN - every solve succeeds, whichever instance is picked first
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true));
+        }
+    }
+
+    @Test
+    void shouldNotRetrySolveThatReachedTheOptimizer() {
+        // GIVEN
+        optimizerConfig.setUrls(List.of("http://opt-1:8001", "http://opt-2:8001"));
+        optimizerService = new OptimizerService(optimizerConfig, restTemplate);
+        when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class)))
+                .thenThrow(new ResourceAccessException("Read timed out", new SocketTimeoutException("Read timed out")));
+
+        // WHEN
+        assertThrows(RuntimeException.class,
+                () -> optimizerService.optimize(createTestLocations(), new int[][]{{0, 100}, {100, 0}}, true));
+
+        // THEN
+        verify(restTemplate, times(1)).postForObject(anyString(), any(HttpEntity.class), eq(OptimizationResult.class));
+    }
+
     // ==================== isHealthy() TESTS ====================
 
     @Test
@@ -1,15 +1,22 @@
 package com.routesmart.service;
 
 import com.routesmart.config.RateLimitConfig;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.ratelimit.InMemoryBucketStateStore;
+import com.routesmart.util.ClientAddress;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RateLimitServiceTest {
 
     private RateLimitService rateLimitService;
     private RateLimitConfig rateLimitConfig;
+    private RouteSmartMetrics metrics;
 
     // Using a small limit (3) for easier testing
     private static final int TEST_REQUESTS_PER_DAY = 3;
@@ -21,7 +28,8 @@ class RateLimitServiceTest {
         rateLimitConfig.setRequestsPerDay(TEST_REQUESTS_PER_DAY);
 
         // Create the service with our test config
-        rateLimitService = new RateLimitService(rateLimitConfig);
+        metrics = RouteSmartMetrics.standalone();
+        rateLimitService = new RateLimitService(rateLimitConfig, metrics);
     }
 
     // ==================== tryConsume TESTS ====================
@@ -67,6 +75,7 @@ class RateLimitServiceTest {
         // THEN - 4th request should be blocked
         boolean fourthRequest = rateLimitService.tryConsume(clientIp);
         assertFalse(fourthRequest);
+        assertEquals(1, metrics.registry().counter("routesmart.ratelimit.rejections").count());
     }
 
     @Test
@@ -85,6 +94,21 @@ class RateLimitServiceTest {
         assertTrue(rateLimitService.tryConsume(ip2));
     }
 
+    @Test
+    void shouldChargeSeveralRequestsAtOnce() {
+        // GIVEN
+        String clientIp = "192.168.1.1";
+
+        // WHEN - a batch of 2 routes, then one of 2 more than remain
+        boolean firstBatch = rateLimitService.tryConsume(clientIp, 2);
+        boolean secondBatch = rateLimitService.tryConsume(clientIp, 2);
+
+        // THEN - the refused batch takes nothing
+        assertTrue(firstBatch);
+        assertFalse(secondBatch);
+        assertEquals(1, rateLimitService.getRemainingRequests(clientIp));
+    }
+
     // ==================== getRemainingRequests TESTS ====================
 
     @Test
@@ -141,4 +165,167 @@ class RateLimitServiceTest {
         int remaining = rateLimitService.getRemainingRequests(clientIp);
         assertEquals(0, remaining);
     }
+
+    // ==================== BOUNDED STORE TESTS ====================
+
+    @Test
+    void shouldTreatIpv4AndMappedIpv6AsSameClient() {
+        // WHEN
+        rateLimitService.tryConsume("10.0.0.1");
+        rateLimitService.tryConsume("::ffff:10.0.0.1");
+
+        // THEN
+        assertEquals(TEST_REQUESTS_PER_DAY - 2, rateLimitService.getRemainingRequests(" 10.0.0.1 "));
+    }
+
+    @Test
+    void shouldStillLimitNonIpKeys() {
+        // WHEN - exhaust the limit for a junk forwarded-for value
+        for (int i = 0; i < TEST_REQUESTS_PER_DAY; i++) {
+            rateLimitService.tryConsume("unknown");
+        }
+
+        // THEN
+        assertFalse(rateLimitService.tryConsume("unknown"));
+        assertEquals(0, rateLimitService.getRemainingRequests("unknown"));
+    }
+
+    @Test
+    void shouldBoundNumberOfTrackedClients() {
+        // GIVEN
+        rateLimitConfig.setMaxClients(100);
+        rateLimitService = new RateLimitService(rateLimitConfig, metrics);
+
+        // WHEN - a scan from many addresses
+        for (int i = 0; i < 10_000; i++) {
+            rateLimitService.tryConsume("10.0." + (i >> 8) + "." + (i & 0xff));
+        }
+        rateLimitService.cleanUp();
+
+        // THEN
+        assertTrue(rateLimitService.trackedClients() <= 100);
+    }
+
+    @Test
+    void shouldDropIdleBucketAfterRefillPeriod() {
+        // GIVEN
+        AtomicLong nanos = new AtomicLong();
+        rateLimitService = new RateLimitService(rateLimitConfig, metrics, nanos::get);
+        for (int i = 0; i < TEST_REQUESTS_PER_DAY; i++) {
+            rateLimitService.tryConsume("192.168.1.1");
+        }
+
+        // WHEN
+        nanos.addAndGet(Duration.ofDays(1).toNanos());
+        rateLimitService.cleanUp();
+
+        // THEN - gone, and the client is back to a full allowance
+        assertEquals(0, rateLimitService.trackedClients());
+        assertEquals(TEST_REQUESTS_PER_DAY, rateLimitService.getRemainingRequests("192.168.1.1"));
+        assertTrue(rateLimitService.tryConsume("192.168.1.1"));
+    }
+
+    @Test
+    void shouldNotExtendIdleBucketWhenCheckingRemaining() {
+        // GIVEN
+        AtomicLong nanos = new AtomicLong();
+        rateLimitService = new RateLimitService(rateLimitConfig, metrics, nanos::get);
+        rateLimitService.tryConsume("192.168.1.1");
+
+        // WHEN
+        nanos.addAndGet(Duration.ofHours(23).toNanos());
+        rateLimitService.getRemainingRequests("192.168.1.1");
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+        rateLimitService.cleanUp();
+
+        // THEN
+        assertEquals(0, rateLimitService.trackedClients());
+    }
+
+    // ==================== DISTRIBUTED TESTS ====================
+
+    @Test
+    void shouldShareLimitBetweenInstances() {
+        // GIVEN - two instances on one store, syncing every token
+        InMemoryBucketStateStore store = new InMemoryBucketStateStore();
+        rateLimitConfig.getDistributed().setEnabled(true);
+        rateLimitConfig.getDistributed().setMaxUnsyncedTokens(0);
+        RateLimitService first = new RateLimitService(rateLimitConfig, metrics, store);
+        RateLimitService second = new RateLimitService(rateLimitConfig, metrics, store);
+
+        // WHEN
+        boolean a = first.tryConsume("192.168.1.1");
+        boolean b = second.tryConsume("192.168.1.1");
+        boolean c = first.tryConsume("192.168.1.1");
+
+        // THEN - the fourth request is refused whichever instance gets it
+        assertTrue(a && b && c);
+        assertFalse(second.tryConsume("192.168.1.1"));
+        assertFalse(first.tryConsume("::ffff:192.168.1.1"));
+        assertEquals(0, second.getRemainingRequests("192.168.1.1"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void shouldKeepQuotaAcrossRestart() {
+        // GIVEN
+        InMemoryBucketStateStore store = new InMemoryBucketStateStore();
+        rateLimitConfig.getDistributed().setEnabled(true);
+        rateLimitConfig.getDistributed().setMaxUnsyncedTokens(0);
+        RateLimitService before = new RateLimitService(rateLimitConfig, metrics, store);
+        before.tryConsume("192.168.1.1");
+        before.tryConsume("192.168.1.1");
+
+        // WHEN - a fresh instance with an empty local cache
+        RateLimitService after = new RateLimitService(rateLimitConfig, metrics, store);
+
+        // THEN
+        assertEquals(1, after.getRemainingRequests("192.168.1.1"));
+        assertTrue(after.tryConsume("192.168.1.1"));
+        assertFalse(after.tryConsume("192.168.1.1"));
+    }
+
+    @Test
+    void shouldBoundOvershootByUnsyncedTokens() {
+        // GIVEN - each instance may run 2 tokens ahead of the store
+        InMemoryBucketStateStore store = new InMemoryBucketStateStore();
+        rateLimitConfig.setRequestsPerDay(10);
+        rateLimitConfig.getDistributed().setEnabled(true);
+        rateLimitConfig.getDistributed().setMaxUnsyncedTokens(2);
+        rateLimitConfig.getDistributed().setMaxUnsyncedTime(Duration.ofHours(1));
+        RateLimitService first = new RateLimitService(rateLimitConfig, metrics, store);
+        RateLimitService second = new RateLimitService(rateLimitConfig, metrics, store);
+
+        // WHEN - alternate until both refuse
+        int allowed = 0;
+        for (int i = 0; i < 40; i++) {
+            if ((i % 2 == 0 ? first : second).tryConsume("10.0.0.1")) {
+                allowed++;
+            }
+        }
+
+        // THEN
+        assertTrue(allowed >= 10, "allowed " + allowed);
+        assertTrue(allowed <= 10 + 2 * 2, "allowed " + allowed);
+    }
+
+    @Test
+    void shouldIgnoreStoreWhenDistributedDisabled() {
+        // GIVEN
+        InMemoryBucketStateStore store = new InMemoryBucketStateStore();
+        RateLimitService service = new RateLimitService(rateLimitConfig, metrics, store);
+
+        // WHEN
+        service.tryConsume("192.168.1.1");
+
+        // THEN
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void shouldUseSameStoreKeyForEquivalentAddresses() {
+        assertEquals(RateLimitService.storeKey(ClientAddress.parse("10.0.0.1", 128)),
+                RateLimitService.storeKey(ClientAddress.parse("::ffff:10.0.0.1", 128)));
+        assertEquals("rl:s:unknown", RateLimitService.storeKey("unknown"));
+    }
 }
@@ -0,0 +1,160 @@
+package com.routesmart.service;
+
+import com.routesmart.config.RoadGraphConfig;
+import com.routesmart.matrix.RoadGraph;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphDistanceProviderTest {
+
+    // Node coordinates in micro-degrees around Harare; node 5 has no roads
+    private static final int[][] NODES = {
+            {-17_800_000, 31_000_000}, {-17_800_000, 31_010_000}, {-17_800_000, 31_020_000},
+            {-17_810_000, 31_000_000}, {-17_810_000, 31_020_000}, {-17_900_000, 31_100_000}
+    };
+
+    // from, to, meters, millis: a slow two-way street 0-1-2 and a fast one-way bypass 0->3->4->2
+    private static final int[][] EDGES = {
+            {0, 1, 1000, 60_000}, {1, 0, 1000, 60_000},
+            {1, 2, 1000, 60_000}, {2, 1, 1000, 60_000},
+            {0, 3, 1500, 30_000}, {3, 4, 2500, 30_000}, {4, 2, 1500, 30_000}
+    };
+
+    @TempDir
+    Path tempDir;
+
+    private RoadGraphConfig config;
+    private RoadGraphDistanceProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = new RoadGraphConfig();
+        config.setThreads(2);
+        provider = new RoadGraphDistanceProvider(config, RoadGraph.open(writeGraph()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.cleanup();
+    }
+
+    // ==================== SHORTEST PATH TESTS ====================
+
+    @Test
+    void shouldUseFastestPathAndItsLength() {
+        // WHEN
+        DistanceMatrix matrix = provider.getDistanceMatrix(List.of(atNode(0), atNode(2)));
+
+        // THEN - out by the bypass, back along the street
+        assertEquals(5500, matrix.distance(0, 1));
+        assertEquals(90, matrix.duration(0, 1));
+        assertEquals(2000, matrix.distance(1, 0));
+        assertEquals(120, matrix.duration(1, 0));
+        assertEquals(0, matrix.distance(0, 0));
+    }
+
+    @Test
+    void shouldFillEveryPairFromOneSearchPerOrigin() {
+        // GIVEN
+        List<Location> locations = List.of(atNode(0), atNode(1), atNode(2), atNode(3), atNode(4));
+        int[][] expectedMeters = {
+                {0, 1000, 5500, 1500, 4000},
+                {1000, 0, 1000, 2500, 5000},
+                {2000, 1000, 0, 3500, 6000},
+                {6000, 5000, 4000, 0, 2500},
+                {3500, 2500, 1500, 5000, 0}
+        };
+
+        // WHEN
+        DistanceMatrix matrix = provider.getDistanceMatrix(locations);
+
+        // THEN
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(expectedMeters[i][j], matrix.distance(i, j), i + " -> " + j);
+            }
+        }
+    }
+
+    // ==================== SNAPPING TESTS ====================
+
+    @Test
+    void shouldAddOffRoadLegs() {
+        // GIVEN - ~111 m north of node 0
+        Location offRoad = Location.builder().name("Yard").latitude(-17.799).longitude(31.000).build();
+
+        // WHEN
+        DistanceMatrix matrix = provider.getDistanceMatrix(List.of(offRoad, atNode(1)));
+
+        // THEN - 111 m at the default 20 km/h is 20 s
+        assertEquals(1111, matrix.distance(0, 1), 2);
+        assertEquals(80, matrix.duration(0, 1));
+    }
+
+    @Test
+    void shouldMarkDisconnectedAndFarLocationsUnreachable() {
+        // GIVEN
+        Location island = atNode(5);
+        Location nowhere = Location.builder().name("Nowhere").latitude(-19.0).longitude(30.0).build();
+
+        // WHEN
+        DistanceMatrix matrix = provider.getDistanceMatrix(List.of(atNode(0), island, nowhere));
+
+        // THEN
+        assertFalse(matrix.isReachable(0, 1));
+        assertFalse(matrix.isReachable(1, 0));
+        assertFalse(matrix.isReachable(0, 2));
+        assertFalse(matrix.isReachable(2, 1));
+        assertTrue(matrix.isReachable(2, 2));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private Location atNode(int node) {
+        return Location.builder()
+                .name("Node " + node)
+                .latitude(NODES[node][0] / 1e6)
+                .longitude(NODES[node][1] / 1e6)
+                .build();
+    }
+
+    private Path writeGraph() throws Exception {
+        int n = NODES.length;
+        int[] lat = new int[n];
+        int[] lng = new int[n];
+        int[] firstEdge = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            lat[v] = NODES[v][0];
+            lng[v] = NODES[v][1];
+        }
+        // EDGES is listed grouped by source already; count per source for the offsets
+        for (int[] edge : EDGES) {
+            firstEdge[edge[0] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            firstEdge[v + 1] += firstEdge[v];
+        }
+        int[] target = new int[EDGES.length];
+        int[] meters = new int[EDGES.length];
+        int[] millis = new int[EDGES.length];
+        int[] next = firstEdge.clone();
+        for (int[] edge : EDGES) {
+            int e = next[edge[0]]++;
+            target[e] = edge[1];
+            meters[e] = edge[2];
+            millis[e] = edge[3];
+        }
+        Path file = tempDir.resolve("graph.rsg");
+        RoadGraph.write(file, lat, lng, firstEdge, target, meters, millis);
+        return file;
+    }
+}
@@ -0,0 +1,225 @@
+package com.routesmart.service;
+
+import com.routesmart.cache.SolveCache;
+import com.routesmart.config.GoogleMapsConfig;
+import com.routesmart.config.OptimizerConfig;
+import com.routesmart.config.SolveCacheConfig;
+import com.routesmart.dto.OptimizationResult;
+import com.routesmart.dto.RouteRequest;
+import com.routesmart.dto.SearchStats;
+import com.routesmart.enums.EngineType;
+import com.routesmart.enums.RouteType;
+import com.routesmart.exception.InvalidInputException;
+import com.routesmart.matrix.DistanceProvider;
+import com.routesmart.metrics.RouteSmartMetrics;
+import com.routesmart.model.DistanceMatrix;
+import com.routesmart.model.Location;
+import com.routesmart.optimizer.ExactTspSolver;
+import com.routesmart.optimizer.HeuristicTspSolver;
+import com.routesmart.optimizer.OptimizationResults;
+import com.routesmart.optimizer.OptimizerEngine;
+import com.routesmart.optimizer.OptimizerRouter;
+import com.routesmart.optimizer.SolveContext;
+import com.routesmart.util.LocationParserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RouteSmartServiceTest {
+
+    // ==================== REACHABILITY TESTS ====================
+
+    @Test
+    void shouldRejectTourThatNeedsUnreachableLeg() {
+        // GIVEN - nothing drives from C back to A
+        DistanceMatrix matrix = fullMatrix(3);
+        matrix.setUnreachable(2, 0);
+
+        // WHEN
+        InvalidInputException e = assertThrows(InvalidInputException.class,
+                () -> RouteSmartService.requireReachable(locations(), List.of(0, 1, 2), matrix, true));
+
+        // THEN
+        assertEquals("No driving route from 'C' to 'A'", e.getMessage());
+    }
+
+    @Test
+    void shouldAcceptTourThatAvoidsUnreachableLegs() {
+        // GIVEN - C to A is unreachable, but an open route never drives it
+        DistanceMatrix matrix = fullMatrix(3);
+        matrix.setUnreachable(2, 0);
+
+        // WHEN / THEN
+        assertDoesNotThrow(() -> RouteSmartService.requireReachable(locations(), List.of(0, 1, 2), matrix, false));
+        assertDoesNotThrow(() -> RouteSmartService.requireReachable(locations(), List.of(0, 2, 1), matrix, true));
+    }
+
+    // ==================== STREAMING TESTS ====================
+
+    @Test
+    void shouldStreamIncumbentsForLargeRouteWithDefaultRouting() {
+        // GIVEN - 20 stops, past the exact limit, with the remote engine up and the default config
+        int n = 20;
+        OptimizerEngine remote = remoteEngine();
+        OptimizerConfig optimizerConfig = new OptimizerConfig();
+        DistanceProvider distanceProvider = mock(DistanceProvider.class);
+        when(distanceProvider.getDistanceMatrix(anyList())).thenReturn(ringMatrix(n));
+        RouteSmartService service = service(optimizerConfig, remote, distanceProvider);
+
+        RouteRequest request = request(n);
+        List<Long> incumbents = new CopyOnWriteArrayList<>();
+
+        // WHEN
+        service.optimizeRoute(request, SolveContext.withBudget(optimizerConfig.getRequestBudget()),
+                new RouteProgressListener() {
+                    @Override
+                    public void onIncumbent(int[] order, long distanceMeters) {
+                        incumbents.add(distanceMeters);
+                    }
+                });
+
+        // THEN
+        assertFalse(incumbents.isEmpty());
+        verify(remote, never()).optimize(any(), any(), any(), any());
+    }
+
+    // ==================== BUDGET TESTS ====================
+
+    @Test
+    void shouldStartSolveBudgetOnceMatrixIsReady() {
+        // GIVEN - the matrix takes longer to fetch than the whole budget
+        int n = 20;
+        OptimizerConfig optimizerConfig = new OptimizerConfig();
+        optimizerConfig.setRequestBudget(Duration.ofSeconds(1));
+        optimizerConfig.getRouting().setRemoteMinBudget(Duration.ofMillis(500));
+        OptimizerEngine remote = remoteEngine();
+        DistanceProvider slowProvider = mock(DistanceProvider.class);
+        when(slowProvider.getDistanceMatrix(anyList())).thenAnswer(inv -> {
+            Thread.sleep(1_200);
+            return ringMatrix(n);
+        });
+        RouteSmartService service = service(optimizerConfig, remote, slowProvider);
+
+        // WHEN
+        service.optimizeRoute(request(n));
+
+        // THEN - the solver still got (almost) the whole budget, so the route went remote
+        ArgumentCaptor<SolveContext> context = ArgumentCaptor.forClass(SolveContext.class);
+        verify(remote).optimize(anyList(), any(), eq(RouteType.ROUND_TRIP), context.capture());
+        assertTrue(context.getValue().remaining().compareTo(Duration.ofMillis(500)) > 0);
+    }
+
+    // ==================== CACHING TESTS ====================
+
+    @Test
+    void shouldNotCacheSearchCutOffByItsDeadline() {
+        // GIVEN - the remote search ran out of time before converging
+        int n = 20;
+        OptimizerEngine remote = remoteEngine();
+        when(remote.optimize(anyList(), any(), any(), any())).thenAnswer(inv -> {
+            List<Location> locations = inv.getArgument(0);
+            OptimizationResult result = OptimizationResults.fromOrder(locations, inv.getArgument(1),
+                    IntStream.range(0, locations.size()).toArray(), true);
+            result.setSearchStats(SearchStats.builder().converged(false).build());
+            return result;
+        });
+        DistanceProvider distanceProvider = mock(DistanceProvider.class);
+        when(distanceProvider.getDistanceMatrix(anyList())).thenReturn(ringMatrix(n));
+        RouteSmartService service = service(new OptimizerConfig(), remote, distanceProvider);
+
+        // WHEN
+        service.optimizeRoute(request(n));
+        service.optimizeRoute(request(n));
+
+        // THEN - the second request searched again instead of reusing the cut-off tour
+        verify(remote, times(2)).optimize(anyList(), any(), any(), any());
+    }
+
+    @Test
+    void shouldCacheConvergedSearch() {
+        // GIVEN
+        int n = 20;
+        OptimizerEngine remote = remoteEngine();
+        DistanceProvider distanceProvider = mock(DistanceProvider.class);
+        when(distanceProvider.getDistanceMatrix(anyList())).thenReturn(ringMatrix(n));
+        RouteSmartService service = service(new OptimizerConfig(), remote, distanceProvider);
+
+        // WHEN
+        service.optimizeRoute(request(n));
+        service.optimizeRoute(request(n));
+
+        // THEN
+        verify(remote, times(1)).optimize(anyList(), any(), any(), any());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static RouteSmartService service(OptimizerConfig optimizerConfig, OptimizerEngine remote,
+                                             DistanceProvider distanceProvider) {
+        RouteSmartMetrics metrics = RouteSmartMetrics.standalone();
+        OptimizerRouter router = new OptimizerRouter(
+                List.of(new ExactTspSolver(), new HeuristicTspSolver(), remote), optimizerConfig, metrics);
+        return new RouteSmartService(new LocationParserService(), mock(GoogleMapsService.class),
+                distanceProvider, router, new GoogleMapsConfig(), optimizerConfig,
+                new SolveCache(new SolveCacheConfig()), metrics);
+    }
+
+    // An available remote engine that answers with the stops in input order
+    private static OptimizerEngine remoteEngine() {
+        OptimizerEngine remote = mock(OptimizerEngine.class);
+        when(remote.type()).thenReturn(EngineType.REMOTE);
+        when(remote.isAvailable()).thenReturn(true);
+        when(remote.optimize(anyList(), any(), any(), any())).thenAnswer(inv -> {
+            List<Location> locations = inv.getArgument(0);
+            return OptimizationResults.fromOrder(locations, inv.getArgument(1),
+                    IntStream.range(0, locations.size()).toArray(), true);
+        });
+        return remote;
+    }
+
+    private static RouteRequest request(int n) {
+        RouteRequest request = new RouteRequest();
+        request.setLocations(IntStream.range(0, n).mapToObj(i -> "-17.%04d,31.%04d".formatted(i, i)).toList());
+        request.setRouteType(RouteType.ROUND_TRIP);
+        return request;
+    }
+
+    // Stops on a ring, listed in a scrambled order so the first tour is far from the best
+    private static DistanceMatrix ringMatrix(int n) {
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int a = (i * 7) % n;
+                int b = (j * 7) % n;
+                int steps = Math.min(Math.abs(a - b), n - Math.abs(a - b));
+                matrix.set(i, j, steps * 1000, steps * 60);
+            }
+        }
+        return matrix;
+    }
+
+    private static DistanceMatrix fullMatrix(int n) {
+        DistanceMatrix matrix = new DistanceMatrix(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix.set(i, j, i == j ? 0 : 1000, i == j ? 0 : 60);
+            }
+        }
+        return matrix;
+    }
+
+    private static List<Location> locations() {
+        return List.of(
+                Location.builder().name("A").build(),
+                Location.builder().name("B").build(),
+                Location.builder().name("C").build());
+    }
+}
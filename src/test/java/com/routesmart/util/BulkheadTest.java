@@ -0,0 +1,151 @@
+package com.routesmart.util;
+
+import com.routesmart.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // ==================== CALL TESTS ====================
+
+    @Test
+    void shouldReturnResultAndReleaseSlot() throws Exception {
+        // GIVEN
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ZERO);
+
+        // WHEN
+        String first = bulkhead.call(() -> "a");
+        String second = bulkhead.call(() -> "b");
+
+        // THEN
+        assertEquals("ab", first + second);
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    @Test
+    void shouldReleaseSlotWhenCallThrows() {
+        // GIVEN
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ZERO);
+
+        // WHEN
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("downstream failed");
+        }));
+
+        // THEN
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    // ==================== LIMIT TESTS ====================
+
+    @Test
+    void shouldRejectAfterQueueTimeoutWhenFull() throws Exception {
+        // GIVEN - the only slot held by a slow call
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = executor.submit(() -> bulkhead.call(() -> {
+            started.countDown();
+            release.await();
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // WHEN
+        long start = System.nanoTime();
+        BulkheadFullException e = assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "fast"));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // THEN
+        assertEquals("BULKHEAD_FULL", e.getErrorCode());
+        assertTrue(waitedMs >= 40, "waited " + waitedMs + " ms");
+        assertEquals(1, bulkhead.rejections());
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldAdmitQueuedCallWhenSlotFreesInTime() throws Exception {
+        // GIVEN
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> bulkhead.call(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // WHEN
+        Future<String> queued = executor.submit(() -> bulkhead.call(() -> "queued"));
+        release.countDown();
+
+        // THEN
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.rejections());
+    }
+
+    @Test
+    void shouldNeverExceedLimit() throws Exception {
+        // GIVEN
+        Bulkhead bulkhead = new Bulkhead("test", 3, Duration.ofSeconds(10));
+        int[] peak = new int[1];
+
+        // WHEN
+        Future<?>[] calls = new Future<?>[50];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = executor.submit(() -> bulkhead.call(() -> {
+                synchronized (peak) {
+                    peak[0] = Math.max(peak[0], bulkhead.inFlight());
+                }
+                Thread.sleep(2);
+                return null;
+            }));
+        }
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        // THEN
+        assertTrue(peak[0] <= 3, "peak " + peak[0]);
+    }
+
+    // ==================== METRICS TESTS ====================
+
+    @Test
+    void shouldPublishGaugesPerBulkhead() {
+        // GIVEN
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // WHEN - gauges only hold their bulkhead weakly, so keep both reachable
+        Bulkhead geocoding = new Bulkhead("geocoding", 32, Duration.ZERO);
+        Bulkhead optimizer = new Bulkhead("optimizer", 8, Duration.ZERO);
+        geocoding.bindTo(registry);
+        optimizer.bindTo(registry);
+
+        // THEN
+        assertEquals(32, registry.get("routesmart.bulkhead.limit").tag("name", "geocoding").gauge().value());
+        assertEquals(8, registry.get("routesmart.bulkhead.limit").tag("name", "optimizer").gauge().value());
+        assertEquals(0, registry.get("routesmart.bulkhead.rejections").tag("name", "optimizer")
+                .functionCounter().count());
+        assertEquals(0, geocoding.inFlight() + optimizer.inFlight());
+    }
+}
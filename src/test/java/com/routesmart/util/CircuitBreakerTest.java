@@ -0,0 +1,265 @@
+package com.routesmart.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    // window 10, opens at 50% once 4 calls are in, 30 s open, 2 trial calls, opened by one failed probe
+    private CircuitBreaker breaker() {
+        return breaker(1);
+    }
+
+    private CircuitBreaker breaker(int probeFailures) {
+        return new CircuitBreaker("test", new CircuitBreaker.Settings(
+                10, 4, 50, Duration.ofSeconds(1), Duration.ofSeconds(30), 2, probeFailures), nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(Duration.ofMillis(10));
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+    }
+
+    // ==================== OPENING TESTS ====================
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+
+        // WHEN - every call failed, but only 3 of the 4 needed
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+
+        // THEN
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldOpenAtFailureRateThreshold() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        succeed(breaker);
+        succeed(breaker);
+        fail(breaker);
+
+        // WHEN - 2 of 4
+        fail(breaker);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.notPermittedCount());
+    }
+
+    @Test
+    void shouldCountSlowCallsAsFailures() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+
+        // WHEN - answers arrive, but too late
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(Duration.ofSeconds(3));
+        }
+
+        // THEN
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldForgetOutcomesThatLeftTheWindow() {
+        // GIVEN - 4 failures, then 10 successes push them out of the window
+        CircuitBreaker breaker = new CircuitBreaker("test", new CircuitBreaker.Settings(
+                10, 4, 50, null, Duration.ofSeconds(30), 2, 1), nanos::get);
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+        for (int i = 0; i < 10; i++) {
+            succeed(breaker);
+        }
+
+        // WHEN - one failure in a window of ten
+        fail(breaker);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    // ==================== RECOVERY TESTS ====================
+
+    @Test
+    void shouldLetTrialCallsThroughAfterOpenDuration() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+
+        // WHEN
+        advance(Duration.ofSeconds(30));
+
+        // THEN - exactly halfOpenCalls are let through
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldCloseWhenTrialCallsSucceed() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        advance(Duration.ofSeconds(30));
+
+        // WHEN
+        succeed(breaker);
+        succeed(breaker);
+
+        // THEN - and starts over with a clean window
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldReopenWhenTrialCallFails() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        advance(Duration.ofSeconds(30));
+
+        // WHEN
+        succeed(breaker);
+        fail(breaker);
+
+        // THEN - for another full open period
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        advance(Duration.ofSeconds(29));
+        assertFalse(breaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldFreeTrialSlotWithoutCountingIgnoredCall() {
+        // GIVEN - half open with both trial slots taken
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+
+        // WHEN - one trial call was rejected by the downstream as a bad request
+        breaker.onIgnored();
+
+        // THEN - its slot is free again and the breaker stays half open
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    // ==================== PROBE TESTS ====================
+
+    @Test
+    void shouldOpenOnFailedProbe() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+
+        // WHEN
+        breaker.onProbe(false);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldOpenOnlyAfterConsecutiveFailedProbes() {
+        // GIVEN - three failed probes in a row needed
+        CircuitBreaker breaker = breaker(3);
+
+        // WHEN - two slow probes, a good one, then two more
+        breaker.onProbe(false);
+        breaker.onProbe(false);
+        breaker.onProbe(true);
+        breaker.onProbe(false);
+        breaker.onProbe(false);
+
+        // THEN - never three in a row
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // WHEN
+        breaker.onProbe(false);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldHalfOpenOnHealthyProbeWithoutWaiting() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        breaker.onProbe(false);
+
+        // WHEN
+        breaker.onProbe(true);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldIgnoreHealthyProbeWhenClosed() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+
+        // WHEN
+        breaker.onProbe(true);
+
+        // THEN
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    // ==================== METRICS TESTS ====================
+
+    @Test
+    void shouldExposeStateGauge() {
+        // GIVEN
+        CircuitBreaker breaker = breaker();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breaker.bindTo(registry);
+
+        // WHEN
+        breaker.onProbe(false);
+
+        // THEN
+        assertEquals(1.0, registry.get("routesmart.circuit.state").tag("name", "test").gauge().value());
+        assertEquals(1.0, registry.get("routesmart.circuit.opened").functionCounter().count());
+    }
+}
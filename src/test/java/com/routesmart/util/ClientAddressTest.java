@@ -0,0 +1,101 @@
+package com.routesmart.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientAddressTest {
+
+    // ==================== IPV4 TESTS ====================
+
+    @Test
+    void shouldPackIpv4AsMappedAddress() {
+        // WHEN
+        ClientAddress address = ClientAddress.parse("192.168.1.10", 128);
+
+        // THEN
+        assertTrue(address.isIpv4());
+        assertEquals(0, address.high());
+        assertEquals(0x0000FFFF_C0A8010AL, address.low());
+    }
+
+    @Test
+    void shouldTreatMappedIpv6AsSameClientAsIpv4() {
+        assertEquals(ClientAddress.parse("10.0.0.1", 128), ClientAddress.parse("::ffff:10.0.0.1", 128));
+        assertEquals(ClientAddress.parse("10.0.0.1", 64), ClientAddress.parse("::FFFF:a00:1", 64));
+    }
+
+    @Test
+    void shouldRejectInvalidIpv4() {
+        assertNull(ClientAddress.parse("256.1.1.1", 128));
+        assertNull(ClientAddress.parse("1.2.3", 128));
+        assertNull(ClientAddress.parse("1.2.3.4.5", 128));
+        assertNull(ClientAddress.parse("1..2.3", 128));
+        assertNull(ClientAddress.parse("unknown", 128));
+        assertNull(ClientAddress.parse("", 128));
+        assertNull(ClientAddress.parse(null, 128));
+    }
+
+    // ==================== IPV6 TESTS ====================
+
+    @Test
+    void shouldMatchInetAddressForIpv6Forms() throws Exception {
+        String[] inputs = {"::", "::1", "1::", "2001:db8::8a2e:370:7334", "2001:0db8:0000:0000:0000:ff00:0042:8329",
+                "fe80::1:2:3:4:5", "1:2:3:4:5:6:7:8", "1:2:3:4:5:6::8", "::2:3:4:5:6:7:8", "64:ff9b::192.0.2.33"};
+        for (String input : inputs) {
+            // WHEN
+            ClientAddress address = ClientAddress.parse(input, 128);
+
+            // THEN
+            byte[] expected = InetAddress.getByName(input).getAddress();
+            assertNotNull(address, input);
+            if (expected.length == 16) {
+                assertArrayEquals(expected, bytes(address), input);
+            }
+        }
+    }
+
+    @Test
+    void shouldIgnoreBracketsAndZone() {
+        ClientAddress plain = ClientAddress.parse("fe80::1", 128);
+        assertEquals(plain, ClientAddress.parse("[fe80::1]", 128));
+        assertEquals(plain, ClientAddress.parse("fe80::1%eth0", 128));
+    }
+
+    @Test
+    void shouldRejectInvalidIpv6() {
+        assertNull(ClientAddress.parse("1:2:3:4:5:6:7:8:9", 128));
+        assertNull(ClientAddress.parse("1::2::3", 128));
+        assertNull(ClientAddress.parse("12345::1", 128));
+        assertNull(ClientAddress.parse("1:2:", 128));
+        assertNull(ClientAddress.parse(":1", 128));
+        assertNull(ClientAddress.parse("g::1", 128));
+        assertNull(ClientAddress.parse("1:2:3:4:5:6:7:1.2.3.4", 128));
+    }
+
+    @Test
+    void shouldGroupIpv6ByPrefix() {
+        // GIVEN - two addresses in the same /64
+        String first = "2001:db8:1:2:aaaa::1";
+        String second = "2001:db8:1:2:bbbb::2";
+
+        // THEN
+        assertNotEquals(ClientAddress.parse(first, 128), ClientAddress.parse(second, 128));
+        assertEquals(ClientAddress.parse(first, 64), ClientAddress.parse(second, 64));
+        assertNotEquals(ClientAddress.parse(first, 64), ClientAddress.parse("2001:db8:1:3::1", 64));
+        assertEquals(ClientAddress.parse(first, 48), ClientAddress.parse("2001:db8:1:3::1", 48));
+    }
+
+    // ==================== HELPERS ====================
+
+    private static byte[] bytes(ClientAddress address) {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (address.high() >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (address.low() >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+}
@@ -1,11 +1,17 @@
 package com.routesmart.util;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
 import com.routesmart.enums.InputType;
 import com.routesmart.model.Location;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -192,6 +198,88 @@ class LocationParserServiceTest {
         assertEquals("  Harare, Zimbabwe  ", result.getOriginalInput()); // Original preserved
     }
 
+    @Test
+    void shouldParseEircodeWithRepeatedWhitespace() {
+        // GIVEN
+        String input = "d01 \t f5p2";
+
+        // WHEN
+        Location result = locationParserService.parseLocation(input);
+
+        // THEN - name keeps the original spacing
+        assertEquals(InputType.EIRCODE, result.getInputType());
+        assertEquals("D01 \t F5P2", result.getName());
+    }
+
+    // ==================== EDGE CASE TESTS ====================
+
+    @Test
+    void shouldPreferQueryParamOverAtSymbol() {
+        // GIVEN
+        String input = "https://www.google.com/maps/@1.5,2.5,15z?q=-17.8252,31.0335";
+
+        // WHEN
+        Location result = locationParserService.parseLocation(input);
+
+        // THEN
+        assertEquals(-17.8252, result.getLatitude());
+        assertEquals(31.0335, result.getLongitude());
+    }
+
+    @Test
+    void shouldParseLongNumbersLikeDoubleParse() {
+        // GIVEN - more digits than the fast path handles
+        String input = "-17.82520000000000000001,31.033512345678901234";
+
+        // WHEN
+        Location result = locationParserService.parseLocation(input);
+
+        // THEN
+        assertEquals(Double.parseDouble("-17.82520000000000000001"), result.getLatitude());
+        assertEquals(Double.parseDouble("31.033512345678901234"), result.getLongitude());
+    }
+
+    @Test
+    void shouldNotTreatIntegersAsCoordinates() {
+        assertEquals(InputType.LOCATION_NAME, locationParserService.parseLocation("-17,31").getInputType());
+        assertEquals(InputType.LOCATION_NAME, locationParserService.parseLocation("-17.,31.0").getInputType());
+    }
+
+    @Test
+    void shouldMatchRegexClassificationOnRandomInputs() {
+        // GIVEN - inputs built from the characters the patterns care about
+        String[] pieces = {"-", "1", "7", "0", ".", ",", " ", "\t", "D", "f", "x", "?q=", "&q=", "@",
+                "/place/", "google.com/maps", "goo.gl/maps", "-17.8252", "31.0335", "D01", "F5P2", "é"};
+        Random random = new Random(42);
+        // every parse logs at info/warn - keep 5,000 of them out of the build output
+        Logger parserLog = (Logger) LoggerFactory.getLogger(LocationParserService.class);
+        Level level = parserLog.getLevel();
+        parserLog.setLevel(Level.ERROR);
+
+        try {
+            for (int n = 0; n < 5_000; n++) {
+                StringBuilder input = new StringBuilder();
+                int count = 1 + random.nextInt(8);
+                for (int i = 0; i < count; i++) {
+                    input.append(pieces[random.nextInt(pieces.length)]);
+                }
+
+                // WHEN
+                Location expected = RegexParser.parse(input.toString());
+                Location actual = locationParserService.parseLocation(input.toString());
+
+                // THEN
+                String message = "input '" + input + "'";
+                assertEquals(expected.getInputType(), actual.getInputType(), message);
+                assertEquals(expected.getName(), actual.getName(), message);
+                assertEquals(expected.getLatitude(), actual.getLatitude(), message);
+                assertEquals(expected.getLongitude(), actual.getLongitude(), message);
+            }
+        } finally {
+            parserLog.setLevel(level);
+        }
+    }
+
     // ==================== BATCH PARSING TEST ====================
 
     @Test
@@ -212,4 +300,46 @@ class LocationParserServiceTest {
         assertEquals(InputType.EIRCODE, results.get(1).getInputType());
         assertEquals(InputType.LOCATION_NAME, results.get(2).getInputType());
     }
+
+    // ==================== HELPER CLASSES ====================
+
+    // The original regex-based classification, kept as the reference behavior
+    private static class RegexParser {
+        private static final Pattern EIRCODE = Pattern.compile("^[A-Z][0-9A-Z]{2}[ ]?[A-Z0-9]{4}$", Pattern.CASE_INSENSITIVE);
+        private static final Pattern COORDINATES = Pattern.compile("^(-?\\d+\\.\\d+),\\s*(-?\\d+\\.\\d+)$");
+        private static final Pattern[] URL_PATTERNS = {
+                Pattern.compile("[?&]q=(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)"),
+                Pattern.compile("@(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)"),
+                Pattern.compile("/place/(-?\\d+\\.\\d+),(-?\\d+\\.\\d+)")
+        };
+
+        static Location parse(String input) {
+            Matcher coordinates = COORDINATES.matcher(input.trim());
+            if (coordinates.matches()) {
+                return located("Current Location", coordinates, InputType.CURRENT_LOCATION);
+            }
+            if (input.contains("google.com/maps") || input.contains("goo.gl/maps")) {
+                for (Pattern pattern : URL_PATTERNS) {
+                    Matcher matcher = pattern.matcher(input);
+                    if (matcher.find()) {
+                        return located("Custom Location", matcher, InputType.GOOGLE_MAPS_URL);
+                    }
+                }
+                return Location.builder().name(input).inputType(InputType.LOCATION_NAME).build();
+            }
+            if (EIRCODE.matcher(input.trim().replaceAll("\\s+", " ")).matches()) {
+                return Location.builder().name(input.toUpperCase().trim()).inputType(InputType.EIRCODE).build();
+            }
+            return Location.builder().name(input.trim()).inputType(InputType.LOCATION_NAME).build();
+        }
+
+        private static Location located(String name, Matcher matcher, InputType type) {
+            return Location.builder()
+                    .name(name)
+                    .latitude(Double.parseDouble(matcher.group(1)))
+                    .longitude(Double.parseDouble(matcher.group(2)))
+                    .inputType(type)
+                    .build();
+        }
+    }
 }
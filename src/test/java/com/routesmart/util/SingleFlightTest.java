@@ -0,0 +1,126 @@
+package com.routesmart.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    // ==================== COALESCING TESTS ====================
+
+    @Test
+    void shouldRunWorkOnceForConcurrentCallers() throws Exception {
+        // GIVEN - the leader blocks until all callers have arrived
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        // WHEN
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("route", () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            waitForInFlight();
+            Thread.sleep(100);
+            release.countDown();
+
+            // THEN
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, runs.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void shouldRunAgainOnceCompleted() {
+        // GIVEN
+        AtomicInteger runs = new AtomicInteger();
+
+        // WHEN
+        singleFlight.execute("route", runs::incrementAndGet);
+        singleFlight.execute("route", runs::incrementAndGet);
+
+        // THEN
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void shouldNotCoalesceDifferentKeys() throws Exception {
+        // GIVEN
+        CountDownLatch release = new CountDownLatch(1);
+
+        // WHEN - a second key runs while the first is still in flight
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("a", () -> {
+                await(release);
+                return 1;
+            }));
+            waitForInFlight();
+            int second = singleFlight.execute("b", () -> 2);
+            release.countDown();
+
+            // THEN
+            assertEquals(2, second);
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void shouldShareLeaderException() throws Exception {
+        // GIVEN
+        CountDownLatch release = new CountDownLatch(1);
+
+        // WHEN
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("route", () -> {
+                await(release);
+                throw new IllegalStateException("geocoding failed");
+            }));
+            waitForInFlight();
+            Future<Integer> follower = executor.submit(() -> singleFlight.execute("route", () -> 0));
+            Thread.sleep(100);
+            release.countDown();
+
+            // THEN
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void waitForInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.inFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}